@@ -25,6 +25,9 @@ interface Department {
     seats_left: number;
 }
 
+// Ask the server for a downscaled variant instead of the original upload
+const withSize = (url: string, size: number) => `${url}${url.includes('?') ? '&' : '?'}size=${size}`;
+
 export const EmployeeDetailContainer: React.FC = () => {
     const { id } = useParams<{ id: string }>();
     const navigate = useNavigate();
@@ -93,11 +96,7 @@ const fetchDepartments = useCallback(async () => {
                     setSelectedDepartmentId(data.department_id);
                 }
 
-                let image = data.photograph_path || '';
-                if (image && !image.startsWith('http')) {
-                    image = image.replace(/^\//, '');
-                    image = `http://localhost:8000/${image}`;
-                }
+                const image = data.photo_url ? `http://localhost:8000${withSize(data.photo_url, 1024)}` : '';
 
                 const mapped: Employee = {
                     id: data.employee_id,
@@ -190,8 +189,8 @@ const fetchDepartments = useCallback(async () => {
                 title: refreshed.title,
                 department: refreshed.department_name,
                 departmentId: refreshed.department_id,
-                image: refreshed.photograph_path
-                    ? `http://localhost:8000/${refreshed.photograph_path.replace(/^\//, '')}`
+                image: refreshed.photo_url
+                    ? `http://localhost:8000${withSize(refreshed.photo_url, 1024)}`
                     : prev?.image
             }));
 
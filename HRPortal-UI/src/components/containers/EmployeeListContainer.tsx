@@ -17,6 +17,10 @@ export const EmployeeListContainer: React.FC = () => {
                     title: `${emp.first_name} ${emp.last_name}`,
                     description: `${emp.title || ''} ${emp.department_name ? ' - ' + emp.department_name : ''}\nEmail: ${emp.email || ''}`,
                     category: emp.department_name || '',
+                    // Versioned URL (?v=<content hash>), safe for the browser to cache; 256px thumbnail for the card
+                    image: emp.photo_url
+                        ? `http://localhost:8000${emp.photo_url}${emp.photo_url.includes('?') ? '&' : '?'}size=256`
+                        : '',
                     rating: { rate: 0, count: 0 }
                 }));
                 setEmployees(mapped);
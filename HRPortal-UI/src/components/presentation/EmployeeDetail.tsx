@@ -40,8 +40,8 @@ export const EmployeeDetail: React.FC<EmployeeDetailProps> = ({
     useEffect(() => {
         // Set photo preview when product changes
         if (product) {
-            // Always set the image URL with a timestamp to prevent caching issues
-            const imageUrl = `http://localhost:8000/api/employee/image/${product.id}?t=${Date.now()}`;
+            // The versioned URL changes with the photo content, so the browser cache can be used
+            const imageUrl = product.image || `http://localhost:8000/api/employee/image/${product.id}`;
             setPhotoPreview(imageUrl);
         }
     }, [product]);
@@ -138,7 +138,7 @@ export const EmployeeDetail: React.FC<EmployeeDetailProps> = ({
                                     <span className="text-gray-500 dark:text-gray-400">No Image</span>
                                 </div>
                                 <img
-                                    src={`http://localhost:8000/api/employee/image/${product.id}?t=${Date.now()}`}
+                                    src={product.image || `http://localhost:8000/api/employee/image/${product.id}`}
                                     alt={`${product.firstName} ${product.lastName}`}
                                     className="relative w-full h-full object-cover"
                                     onLoad={(e) => {
@@ -34,7 +34,7 @@ export const EmployeeList: React.FC<EmployeeListProps> = ({ products, loading })
                         <div className="bg-white p-4 flex items-center justify-center h-48">
                             <div className="relative w-full h-full flex items-center justify-center bg-gray-100 dark:bg-gray-700">
                                 <img 
-                                    src={`http://localhost:8000/api/employee/image/${product.id}?t=${Date.now()}`}
+                                    src={product.image || `http://localhost:8000/api/employee/image/${product.id}`}
                                     alt={`${product.firstName} ${product.lastName}`}
                                     className="max-h-full max-w-full object-contain"
                                     onError={async (e) => {
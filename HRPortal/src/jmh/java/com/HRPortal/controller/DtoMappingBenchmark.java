@@ -0,0 +1,62 @@
+package com.HRPortal.controller;
+
+import com.HRPortal.dto.EmployeeDTO;
+import com.HRPortal.entity.Department;
+import com.HRPortal.entity.Employees;
+import com.HRPortal.mapper.EmployeeMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// EmployeesController.toDTO (all-args constructor) vs. EmployeeMapper.toDTO (no-args plus setters)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+	@Param({"true", "false"})
+	public boolean withDepartment;
+
+	private final EmployeeMapper mapper = new EmployeeMapper();
+	private Employees employee;
+
+	@Setup
+	public void setUp() {
+		employee = new Employees();
+		employee.setEmployee_id(42);
+		employee.setFirst_name("Ada");
+		employee.setLast_name("Lovelace");
+		employee.setEmail("ada@example.com");
+		employee.setTitle("Engineer");
+		employee.setPhotograph_path("/uploads/employee_photos/0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef.jpg");
+		if (withDepartment) {
+			Department department = new Department();
+			department.setDepartmentId(7);
+			department.setName("Research");
+			employee.setDepartment(department);
+		}
+	}
+
+	@Benchmark
+	public EmployeeDTO controllerToDto() {
+		return EmployeesController.toDTO(employee);
+	}
+
+	@Benchmark
+	public EmployeeDTO mapperToDto() {
+		return mapper.toDTO(employee);
+	}
+}
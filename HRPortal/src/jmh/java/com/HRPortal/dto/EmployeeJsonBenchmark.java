@@ -0,0 +1,85 @@
+package com.HRPortal.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialising List<EmployeeDTO> the way the controllers do: one buffered document vs. the streamed array
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeJsonBenchmark {
+
+	@Param({"1000", "100000"})
+	public int rows;
+
+	private ObjectMapper objectMapper;
+	private ObjectWriter listWriter;
+	private List<EmployeeDTO> employees;
+
+	@Setup
+	public void setUp() {
+		// same defaults as the Spring Boot auto-configured mapper
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, EmployeeDTO.class));
+		employees = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			String photo = i % 3 == 0 ? null
+					: String.format("/uploads/employee_photos/%064x.jpg", i);
+			employees.add(new EmployeeDTO(i, "First" + i, "Last" + i, "employee" + i + "@example.com",
+					"Engineer", photo, i % 50, "Department " + (i % 50)));
+		}
+	}
+
+	@Benchmark
+	public byte[] bufferedList() throws IOException {
+		return listWriter.writeValueAsBytes(employees);
+	}
+
+	@Benchmark
+	public long streamedArray() throws IOException {
+		CountingOutputStream out = new CountingOutputStream();
+		try (var json = objectMapper.getFactory().createGenerator(out)) {
+			json.writeStartArray();
+			for (EmployeeDTO dto : employees) {
+				json.writeObject(dto);
+			}
+			json.writeEndArray();
+		}
+		return out.count;
+	}
+
+	private static final class CountingOutputStream extends OutputStream {
+		private long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
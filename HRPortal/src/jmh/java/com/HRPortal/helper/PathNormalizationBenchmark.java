@@ -0,0 +1,54 @@
+package com.HRPortal.helper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// The prefix stripping, normalisation and traversal check shared by loadFileAsResource() and deleteFile()
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathNormalizationBenchmark {
+
+	@Param({
+			"/uploads/employee_photos/0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef.jpg",
+			"uploads/employee_photos/0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef.jpg",
+			"./emp_5.jpg",
+			"/photos/../emp_5.jpg"
+	})
+	public String photoPath;
+
+	private FileHelper fileHelper;
+
+	@Setup
+	public void setUp() throws IOException {
+		fileHelper = new FileHelper();
+		ReflectionTestUtils.setField(fileHelper, "baseUploadDir", "target/jmh-uploads");
+		ReflectionTestUtils.setField(fileHelper, "configuredEmployeePhotosDir", "target/jmh-uploads/employee_photos");
+		ReflectionTestUtils.setField(fileHelper, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(fileHelper, "photoStore", new LocalPhotoStore(Path.of("target/jmh-uploads/employee_photos")));
+		fileHelper.init();
+	}
+
+	@Benchmark
+	public String photoName() throws IOException {
+		return fileHelper.photoName(photoPath);
+	}
+}
@@ -0,0 +1,116 @@
+package com.HRPortal.repository;
+
+import com.HRPortal.HRPortalApplication;
+import com.HRPortal.dto.EmployeeDTO;
+import com.HRPortal.entity.Employees;
+import com.HRPortal.service.EmployeesService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Employee list queries against embedded H2 (the test datasource), through the real Spring context
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeQueryBenchmark {
+
+	private static final int PAGE = 50;
+
+	@Param({"10000"})
+	public int rows;
+
+	private ConfigurableApplicationContext context;
+	private EmployeesRepo employeesRepo;
+	private EmployeesService employeesService;
+	private int middleId;
+	private String middleCursor;
+
+	@Setup
+	public void setUp() {
+		context = new SpringApplicationBuilder(HRPortalApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.jpa.properties.hibernate.generate_statistics=false",
+						"logging.level.root=WARN")
+				.run();
+		employeesRepo = context.getBean(EmployeesRepo.class);
+		employeesService = context.getBean(EmployeesService.class);
+
+		JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+		List<Object[]> departments = new ArrayList<>();
+		for (int d = 1; d <= 20; d++) {
+			departments.add(new Object[]{"Department " + d});
+		}
+		jdbc.batchUpdate("INSERT INTO department (name) VALUES (?)", departments);
+		List<Integer> departmentIds = jdbc.queryForList("SELECT department_id FROM department", Integer.class);
+		List<Object[]> employees = new ArrayList<>();
+		for (int i = 0; i < rows; i++) {
+			employees.add(new Object[]{"First" + i, "Last" + (i * 7919 % rows), "bench" + i + "@example.com",
+					"Engineer", departmentIds.get(i % departmentIds.size())});
+		}
+		jdbc.batchUpdate("INSERT INTO employees (first_name, last_name, email, title, department_id) VALUES (?, ?, ?, ?, ?)", employees);
+		middleId = jdbc.queryForObject("SELECT MIN(employee_id) FROM employees", Integer.class) + rows / 2;
+		middleCursor = new EmployeeCursor(EmployeesService.SORT_BY_LAST_NAME, middleId,
+				jdbc.queryForObject("SELECT last_name FROM employees WHERE employee_id = ?", String.class, middleId)).encode();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	// What /api/employee/get did before: every entity, then the department join per row
+	@Benchmark
+	public List<EmployeeDTO> findAllEntitiesAndMap() {
+		List<Employees> all = employeesRepo.findAll();
+		List<EmployeeDTO> result = new ArrayList<>(all.size());
+		for (Employees e : all) {
+			result.add(new EmployeeDTO(e.getEmployee_id(), e.getFirst_name(), e.getLast_name(), e.getEmail(), e.getTitle(),
+					e.getPhotograph_path(), e.getDepartment() != null ? e.getDepartment().getDepartmentId() : 0,
+					e.getDepartment() != null ? e.getDepartment().getName() : null));
+		}
+		return result;
+	}
+
+	@Benchmark
+	public long streamAll() {
+		AtomicLong count = new AtomicLong();
+		employeesService.streamAll(dto -> count.incrementAndGet());
+		return count.get();
+	}
+
+	@Benchmark
+	public List<EmployeeDTO> keysetPageById() {
+		return employeesRepo.findDtoPageAfter(EmployeeFilter.NONE, middleId, PAGE);
+	}
+
+	@Benchmark
+	public List<EmployeeDTO> keysetPageByLastName() {
+		return employeesService.getPage(EmployeeFilter.NONE, middleCursor, PAGE, EmployeesService.SORT_BY_LAST_NAME);
+	}
+
+	@Benchmark
+	public EmployeeDTO findDtoById() {
+		return employeesRepo.findDtoByEmployee_id(middleId).orElseThrow();
+	}
+}
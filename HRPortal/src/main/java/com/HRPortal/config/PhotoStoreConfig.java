@@ -0,0 +1,39 @@
+package com.HRPortal.config;
+
+import com.HRPortal.helper.LocalPhotoStore;
+import com.HRPortal.helper.PhotoStore;
+import com.HRPortal.helper.S3PhotoStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+// photo.store.type picks where photos live: the sharded local directory (default) or an S3-compatible bucket
+@Configuration
+public class PhotoStoreConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "photo.store.type", havingValue = "local", matchIfMissing = true)
+    public PhotoStore localPhotoStore(@Value("${file.employee-photos-dir}") String photosDir) throws IOException {
+        return new LocalPhotoStore(Paths.get(photosDir));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "photo.store.type", havingValue = "s3")
+    public PhotoStore s3PhotoStore(@Value("${photo.store.s3.endpoint}") URI endpoint,
+                                   @Value("${photo.store.s3.region:us-east-1}") String region,
+                                   @Value("${photo.store.s3.bucket}") String bucket,
+                                   @Value("${photo.store.s3.access-key}") String accessKey,
+                                   @Value("${photo.store.s3.secret-key}") String secretKey,
+                                   @Value("${photo.store.s3.prefix:employee_photos/}") String prefix,
+                                   @Value("${photo.store.s3.cache-dir:${file.upload-dir}/photo-cache}") String cacheDir,
+                                   @Value("${photo.store.s3.cache-max-bytes:1073741824}") long cacheMaxBytes,
+                                   @Value("${photo.store.s3.timeout:PT10S}") Duration timeout) throws IOException {
+        return new S3PhotoStore(endpoint, region, bucket, accessKey, secretKey, prefix, Paths.get(cacheDir), cacheMaxBytes, timeout);
+    }
+}
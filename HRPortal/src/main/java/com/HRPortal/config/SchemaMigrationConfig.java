@@ -0,0 +1,35 @@
+package com.HRPortal.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.sql.init.dependency.AbstractBeansOfTypeDatabaseInitializerDetector;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+// schema.migrations.enabled hands the schema to SchemaMigrations instead of Hibernate.
+// The Detector, registered in META-INF/spring.factories, makes JPA and JdbcTemplate wait for it, so
+// nothing reads a table before the schema is at the latest version.
+@Configuration
+@ConditionalOnProperty(name = "schema.migrations.enabled", havingValue = "true")
+public class SchemaMigrationConfig {
+
+    @Bean
+    public SchemaMigrations schemaMigrations(DataSource dataSource,
+                                             @Value("${schema.migrations.locations:classpath:db/migration,classpath:db/migration/{vendor}}") List<String> locations,
+                                             @Value("${schema.migrations.baseline-version:1}") int baselineVersion,
+                                             @Value("${schema.migrations.lock-timeout:PT60S}") Duration lockTimeout) {
+        return new SchemaMigrations(dataSource, locations, baselineVersion, lockTimeout);
+    }
+
+    public static class Detector extends AbstractBeansOfTypeDatabaseInitializerDetector {
+        @Override
+        protected Set<Class<?>> getDatabaseInitializerBeanTypes() {
+            return Set.of(SchemaMigrations.class);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.HRPortal.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Versioned schema migrations: <location>/V<version>__<description>.sql, each applied once in version
+// order and recorded in schema_history with its checksum. The naming is Flyway's, so the scripts move
+// over unchanged should the build take the Flyway dependency. A script edited after it was applied
+// stops the startup. A {vendor} in a location is replaced by the database in use (mysql, h2), for
+// scripts that need vendor syntax, such as MySQL's online ALTER TABLE options.
+//
+// MySQL commits every DDL statement on its own, so a version that fails halfway cannot be rolled back and
+// is not recorded; the next start runs it again from the top. A version therefore makes at most one
+// schema change (other statements in it must be safe to repeat), so a failure leaves nothing behind;
+// V1 is the exception, as it only ever runs on an empty database.
+//
+// A schema that predates the history (created by ddl-auto=update) is baselined: scripts up to
+// baselineVersion are recorded as applied without being run. On MySQL the run holds a named lock,
+// so instances starting together migrate one after the other.
+public class SchemaMigrations implements InitializingBean {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrations.class);
+
+    private static final Pattern SCRIPT = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String HISTORY_TABLE = "schema_history";
+    // a table every pre-migration schema has
+    private static final String EXISTING_SCHEMA_TABLE = "employees";
+    private static final String LOCK_NAME = "hrportal.schema_migrations";
+
+    private final DataSource dataSource;
+    private final List<String> locations;
+    private final int baselineVersion;
+    private final Duration lockTimeout;
+
+    public record Migration(int version, String description, Resource script) {
+    }
+
+    public SchemaMigrations(DataSource dataSource, List<String> locations, int baselineVersion, Duration lockTimeout) {
+        this.dataSource = dataSource;
+        this.locations = locations;
+        this.baselineVersion = baselineVersion;
+        this.lockTimeout = lockTimeout;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException, IOException {
+        migrate();
+    }
+
+    // Number of scripts run
+    public int migrate() throws SQLException, IOException {
+        long started = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            String vendor = vendor(connection);
+            boolean mysql = vendor.equals("mysql");
+            List<Migration> migrations = migrations(vendor);
+            if (mysql) {
+                lock(jdbc);
+            }
+            try {
+                Map<Integer, String> applied = history(connection, jdbc, migrations);
+                int run = 0;
+                int version = 0;
+                for (Migration migration : migrations) {
+                    String checksum = checksum(migration.script());
+                    String recorded = applied.get(migration.version());
+                    if (recorded == null) {
+                        apply(connection, jdbc, migration, checksum);
+                        run++;
+                    } else if (!recorded.equals(checksum)) {
+                        throw new IllegalStateException("Schema migration " + migration.script().getFilename()
+                                + " was changed after it was applied");
+                    }
+                    version = migration.version();
+                }
+                logger.info("Schema at version {}, {} migration(s) applied, in {} ms", version, run,
+                        Duration.ofNanos(System.nanoTime() - started).toMillis());
+                return run;
+            } finally {
+                if (mysql) {
+                    jdbc.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, LOCK_NAME);
+                }
+            }
+        }
+    }
+
+    public List<Migration> migrations(String vendor) throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        List<Migration> migrations = new ArrayList<>();
+        for (String location : locations) {
+            for (Resource script : resolver.getResources(location.replace("{vendor}", vendor) + "/V*__*.sql")) {
+                Matcher matcher = SCRIPT.matcher(Objects.requireNonNull(script.getFilename()));
+                if (!matcher.matches()) {
+                    throw new IllegalStateException("Not a migration script name: " + script.getFilename());
+                }
+                migrations.add(new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '), script));
+            }
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version() == migrations.get(i - 1).version()) {
+                throw new IllegalStateException("Two schema migrations for version " + migrations.get(i).version());
+            }
+        }
+        return migrations;
+    }
+
+    public static String vendor(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        return product.contains("mysql") ? "mysql" : product.replace(' ', '_');
+    }
+
+    private void lock(JdbcTemplate jdbc) {
+        Integer locked = jdbc.queryForObject("SELECT GET_LOCK(?, ?)", Integer.class, LOCK_NAME, lockTimeout.toSeconds());
+        if (!Integer.valueOf(1).equals(locked)) {
+            throw new IllegalStateException("Another instance held the schema migration lock for " + lockTimeout);
+        }
+    }
+
+    // Applied versions and their checksums, creating (and for an existing schema, baselining) the history
+    private Map<Integer, String> history(Connection connection, JdbcTemplate jdbc, List<Migration> migrations)
+            throws SQLException, IOException {
+        if (!tableExists(connection, HISTORY_TABLE)) {
+            boolean existingSchema = tableExists(connection, EXISTING_SCHEMA_TABLE);
+            jdbc.execute("CREATE TABLE " + HISTORY_TABLE + " ("
+                    + "version INT NOT NULL PRIMARY KEY, "
+                    + "description VARCHAR(200) NOT NULL, "
+                    + "script VARCHAR(200) NOT NULL, "
+                    + "checksum VARCHAR(64) NOT NULL, "
+                    + "baseline BOOLEAN NOT NULL, "
+                    + "installed_on TIMESTAMP NOT NULL, "
+                    + "execution_ms BIGINT NOT NULL)");
+            if (existingSchema) {
+                for (Migration migration : migrations) {
+                    if (migration.version() <= baselineVersion) {
+                        record(jdbc, migration, checksum(migration.script()), true, 0);
+                    }
+                }
+                logger.info("Existing schema baselined at version {}", baselineVersion);
+            }
+        }
+        Map<Integer, String> applied = new HashMap<>();
+        jdbc.query("SELECT version, checksum FROM " + HISTORY_TABLE,
+                (RowCallbackHandler) rs -> applied.put(rs.getInt("version"), rs.getString("checksum")));
+        return applied;
+    }
+
+    private void apply(Connection connection, JdbcTemplate jdbc, Migration migration, String checksum) {
+        long started = System.nanoTime();
+        ScriptUtils.executeSqlScript(connection, new EncodedResource(migration.script(), StandardCharsets.UTF_8));
+        long elapsed = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        record(jdbc, migration, checksum, false, elapsed);
+        logger.info("Applied schema migration {} in {} ms", migration.script().getFilename(), elapsed);
+    }
+
+    private static void record(JdbcTemplate jdbc, Migration migration, String checksum, boolean baseline, long elapsedMillis) {
+        jdbc.update("INSERT INTO " + HISTORY_TABLE
+                        + " (version, description, script, checksum, baseline, installed_on, execution_ms) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                migration.version(), migration.description(), migration.script().getFilename(), checksum, baseline,
+                Timestamp.from(Instant.now()), elapsedMillis);
+    }
+
+    // Unquoted names are folded to upper case by some databases and kept as written by others
+    private static boolean tableExists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String name : List.of(table, table.toUpperCase())) {
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, name, new String[] {"TABLE"})) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Line endings are normalised, so a checkout with CRLF endings does not count as an edit
+    private static String checksum(Resource script) throws IOException {
+        String content = script.getContentAsString(StandardCharsets.UTF_8).replace("\r\n", "\n");
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -13,9 +13,10 @@ public class SecurityConfig implements WebMvcConfigurer {
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOrigins("http://localhost:5173")
-                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "HEAD")
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "HEAD")
                 .allowedHeaders("*")
-                .exposedHeaders("Content-Disposition", "Content-Type")
+                // ETag is what the UI sends back as If-Match on PATCH
+                .exposedHeaders("Content-Disposition", "Content-Type", "ETag")
                 .allowCredentials(true)
                 .maxAge(3600);
     }
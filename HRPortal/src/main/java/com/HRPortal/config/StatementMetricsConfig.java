@@ -0,0 +1,72 @@
+package com.HRPortal.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Records how many SQL statements Hibernate prepared while handling each request, per URI pattern
+// (hibernate.statements.per.request). N+1 regressions show up as a jump in this distribution.
+@Configuration
+public class StatementMetricsConfig implements WebMvcConfigurer {
+
+    private static final StatementCounter COUNTER = new StatementCounter();
+
+    private final MeterRegistry meterRegistry;
+
+    public StatementMetricsConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, COUNTER);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                COUNTER.reset();
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                DistributionSummary.builder("hibernate.statements.per.request")
+                        .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                        .register(meterRegistry)
+                        .record(COUNTER.reset());
+            }
+        }).addPathPatterns("/api/**");
+    }
+
+    // Counts per thread; requests are served on one thread from preHandle to afterCompletion
+    static final class StatementCounter implements StatementInspector {
+        private final ThreadLocal<int[]> count = ThreadLocal.withInitial(() -> new int[1]);
+
+        @Override
+        public String inspect(String sql) {
+            count.get()[0]++;
+            return sql;
+        }
+
+        int reset() {
+            int[] current = count.get();
+            int value = current[0];
+            current[0] = 0;
+            return value;
+        }
+    }
+}
@@ -9,9 +9,8 @@ public class WebConfig implements WebMvcConfigurer {
     
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // Serve static files from the file system
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:${user.home}/HRPortal/uploads/");
+        // Photos are not mapped here: they live in the PhotoStore (sharded or in S3), not under one
+        // directory, and are served by /api/employee/image with its caching headers
         
         // Serve static files from the classpath
         registry.addResourceHandler("/**")
@@ -1,38 +1,46 @@
 package com.HRPortal.controller;
 
 
-import com.HRPortal.repository.DepartmentRepo;
+import com.HRPortal.service.DepartmentCatalogService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import com.HRPortal.dto.DepartmentNameDTO;
 import com.HRPortal.dto.DepartmentSeatsDTO;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("api/department")
 public class DepartmentController {
  
     @Autowired
-    private DepartmentRepo departmentRepo;
+    private DepartmentCatalogService catalog;
 
     @GetMapping("/seats-left")
-    public List<DepartmentSeatsDTO> getDepartmentsWithSeatsLeft() {
-        return departmentRepo.findAll().stream()
-                .map(d -> new DepartmentSeatsDTO(
-                    d.getDepartmentId(),
-                    d.getName(), 
-                    d.getSeats_left()
-                ))
-                .collect(Collectors.toList());
+    public ResponseEntity<List<DepartmentSeatsDTO>> getDepartmentsWithSeatsLeft(WebRequest request) {
+        DepartmentCatalogService.Snapshot snapshot = catalog.snapshot();
+        if (request.checkNotModified(snapshot.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(snapshot.etag())
+                .body(snapshot.seats());
     }
 
     @GetMapping("/names")
-    public List<DepartmentNameDTO> getDepartmentNames() {
-        return departmentRepo.findAll().stream()
-                .map(d -> new DepartmentNameDTO(d.getDepartmentId(), d.getName()))
-                .collect(Collectors.toList());
+    public ResponseEntity<List<DepartmentNameDTO>> getDepartmentNames(WebRequest request) {
+        DepartmentCatalogService.Snapshot snapshot = catalog.snapshot();
+        if (request.checkNotModified(snapshot.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(snapshot.etag())
+                .body(snapshot.names());
     }
 }
@@ -1,48 +1,196 @@
 package com.HRPortal.controller;
 
 import com.HRPortal.dto.ApiMessageDTO;
+import com.HRPortal.dto.EmployeeBatchDTO;
+import com.HRPortal.dto.EmployeeBatchRequestDTO;
+import com.HRPortal.dto.EmployeeChangesDTO;
 import com.HRPortal.dto.EmployeeDTO;
+import com.HRPortal.dto.EmployeeImportReportDTO;
+import com.HRPortal.dto.EmployeePageDTO;
+import com.HRPortal.dto.FacetCountDTO;
 import com.HRPortal.entity.Department;
 import com.HRPortal.entity.Employees;
 import com.HRPortal.helper.FileHelper;
+import com.HRPortal.helper.PhotoFileServer;
+import com.HRPortal.helper.StagedPhoto;
+import com.HRPortal.repository.EmployeeFilter;
+import com.HRPortal.service.EmployeeBatchService;
+import com.HRPortal.service.EmployeeChangeLog;
+import com.HRPortal.service.EmployeeChangeStream;
+import com.HRPortal.service.EmployeeImportService;
+import com.HRPortal.service.EmployeeSearchIndex;
 import com.HRPortal.service.EmployeesService;
+import com.HRPortal.service.PhotoJobService;
+import com.HRPortal.service.PhotoVariantService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/employee")
 public class EmployeesController {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeesController.class);
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    public static final String APPLICATION_MERGE_PATCH_JSON = "application/merge-patch+json";
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("first_name", "last_name", "email", "title", "department_id");
+    private static final Set<String> REMOVABLE_FIELDS = Set.of("title", "department_id");
 
     private final EmployeesService service;
+    private final EmployeeImportService importService;
+    private final EmployeeBatchService batchService;
+    private final EmployeeChangeLog changeLog;
+    private final EmployeeChangeStream changeStream;
     private final FileHelper fileHelper;
+    private final PhotoVariantService photoVariants;
+    private final PhotoJobService photoJobs;
+    private final PhotoFileServer photoFileServer;
+    private final EmployeeSearchIndex searchIndex;
+    private final ObjectMapper objectMapper;
     
     @Autowired
-    public EmployeesController(EmployeesService service, FileHelper fileHelper) {
+    public EmployeesController(EmployeesService service, EmployeeImportService importService,
+                               EmployeeBatchService batchService,
+                               EmployeeChangeLog changeLog, EmployeeChangeStream changeStream,
+                               FileHelper fileHelper, PhotoVariantService photoVariants, PhotoJobService photoJobs,
+                               PhotoFileServer photoFileServer, EmployeeSearchIndex searchIndex,
+                               ObjectMapper objectMapper) {
         this.service = service;
+        this.importService = importService;
+        this.batchService = batchService;
+        this.changeLog = changeLog;
+        this.changeStream = changeStream;
         this.fileHelper = fileHelper;
+        this.photoVariants = photoVariants;
+        this.photoJobs = photoJobs;
+        this.photoFileServer = photoFileServer;
+        this.searchIndex = searchIndex;
+        this.objectMapper = objectMapper;
     }
 
+    // Same JSON array as before, but written row by row instead of materialising the whole table
     @GetMapping("/get")
-    public ResponseEntity<List<EmployeeDTO>> getEmployees() {
-        List<Employees> list = service.getAll();
-        List<EmployeeDTO> dtos = list.stream().map(this::toDTO).collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<StreamingResponseBody> getEmployees() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                service.streamAll(dto -> {
+                    try {
+                        json.writeObject(dto);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/list")
+    public ResponseEntity<EmployeePageDTO> listEmployees(
+            @RequestParam(value = "size", defaultValue = "50") int size,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "sort", defaultValue = EmployeesService.SORT_BY_ID) String sort,
+            @RequestParam(value = "department_id", required = false) List<Integer> departmentIds,
+            @RequestParam(value = "title", required = false) List<String> titles,
+            @RequestParam(value = "last_name_from", required = false) String lastNameFrom,
+            @RequestParam(value = "last_name_to", required = false) String lastNameTo,
+            @RequestParam(value = "facets", required = false) List<String> facets) {
+        EmployeeFilter filter = new EmployeeFilter(departmentIds, titles, lastNameFrom, lastNameTo);
+        List<EmployeeDTO> items = service.getPage(filter, after, size, sort);
+        String nextCursor = service.nextCursor(items, size, sort);
+        // facets describe the whole filtered set, so they are only computed for the first page
+        Map<String, List<FacetCountDTO>> facetCounts = facets != null && after == null
+                ? service.getFacets(filter, facets) : null;
+        return ResponseEntity.ok(new EmployeePageDTO(items, nextCursor, facetCounts));
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamEmployees() {
+        ObjectWriter writer = objectMapper.writerFor(EmployeeDTO.class);
+        StreamingResponseBody body = out -> service.streamAll(dto -> {
+            try {
+                out.write(writer.writeValueAsBytes(dto));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    // Prefix and typo-tolerant match over name, email, title and department, served from memory
+    @GetMapping("/search")
+    public ResponseEntity<List<EmployeeDTO>> searchEmployees(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(searchIndex.search(query, limit));
+    }
+
+    // Deltas for clients that mirror the directory: pass the previous next_since (0 the first time, after a
+    // full /get). A cursor older than the retained log answers 410 and the client reloads.
+    @GetMapping("/changes")
+    public ResponseEntity<EmployeeChangesDTO> getChanges(
+            @RequestParam("since") long since,
+            @RequestParam(value = "limit", defaultValue = "500") int limit) {
+        return ResponseEntity.ok(changeLog.changesSince(since, limit));
+    }
+
+    // Same deltas pushed as server-sent events; reconnecting clients resume from Last-Event-ID, and
+    // without since or Last-Event-ID only changes from now on are sent
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(value = "since", required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long from = since != null ? since : lastEventId != null ? lastEventId : changeLog.head();
+        return changeStream.subscribe(from);
     }
 
     @GetMapping("/get-by-id/{emp_id}")
-    public ResponseEntity<EmployeeDTO> getEmployeeByEmployee_id(@PathVariable int emp_id){
-        Employees e = service.getEmployeeByEmployee_id(emp_id);
-        return ResponseEntity.ok(toDTO(e));
+    public ResponseEntity<EmployeeDTO> getEmployeeByEmployee_id(@PathVariable int emp_id, WebRequest request){
+        EmployeeDTO employee = service.getEmployeeDTOByEmployee_id(emp_id);
+        if (request.checkNotModified(etagOf(employee.getVersion()))) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etagOf(employee.getVersion())).body(employee);
+    }
+
+    // Many cards in one round trip; ids that do not exist come back as 404 entries, not a failed request
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<EmployeeBatchDTO> getEmployeeBatch(@RequestBody EmployeeBatchRequestDTO request) {
+        return ResponseEntity.ok(batchService.getBatch(request.getIds(), request.getThumbnail_size()));
     }
 
     @PostMapping(value = "/add", consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
@@ -66,23 +214,21 @@ public class EmployeesController {
             employee.setDepartment(department);
         }
         
-        Employees savedEmployee = service.addEmployees(employee);
-        
-        // Save the photograph after we have the employee ID
-        if (photograph != null && !photograph.isEmpty()) {
-            try {
-                String fileName = "emp_" + savedEmployee.getEmployee_id();
-                String photoPath = fileHelper.saveFile(photograph, fileName);
-                // Update the employee with the new photo path
-                savedEmployee.setPhotograph_path(photoPath);
-                savedEmployee = service.updateEmployees(savedEmployee.getEmployee_id(), savedEmployee);
-            } catch (IOException e) {
-                System.err.println("Error saving employee photo: " + e.getMessage());
-            }
-        }
+        Employees savedEmployee = service.addEmployees(employee, photograph);
         return ResponseEntity.status(HttpStatus.CREATED).body(toDTO(savedEmployee));
     }
 
+    // Streams a CSV (header row required) or NDJSON body; rows that fail validation are reported, not fatal
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<EmployeeImportReportDTO> importEmployees(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        EmployeeImportReportDTO report = APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? importService.importNdjson(body)
+                : importService.importCsv(body);
+        return ResponseEntity.ok(report);
+    }
+
     @PutMapping(value = "/update/{emp_id}", consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
     public ResponseEntity<EmployeeDTO> updateEmployee(
             @PathVariable int emp_id,
@@ -105,49 +251,63 @@ public class EmployeesController {
             employee.setDepartment(department);
         }
         
-        // First, get the existing employee to check for an existing photo
-        Employees existingEmployee = service.getEmployeeByEmployee_id(emp_id);
-        
-        if (photograph != null && !photograph.isEmpty()) {
-            try {
-                // First, delete the old photo if it exists
-                if (existingEmployee != null && existingEmployee.getPhotograph_path() != null) {
-                    try {
-                        String oldPhotoPath = existingEmployee.getPhotograph_path();
-                        // Extract just the filename from the old path
-                        if (oldPhotoPath != null) {
-                            if (oldPhotoPath.startsWith("/uploads/employee_photos/")) {
-                                oldPhotoPath = oldPhotoPath.substring("/uploads/employee_photos/".length());
-                            } else if (oldPhotoPath.startsWith("uploads/employee_photos/")) {
-                                oldPhotoPath = oldPhotoPath.substring("uploads/employee_photos/".length());
-                            }
-                            fileHelper.deleteFile(oldPhotoPath);
-                        }
-                    } catch (Exception e) {
-                        System.err.println("Error deleting old employee photo: " + e.getMessage());
-                        // Continue with saving the new photo even if deleting old one fails
-                    }
+        // no photograph part keeps the current photo, an empty one removes it
+        Employees updatedEmployee;
+        try {
+            updatedEmployee = service.updateEmployees(emp_id, employee, photograph);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Employee was modified by someone else", e);
+        }
+        return ResponseEntity.ok().eTag(etagOf(updatedEmployee.getVersion())).body(toDTO(updatedEmployee));
+    }
+
+    // JSON merge patch (RFC 7396) of the scalar fields; only the columns that change are written.
+    // If-Match takes the ETag from /get-by-id or a previous write, and a stale one answers 412.
+    @PatchMapping(value = "/{emp_id}", consumes = {APPLICATION_MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<EmployeeDTO> patchEmployee(
+            @PathVariable int emp_id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody ObjectNode patch) {
+        Set<String> cleared = new HashSet<>();
+        patch.fieldNames().forEachRemaining(field -> {
+            if (!PATCHABLE_FIELDS.contains(field)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Field cannot be patched: " + field);
+            }
+            if (patch.get(field).isNull()) {
+                if (!REMOVABLE_FIELDS.contains(field)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Field cannot be removed: " + field);
                 }
-                
-                // Save the new photo with consistent naming
-                String fileName = "emp_" + emp_id;
-                String photoPath = fileHelper.saveFile(photograph, fileName);
-                employee.setPhotograph_path(photoPath);
-                System.out.println("Updated photo path for employee " + emp_id + " to: " + photoPath);
-            } catch (IOException e) {
-                System.err.println("Error updating employee photo: " + e.getMessage());
-                throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error updating employee photo", e);
+                cleared.add(field);
             }
-        } else if (existingEmployee != null && photograph == null) {
-            // If no new photo is provided, keep the existing photo path
-            employee.setPhotograph_path(existingEmployee.getPhotograph_path());
-        } else {
-            // If photograph is explicitly set to empty, set to null
-            employee.setPhotograph_path(null);
+        });
+        EmployeeDTO changes;
+        try {
+            changes = objectMapper.treeToValue(patch, EmployeeDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed patch: " + e.getOriginalMessage());
         }
-        
-        Employees updatedEmployee = service.updateEmployees(emp_id, employee);
-        return ResponseEntity.ok(toDTO(updatedEmployee));
+
+        Employees patched;
+        try {
+            patched = service.patchEmployees(emp_id, versionOf(ifMatch), changes, cleared);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Employee was modified by someone else", e);
+        }
+        return ResponseEntity.ok().eTag(etagOf(patched.getVersion())).body(toDTO(patched));
+    }
+
+    // Raw image body instead of multipart: the container does not spool it, so the bytes go from the
+    // socket straight into the photos directory. The type is checked from the content itself; the rest
+    // of the processing is queued, hence 202 with photo_status PENDING.
+    @PutMapping(value = "/{emp_id}/photo", consumes = "image/*")
+    public ResponseEntity<EmployeeDTO> uploadEmployeePhoto(@PathVariable int emp_id,
+                                                           HttpServletRequest request) throws IOException {
+        // 404 and 503 before reading the body
+        service.getPhotographPath(emp_id);
+        photoJobs.checkCapacity();
+        StagedPhoto staged = fileHelper.stagePhoto(request.getInputStream(), request.getContentLengthLong());
+        Employees updated = service.queuePhoto(emp_id, staged);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).eTag(etagOf(updated.getVersion())).body(toDTO(updated));
     }
     
     @DeleteMapping("/delete/{emp_id}")
@@ -156,89 +316,69 @@ public class EmployeesController {
         return ResponseEntity.ok(new ApiMessageDTO("Deleted"));
     }
 
+    // Photos are content-addressed: a request carrying the current ?v= hash may be cached forever,
+    // anything else must revalidate with the strong ETag. Bytes, ranges and 304s go through PhotoFileServer.
+    // size= serves the smallest cached thumbnail covering that many pixels on the longest side.
     @GetMapping("/image/{emp_id}")
-    public ResponseEntity<Resource> getEmployeeImage(@PathVariable int emp_id) {
+    public void getEmployeeImage(@PathVariable int emp_id,
+                                 @RequestParam(value = "v", required = false) String version,
+                                 @RequestParam(value = "size", required = false) Integer size,
+                                 HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        String photoPath = service.getPhotographPath(emp_id);
+        if (photoPath == null || photoPath.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+            return;
+        }
+        
+        Path file;
+        String etag;
         try {
-            System.out.println("[DEBUG] Getting image for employee ID: " + emp_id);
-            Employees employee = service.getEmployeeByEmployee_id(emp_id);
-            
-            if (employee == null) {
-                System.out.println("[ERROR] Employee " + emp_id + " not found in database");
-                return ResponseEntity.noContent().build();
-            }
-            
-            if (employee.getPhotograph_path() == null || employee.getPhotograph_path().isEmpty()) {
-                System.out.println("[ERROR] Employee " + emp_id + " has no photo path in database");
-                return ResponseEntity.noContent().build();
-            }
-            
-            // Get the path from the database and clean it up
-            String photoPath = employee.getPhotograph_path();
-            System.out.println("[DEBUG] Photo path from database: " + photoPath);
-            
-            // Extract just the filename from the path
-            String filename = photoPath;
-            if (filename != null) {
-                // Remove the leading part of the path that's added by saveFile
-                if (filename.startsWith("/uploads/employee_photos/")) {
-                    filename = filename.substring("/uploads/employee_photos/".length());
-                } else if (filename.startsWith("uploads/employee_photos/")) {
-                    filename = filename.substring("uploads/employee_photos/".length());
-                } else if (filename.startsWith("/photos/")) {
-                    // Keep as is, FileHelper will handle it
-                    System.out.println("[DEBUG] Using photo path with /photos/ prefix: " + filename);
-                } else {
-                    System.out.println("[DEBUG] Photo path doesn't start with expected prefix, using as-is: " + filename);
+            file = fileHelper.resolvePhotoFile(photoPath);
+            etag = fileHelper.etagOf(photoPath, file);
+            if (size != null) {
+                int resolved = photoVariants.resolveSize(size);
+                Optional<Path> variant = photoVariants.loadVariant(photoPath, resolved);
+                if (variant.isPresent()) {
+                    file = variant.get();
+                    etag = etag.substring(0, etag.length() - 1) + "-" + resolved + "\"";
                 }
-            } else {
-                System.out.println("[ERROR] Photo path is null for employee " + emp_id);
-                return ResponseEntity.noContent().build();
             }
-            
-            System.out.println("[DEBUG] Attempting to load file: " + filename);
-            try {
-                Resource resource = fileHelper.loadFileAsResource(filename);
-                System.out.println("[DEBUG] Resource loaded: " + resource);
-                
-                if (!resource.exists()) {
-                    System.out.println("[ERROR] Resource does not exist: " + resource.getURL());
-                    return ResponseEntity.noContent().build();
-                }
-                
-                if (!resource.isReadable()) {
-                    System.out.println("[ERROR] Resource exists but is not readable: " + resource.getURL());
-                    return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
-                }
-                
-                // Determine content type based on file extension
-                MediaType contentType;
-                String lowerFilename = filename.toLowerCase();
-                if (lowerFilename.endsWith(".jpg") || lowerFilename.endsWith(".jpeg")) {
-                    contentType = MediaType.IMAGE_JPEG;
-                } else if (lowerFilename.endsWith(".png")) {
-                    contentType = MediaType.IMAGE_PNG;
-                } else if (lowerFilename.endsWith(".gif")) {
-                    contentType = MediaType.IMAGE_GIF;
-                } else {
-                    contentType = MediaType.APPLICATION_OCTET_STREAM;
-                }
-                
-                return ResponseEntity.ok()
-                        .contentType(contentType)
-                        .body(resource);
-                        
-            } catch (Exception e) {
-                System.err.println("Error loading image for employee " + emp_id + ": " + e.getMessage());
-                return ResponseEntity.notFound().build();
-            }
-            
-        } catch (Exception e) {
-            System.err.println("Unexpected error for employee " + emp_id + ": " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } catch (IOException e) {
+            logger.warn("Error loading image for employee {}: {}", emp_id, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Photo not found");
         }
+        
+        CacheControl cacheControl = version != null && version.equals(FileHelper.versionOf(photoPath))
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                : CacheControl.noCache();
+        MediaType contentType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        photoFileServer.serve(file, etag, cacheControl, contentType, request, response);
     }
     
-    private EmployeeDTO toDTO(Employees e) {
+    private static String etagOf(int version) {
+        return "\"" + version + "\"";
+    }
+
+    // Strong comparison as If-Match requires: "*" or a missing header matches any version, anything
+    // that is not one of our quoted version numbers matches none
+    private static Integer versionOf(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        try {
+            if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                return Integer.parseInt(tag.substring(1, tag.length() - 1));
+            }
+        } catch (NumberFormatException ignored) {
+            // falls through to 412
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match does not match the current version");
+    }
+
+    static EmployeeDTO toDTO(Employees e) {
         int deptId = e.getDepartment() != null ? e.getDepartment().getDepartmentId() : 0;
         String deptName = e.getDepartment() != null ? e.getDepartment().getName() : null;
         return new EmployeeDTO(
@@ -249,7 +389,9 @@ public class EmployeesController {
                 e.getTitle(),
                 e.getPhotograph_path(),
                 deptId,
-                deptName
+                deptName,
+                e.getPhoto_status(),
+                e.getVersion()
         );
     }
 
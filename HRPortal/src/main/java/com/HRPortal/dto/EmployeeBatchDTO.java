@@ -0,0 +1,17 @@
+package com.HRPortal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeBatchDTO {
+    // in request order, duplicates removed
+    private List<EmployeeBatchEntryDTO> results;
+    private int found;
+    private int not_found;
+}
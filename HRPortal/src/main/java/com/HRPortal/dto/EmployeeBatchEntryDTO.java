@@ -0,0 +1,17 @@
+package com.HRPortal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeBatchEntryDTO {
+    private int employee_id;
+    // 200 or 404, per id, so one missing employee does not fail the batch
+    private int status;
+    private EmployeeDTO employee;
+    // data: URI, or null when not requested, there is no photo, or it is over employee.batch.inline-max-bytes
+    private String thumbnail;
+}
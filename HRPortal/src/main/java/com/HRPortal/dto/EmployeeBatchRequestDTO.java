@@ -0,0 +1,16 @@
+package com.HRPortal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeBatchRequestDTO {
+    private List<Integer> ids;
+    // 0 for none; otherwise the thumbnail size (px) to inline as a data URI, up to employee.batch.inline-max-size
+    private int thumbnail_size;
+}
@@ -0,0 +1,16 @@
+package com.HRPortal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeChangeDTO {
+    private long seq;
+    private int employee_id;
+    // "upsert" with the current employee, or "delete" with none
+    private String op;
+    private EmployeeDTO employee;
+}
@@ -0,0 +1,18 @@
+package com.HRPortal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeChangesDTO {
+    // one entry per employee, at its latest change in this page, ordered by seq
+    private List<EmployeeChangeDTO> changes;
+    // pass as since on the next call (or as Last-Event-ID when reconnecting to the stream)
+    private long next_since;
+    private boolean has_more;
+}
@@ -1,5 +1,8 @@
 package com.HRPortal.dto;
 
+import com.HRPortal.entity.PhotoStatus;
+import com.HRPortal.helper.FileHelper;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,4 +19,22 @@ public class EmployeeDTO {
     private String photograph_path;
     private int department_id;
     private String department_name;
+    private PhotoStatus photo_status;
+    // Sent as the ETag header rather than in the body
+    @JsonIgnore
+    private int version;
+
+    public EmployeeDTO(int employee_id, String first_name, String last_name, String email, String title,
+                       String photograph_path, int department_id, String department_name) {
+        this(employee_id, first_name, last_name, email, title, photograph_path, department_id, department_name, null, 0);
+    }
+
+    // Versioned image URL: it changes whenever the photo content changes, so clients may cache it forever
+    public String getPhoto_url() {
+        if (photograph_path == null || photograph_path.isEmpty()) {
+            return null;
+        }
+        String version = FileHelper.versionOf(photograph_path);
+        return "/api/employee/image/" + employee_id + (version != null ? "?v=" + version : "");
+    }
 }
@@ -0,0 +1,19 @@
+package com.HRPortal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeImportReportDTO {
+    private int total_rows;
+    private int imported;
+    private int rejected;
+    private List<ImportRowErrorDTO> errors;
+    // true when more rows failed than employee.import.max-errors allows us to list
+    private boolean errors_truncated;
+}
@@ -0,0 +1,17 @@
+package com.HRPortal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class EmployeePageDTO {
+    private List<EmployeeDTO> items;
+    // opaque token to pass as "after" for the next page, null on the last page
+    private String next_cursor;
+    // facet name -> buckets, only on the first page and only when requested with ?facets=
+    private Map<String, List<FacetCountDTO>> facets;
+}
@@ -0,0 +1,15 @@
+package com.HRPortal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountDTO {
+    // the filter value to select this bucket (department_id or title); "0" is "no department"
+    private String value;
+    private String label;
+    private long count;
+}
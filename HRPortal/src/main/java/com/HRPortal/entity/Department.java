@@ -3,11 +3,16 @@ package com.HRPortal.entity;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 
 @Data
 @Entity
 @Table(name = "department")
+// Read on every hire and transfer; seat-count bulk updates evict the region (see ehcache.xml)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "department")
 public class Department {
 
     @Id
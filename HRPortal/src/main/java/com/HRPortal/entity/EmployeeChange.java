@@ -0,0 +1,23 @@
+package com.HRPortal.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Outbox row per committed employee write (EmployeeChangeLog). Only the id is logged: readers
+// return the employee's current state, or a delete when the row is gone.
+@Entity
+@Table(name = "employee_change")
+@Data
+@NoArgsConstructor
+public class EmployeeChange {
+    // the employee_change_counter value, incremented just before commit, so the committed log is always 1..counter
+    @Id
+    private long seq;
+    @Column(nullable = false)
+    private int employee_id;
+    @Column(nullable = false)
+    private Instant changed_at;
+}
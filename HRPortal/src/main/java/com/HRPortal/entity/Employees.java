@@ -4,8 +4,20 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+// Indexes and constraints are in the db/migration scripts: each listing filter (EmployeeFilter) and
+// keyset order has an index to range-scan, and the facet counts read (title, department_id) without
+// touching the rows (EmployeeQueryPlanTests)
+@Table(name = "employees")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employees")
+// UPDATEs name only the changed columns, so a PATCH of one field writes one column (plus the version)
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 public class Employees {
@@ -19,9 +31,19 @@ public class Employees {
     private String title;
     @Column(length = 500)
     private String photograph_path;
+    // Null until a photo is uploaded; PENDING while PhotoJobService processes the latest upload
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private PhotoStatus photo_status;
     @ManyToOne
     @JoinColumn(name = "department_id")
     @ToString.Exclude
     private Department department;
+    // Optimistic lock, exposed as the ETag of /get-by-id and checked against If-Match on PATCH.
+    // Defaults to 0 for rows inserted over plain JDBC (bulk import).
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int version;
 
 }
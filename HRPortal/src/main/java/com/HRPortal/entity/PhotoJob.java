@@ -0,0 +1,38 @@
+package com.HRPortal.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// A staged photo upload waiting for PhotoJobService; the row is the durable queue entry, so jobs
+// that were queued or running when the application stopped are picked up again on startup
+@Entity
+@Table(name = "photo_job")
+@Data
+@NoArgsConstructor
+public class PhotoJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+    @Column(nullable = false)
+    private int employee_id;
+    // file name inside the incoming directory
+    @Column(nullable = false)
+    private String staged_file;
+    // extension of the stored photo, including the dot, or empty
+    @Column(nullable = false, length = 16)
+    private String extension;
+    // instance whose incoming directory holds staged_file; '' for rows queued before jobs had one
+    @Column(nullable = false)
+    private String node;
+    // content-addressed path, set before the staged file is moved into the photo store
+    @Column(length = 500)
+    private String photo_path;
+    @Column(nullable = false)
+    private Instant created_at;
+    // cancelled by another instance; the owning node discards the staged file and deletes the row
+    private Instant cancelled_at;
+    private int attempts;
+}
@@ -0,0 +1,10 @@
+package com.HRPortal.entity;
+
+// Where an employee's latest photo upload stands; null when no photo was ever uploaded
+public enum PhotoStatus {
+    // accepted and queued; photograph_path still points at the previous photo
+    PENDING,
+    READY,
+    // the upload could not be processed; photograph_path still points at the previous photo
+    FAILED
+}
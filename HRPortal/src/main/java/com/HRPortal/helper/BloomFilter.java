@@ -0,0 +1,62 @@
+package com.HRPortal.helper;
+
+// A fixed-size Bloom filter over strings, sized up front from the expected number of entries.
+// mightContain() is never false for a string that was put, and true for others at about the
+// configured rate; a million photo names at 1% take a little over 1 MB.
+public class BloomFilter {
+    private final long[] bits;
+    private final long size;
+    private final int hashes;
+
+    public BloomFilter(long expectedEntries, double falsePositiveRate) {
+        long entries = Math.max(1, expectedEntries);
+        long optimal = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new long[(int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimal + 63) / 64))];
+        this.size = bits.length * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) size / entries * Math.log(2)));
+    }
+
+    public void put(String value) {
+        long hash = hash(value);
+        long step = mix(hash) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long index = Math.floorMod(hash + i * step, size);
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long step = mix(hash) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long index = Math.floorMod(hash + i * step, size);
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long sizeInBytes() {
+        return bits.length * 8L;
+    }
+
+    // FNV-1a over the chars, finished with the murmur3 mixer so the low bits are usable
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -1,24 +1,68 @@
 package com.HRPortal.helper;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 @Component
 public class FileHelper {
+    private static final Logger logger = LoggerFactory.getLogger(FileHelper.class);
+    public static final String PHOTO_URL_PREFIX = "/uploads/employee_photos/";
+    // Content-addressed photo names: lowercase hex SHA-256 plus the original extension
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("^[0-9a-f]{64}(\\.[a-z0-9]+)?$");
+    // Each upload holds exactly one buffer of this size, whatever the photo size
+    private static final int UPLOAD_BUFFER_BYTES = 64 * 1024;
+    // Uploads accepted by a request but not yet processed by PhotoJobService
+    private static final String INCOMING_DIR = "incoming";
     
     private String uploadDir;
     private String employeePhotosDir;
     
+    @Autowired
+    private PhotoFileServer photoFileServer;
+    
+    @Autowired
+    private PhotoStore photoStore;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${photo.upload.max-bytes:10485760}")
+    private long maxUploadBytes;
+    
+    private final AtomicInteger activeUploads = new AtomicInteger();
+    private DistributionSummary uploadBytes;
+    private Timer deleteTimer;
+    
     @Value("${file.upload-dir}")
     private String baseUploadDir;
     
@@ -33,109 +77,226 @@ public class FileHelper {
             this.employeePhotosDir = configuredEmployeePhotosDir.endsWith("/") ? 
                 configuredEmployeePhotosDir : configuredEmployeePhotosDir + "/";
                 
+            this.uploadBytes = DistributionSummary.builder("photo.upload.bytes").baseUnit("bytes").register(meterRegistry);
+            meterRegistry.gauge("photo.upload.active", activeUploads);
+            this.deleteTimer = Timer.builder("photo.delete.duration").register(meterRegistry);
+            
             // Create directories if they don't exist
             Path uploadPath = Paths.get(this.employeePhotosDir);
             Files.createDirectories(uploadPath);
+            Files.createDirectories(uploadPath.resolve(INCOMING_DIR));
             
             // Check directory permissions
             if (!Files.isWritable(uploadPath)) {
                 throw new RuntimeException("Upload directory is not writable: " + uploadPath.toAbsolutePath());
             }
             
-            // Log the directories being used (for debugging)
-            System.out.println("Base upload directory: " + this.uploadDir);
-            System.out.println("Employee photos directory: " + this.employeePhotosDir);
-            System.out.println("Absolute path: " + uploadPath.toAbsolutePath());
-            
-            // List files in the directory (for debugging)
-            try {
-                System.out.println("Files in upload directory:");
-                Files.list(uploadPath).forEach(path -> System.out.println("  - " + path));
-            } catch (Exception e) {
-                System.out.println("Could not list files in upload directory: " + e.getMessage());
-            }
+            logger.info("Employee photos directory: {}", uploadPath.toAbsolutePath());
+            logger.debug("Base upload directory: {}", this.uploadDir);
         } catch (IOException e) {
-            System.err.println("ERROR: Could not create upload directories: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Could not create upload directories", e);
             throw new RuntimeException("Could not create upload directories: " + e.getMessage(), e);
         }
     }
     
-    public String saveFile(MultipartFile file, String fileName) throws IOException {
-        if (file == null || file.isEmpty()) {
-            return null;
+    // Request-thread half of an upload: the bytes are only moved into the incoming directory, and
+    // promote() later hashes them into place. A disk-spooled multipart part is renamed, not copied.
+    public StagedPhoto stageFile(MultipartFile file) throws IOException {
+        Path staged = newStagedFile();
+        long started = System.nanoTime();
+        try {
+            file.transferTo(staged.toFile());
+            uploadBytes.record(file.getSize());
+            return new StagedPhoto(staged, extensionOf(file));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(staged);
+            throw e;
+        } finally {
+            Timer.builder("photo.upload.duration").tag("mode", "multipart").register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
         }
-        
-        // Get the file extension
+    }
+    
+    // Raw request body upload: the image type is taken from the magic bytes rather than a file name,
+    // and an oversized Content-Length is refused before anything is read. Both are checked while
+    // staging, so the client still gets its 413/415 from the upload request itself.
+    public StagedPhoto stagePhoto(InputStream body, long contentLength) throws IOException {
+        if (contentLength > maxUploadBytes) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Photo exceeds " + maxUploadBytes + " bytes");
+        }
+        Path staged = newStagedFile();
+        long started = System.nanoTime();
+        activeUploads.incrementAndGet();
+        try {
+            String[] extension = new String[1];
+            long total = copy(body, staged, extension);
+            uploadBytes.record(total);
+            return new StagedPhoto(staged, extension[0]);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(staged);
+            throw e;
+        } finally {
+            activeUploads.decrementAndGet();
+            Timer.builder("photo.upload.duration").tag("mode", "stream").register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    // Hashes a staged upload and renames it to its content-addressed name; the staged file is gone afterwards
+    public String promote(StagedPhoto staged) throws IOException {
+        String photoPath = photoPathOf(staged);
+        promote(staged, photoPath);
+        return photoPath;
+    }
+    
+    // The content-addressed path promote() gives a staged upload
+    public String photoPathOf(StagedPhoto staged) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[UPLOAD_BUFFER_BYTES];
+        try (InputStream in = Files.newInputStream(staged.file())) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return PHOTO_URL_PREFIX + HexFormat.of().formatHex(digest.digest()) + staged.extension();
+    }
+    
+    // Moves a staged upload to the path photoPathOf() gave it. A repeat after the move finds the photo
+    // stored and does nothing; NoSuchFileException when neither the staged file nor the photo exists.
+    public void promote(StagedPhoto staged, String photoPath) throws IOException {
+        String name = photoPath.substring(PHOTO_URL_PREFIX.length());
+        if (Files.notExists(staged.file())) {
+            if (photoStore.exists(name)) {
+                return;
+            }
+            throw new NoSuchFileException(staged.file().toString());
+        }
+        photoStore.put(name, staged.file());
+    }
+    
+    // The staged file a persisted photo job refers to
+    public StagedPhoto stagedPhoto(String stagedFileName, String extension) throws IOException {
+        Path incoming = Paths.get(employeePhotosDir, INCOMING_DIR).normalize();
+        Path file = incoming.resolve(stagedFileName).normalize();
+        if (!file.getParent().equals(incoming)) {
+            throw new IOException("Access denied: staged file outside the incoming directory");
+        }
+        return new StagedPhoto(file, extension);
+    }
+    
+    public void discard(StagedPhoto staged) {
+        try {
+            Files.deleteIfExists(staged.file());
+        } catch (IOException e) {
+            logger.warn("Could not delete staged photo {}: {}", staged.file(), e.getMessage());
+        }
+    }
+    
+    private Path newStagedFile() throws IOException {
+        Path incoming = Paths.get(employeePhotosDir, INCOMING_DIR);
+        Files.createDirectories(incoming);
+        return Files.createTempFile(incoming, "upload-", ".part");
+    }
+    
+    private static String extensionOf(MultipartFile file) {
         String originalFilename = file.getOriginalFilename();
         String fileExtension = "";
         if (originalFilename != null && originalFilename.contains(".")) {
-            fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+            fileExtension = originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase(Locale.ROOT);
+            if (!fileExtension.matches("\\.[a-z0-9]+")) {
+                fileExtension = "";
+            }
         }
-        
-        // Sanitize the filename
-        String safeFileName = fileName.replaceAll("[^a-zA-Z0-9.-]", "_");
-        String newFileName = safeFileName + fileExtension;
-        
-        // Create the target file
-        Path targetLocation = Paths.get(employeePhotosDir).resolve(newFileName);
-        
-        // Ensure the upload directory exists
-        Files.createDirectories(targetLocation.getParent());
-        
-        // Save the file
-        file.transferTo(targetLocation);
-        
-        // Return the relative path that can be used in URLs
-        return "/uploads/employee_photos/" + newFileName;
+        return fileExtension;
     }
     
-    public Resource loadFileAsResource(String fileName) throws IOException {
-        try {
-            // Handle different path formats
-            String relativePath = fileName;
-            
-            // Remove leading ./ if present
-            if (relativePath.startsWith("./")) {
-                relativePath = relativePath.substring(2);
-            }
-            // Remove leading /uploads/ if present
-            else if (relativePath.startsWith("/uploads/")) {
-                relativePath = relativePath.substring("/uploads/".length());
-            }
-            // Handle paths that start with /photos/
-            else if (relativePath.startsWith("/photos/")) {
-                relativePath = relativePath.substring(1); // Remove the leading slash
+    // Copies on one fixed buffer, enforcing the size limit; a null extension[0] is sniffed from the first bytes
+    private long copy(InputStream in, Path target, String[] extension) throws IOException {
+        byte[] buffer = new byte[UPLOAD_BUFFER_BYTES];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = in.readNBytes(buffer, 0, buffer.length)) > 0) {
+                if (extension[0] == null) {
+                    extension[0] = sniffImageExtension(buffer, read);
+                    if (extension[0] == null) {
+                        throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Photo must be a JPEG, PNG, GIF or WebP image");
+                    }
+                }
+                total += read;
+                if (total > maxUploadBytes) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "Photo exceeds " + maxUploadBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
             }
-            
-            // Get the base directory (either from employeePhotosDir or uploadDir)
-            String baseDir = employeePhotosDir != null ? employeePhotosDir : uploadDir;
-            
-            // Resolve the full path
-            Path filePath = Paths.get(baseDir).resolve(relativePath).normalize();
-            
-            // Security check: ensure the file is within the intended directory
-            Path basePath = Paths.get(baseDir).normalize();
-            if (!filePath.startsWith(basePath)) {
-                throw new IOException("Access denied: Path traversal attempt detected");
+        }
+        if (total == 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Photo is empty");
+        }
+        return total;
+    }
+    
+    private static String sniffImageExtension(byte[] head, int length) {
+        if (startsWith(head, length, 0xFF, 0xD8, 0xFF)) {
+            return ".jpg";
+        }
+        if (startsWith(head, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return ".png";
+        }
+        if (startsWith(head, length, 'G', 'I', 'F', '8')) {
+            return ".gif";
+        }
+        if (length >= 12 && startsWith(head, length, 'R', 'I', 'F', 'F')
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return ".webp";
+        }
+        return null;
+    }
+    
+    private static boolean startsWith(byte[] data, int length, int... prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((data[i] & 0xFF) != prefix[i]) {
+                return false;
             }
+        }
+        return true;
+    }
+
+    // The content hash of a stored photo, or null for legacy names such as emp_5.jpg
+    public static String versionOf(String photoPath) {
+        if (photoPath == null) {
+            return null;
+        }
+        String name = photoPath.substring(photoPath.lastIndexOf('/') + 1);
+        if (!CONTENT_ADDRESSED.matcher(name).matches()) {
+            return null;
+        }
+        int dot = name.indexOf('.');
+        return dot == -1 ? name : name.substring(0, dot);
+    }
+    
+    public Resource loadFileAsResource(String fileName) throws IOException {
+        try {
+            Path filePath = photoStore.localFile(photoName(fileName));
             
-            System.out.println("[DEBUG] Loading file from: " + filePath);
+            logger.debug("Loading file from: {}", filePath);
             Resource resource = new UrlResource(filePath.toUri());
             
             if (!resource.exists()) {
-                System.out.println("[DEBUG] File does not exist at: " + filePath);
                 throw new IOException("File not found: " + filePath);
             }
             
             if (!resource.isReadable()) {
-                System.out.println("[DEBUG] File exists but is not readable: " + filePath);
                 throw new IOException("File is not readable: " + filePath);
             }
             
             return resource;
         } catch (Exception ex) {
-            System.out.println("[ERROR] Error loading file: " + fileName + " - " + ex.getMessage());
+            logger.debug("Error loading file {}: {}", fileName, ex.getMessage());
             throw new IOException("Error loading file: " + fileName, ex);
         }
     }
@@ -145,42 +306,91 @@ public class FileHelper {
             return false;
         }
         
+        long started = System.nanoTime();
         try {
-            // Handle different path formats
-            String relativePath = fileName;
-            
-            // Remove leading ./ if present
-            if (relativePath.startsWith("./")) {
-                relativePath = relativePath.substring(2);
-            }
-            // Remove leading /uploads/ if present
-            else if (relativePath.startsWith("/uploads/")) {
-                relativePath = relativePath.substring("/uploads/".length());
-            }
+            String name = photoName(fileName);
+            Path filePath = photoStore.localPath(name);
             
-            // Get the base directory (either from employeePhotosDir or uploadDir)
-            String baseDir = employeePhotosDir != null ? employeePhotosDir : uploadDir;
-            
-            // Resolve the full path
-            Path filePath = Paths.get(baseDir).resolve(relativePath).normalize();
-            
-            // Security check: ensure the file is within the intended directory
-            Path basePath = Paths.get(baseDir).normalize();
-            if (!filePath.startsWith(basePath)) {
-                throw new IOException("Access denied: Path traversal attempt detected");
-            }
-            
-            System.out.println("[DEBUG] Deleting file at: " + filePath);
-            boolean deleted = Files.deleteIfExists(filePath);
+            logger.debug("Deleting photo {}", name);
+            boolean deleted = photoStore.delete(name);
+            photoFileServer.evict(filePath);
             
             if (!deleted) {
-                System.out.println("[DEBUG] File did not exist, nothing to delete: " + filePath);
+                logger.debug("File did not exist, nothing to delete: {}", filePath);
             }
             
             return deleted;
         } catch (Exception ex) {
-            System.out.println("[ERROR] Error deleting file: " + fileName + " - " + ex.getMessage());
+            logger.warn("Error deleting file {}: {}", fileName, ex.getMessage());
             throw new IOException("Could not delete file: " + fileName, ex);
+        } finally {
+            deleteTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    // Same lookup as loadFileAsResource, without the Resource wrapper, for PhotoFileServer
+    public Path resolvePhotoFile(String fileName) throws IOException {
+        return photoStore.localFile(photoName(fileName));
+    }
+    
+    // Strong validator for a photo: the content hash when the name carries it, otherwise size and mtime
+    public String etagOf(String photoPath, Path file) throws IOException {
+        String version = versionOf(photoPath);
+        if (version == null) {
+            version = Long.toHexString(Files.size(file)) + "-" + Long.toHexString(Files.getLastModifiedTime(file).toMillis());
+        }
+        return "\"" + version + "\"";
+    }
+    
+    // The PhotoStore name of a photograph_path: the URL prefix (or a legacy relative prefix) stripped
+    // and the rest normalised, refusing anything that would climb out of the store
+    public String photoName(String fileName) throws IOException {
+        // Handle different path formats
+        String relativePath = fileName;
+        
+        // Remove the URL prefix added by promote, with or without the leading slash
+        if (relativePath.startsWith(PHOTO_URL_PREFIX)) {
+            relativePath = relativePath.substring(PHOTO_URL_PREFIX.length());
+        } else if (relativePath.startsWith(PHOTO_URL_PREFIX.substring(1))) {
+            relativePath = relativePath.substring(PHOTO_URL_PREFIX.length() - 1);
+        }
+        // Remove leading ./ if present
+        else if (relativePath.startsWith("./")) {
+            relativePath = relativePath.substring(2);
+        }
+        // Remove leading /uploads/ if present
+        else if (relativePath.startsWith("/uploads/")) {
+            relativePath = relativePath.substring("/uploads/".length());
+        }
+        // Handle paths that start with /photos/
+        else if (relativePath.startsWith("/photos/")) {
+            relativePath = relativePath.substring(1); // Remove the leading slash
+        }
+        
+        // Security check: the name must stay within the store
+        Path normalized = Paths.get(relativePath).normalize();
+        if (normalized.isAbsolute() || normalized.toString().isEmpty() || normalized.startsWith("..")) {
+            throw new IOException("Access denied: Path traversal attempt detected");
+        }
+        
+        return normalized.toString().replace('\\', '/');
+    }
+    
+    // The photograph_path values photoName maps to name, for exact lookups on the indexed column
+    public static List<String> storedPaths(String name) {
+        List<String> paths = new ArrayList<>(List.of(PHOTO_URL_PREFIX + name, PHOTO_URL_PREFIX.substring(1) + name,
+                "/uploads/" + name, "./" + name, name));
+        if (name.startsWith("photos/")) {
+            paths.add("/" + name);
+        }
+        return paths;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
     
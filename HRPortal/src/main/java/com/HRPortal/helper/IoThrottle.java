@@ -0,0 +1,26 @@
+package com.HRPortal.helper;
+
+import java.util.concurrent.TimeUnit;
+
+// Paces a single-threaded background job (photo migration, orphan collection) to whichever of a byte
+// rate and an operation rate is tighter, so it can share the disk or the bucket with live traffic.
+// The first operation starts at once; each one then pays for itself before the next may start.
+public class IoThrottle {
+    private final long maxBytesPerSecond;
+    private final int maxOpsPerSecond;
+    private long next = System.nanoTime();
+
+    public IoThrottle(long maxBytesPerSecond, int maxOpsPerSecond) {
+        this.maxBytesPerSecond = maxBytesPerSecond;
+        this.maxOpsPerSecond = maxOpsPerSecond;
+    }
+
+    public void acquire(long bytes) throws InterruptedException {
+        long now = System.nanoTime();
+        if (next > now) {
+            TimeUnit.NANOSECONDS.sleep(next - now);
+        }
+        long cost = Math.max(bytes * 1_000_000_000L / maxBytesPerSecond, 1_000_000_000L / maxOpsPerSecond);
+        next = Math.max(next, now) + cost;
+    }
+}
@@ -0,0 +1,163 @@
+package com.HRPortal.helper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Photos under root/ab/cd/<name>, two levels of 256 directories taken from the content hash in the
+// name, so no directory grows past a few thousand entries. Files still in the old flat layout
+// (root/<name>) are found as well until PhotoStoreMigration has moved them.
+public class LocalPhotoStore implements PhotoStore {
+    private static final Pattern HASH_PREFIX = Pattern.compile("^[0-9a-f]{4}");
+    private static final Pattern SHARD = Pattern.compile("[0-9a-f]{2}");
+
+    private final Path root;
+
+    public LocalPhotoStore(Path root) throws IOException {
+        this.root = Files.createDirectories(root).normalize();
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    // Legacy names without a hash (emp_5.jpg) are sharded by the hash of the name instead
+    public static Path shardedPath(Path root, String name) {
+        String key = HASH_PREFIX.matcher(name).lookingAt() ? name : sha256Hex(name);
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(name);
+    }
+
+    @Override
+    public void put(String name, Path source) throws IOException {
+        Path target = shardedPath(name);
+        if (Files.exists(target)) {
+            if (!Files.isSameFile(source, target)) {
+                Files.deleteIfExists(source);
+            }
+            // the photo may be an old orphan: a fresh mtime keeps the garbage collector's minimum age
+            // from deleting it before the new reference is committed
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // another file system: copy next to the target, then rename
+            Path temp = Files.createTempFile(target.getParent(), "put-", ".tmp");
+            try {
+                Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                Files.delete(source);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return Files.exists(localPath(name));
+    }
+
+    @Override
+    public Path localFile(String name) throws IOException {
+        Path file = localPath(name);
+        if (!Files.isReadable(file)) {
+            throw new NoSuchFileException(file.toString());
+        }
+        return file;
+    }
+
+    @Override
+    public Path localPath(String name) {
+        if (name.contains("/")) {
+            // legacy sub-directory paths are only ever read in place
+            return root.resolve(name);
+        }
+        Path sharded = shardedPath(name);
+        if (Files.exists(sharded)) {
+            return sharded;
+        }
+        Path flat = root.resolve(name);
+        return Files.exists(flat) ? flat : sharded;
+    }
+
+    @Override
+    public boolean delete(String name) throws IOException {
+        boolean deleted = Files.deleteIfExists(root.resolve(name));
+        if (!name.contains("/")) {
+            deleted |= Files.deleteIfExists(shardedPath(name));
+        }
+        return deleted;
+    }
+
+    // Sharded and flat files; the incoming, variants and other working directories are skipped
+    @Override
+    public Stream<StoredPhoto> list() throws IOException {
+        return Stream.concat(flatList(), Files.walk(root, 3)
+                .filter(path -> path.getNameCount() - root.getNameCount() == 3)
+                .filter(path -> SHARD.matcher(path.getParent().getFileName().toString()).matches()
+                        && SHARD.matcher(path.getParent().getParent().getFileName().toString()).matches())
+                .filter(path -> isPhotoName(path.getFileName().toString()))
+                .map(LocalPhotoStore::stored)
+                .filter(Objects::nonNull));
+    }
+
+    // Photos still in the old flat layout
+    public Stream<String> flatNames() throws IOException {
+        return flatList().map(StoredPhoto::name);
+    }
+
+    private Stream<StoredPhoto> flatList() throws IOException {
+        return Files.list(root)
+                .filter(path -> isPhotoName(path.getFileName().toString()))
+                .map(LocalPhotoStore::stored)
+                .filter(Objects::nonNull);
+    }
+
+    // Null for directories and for files deleted since the directory was read
+    private static StoredPhoto stored(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.isRegularFile()
+                    ? new StoredPhoto(path.getFileName().toString(), attributes.size(), attributes.lastModifiedTime().toInstant())
+                    : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path shardedPath(String name) {
+        return shardedPath(root, name);
+    }
+
+    // Temp files of uploads and puts in progress are not photos
+    private static boolean isPhotoName(String name) {
+        return !name.endsWith(".tmp") && !name.endsWith(".part") && !name.startsWith(".");
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
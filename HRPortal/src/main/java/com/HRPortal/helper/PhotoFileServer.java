@@ -0,0 +1,283 @@
+package com.HRPortal.helper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Serves photo files without copying them through the heap:
+//  - Tomcat sendfile (kernel zero-copy) when the connector supports it and the file is large enough,
+//  - otherwise small files from a bounded cache of memory-mapped buffers,
+//  - otherwise FileChannel.transferTo into the response channel.
+// Open FileChannels are kept in a small LRU cache; photos are content-addressed and immutable, so a
+// cached handle never goes stale while its name is in use.
+@Component
+public class PhotoFileServer {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final int maxOpenFiles;
+    private final long mmapMaxFileBytes;
+    private final long mmapCacheBytes;
+    private final long sendfileMinBytes;
+
+    // A lock rather than monitors: channel.map() runs under it, and a virtual thread blocked in a
+    // synchronized block would pin its carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Path, Handle> handles = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Path, MappedByteBuffer> mapped = new LinkedHashMap<>(16, 0.75f, true);
+    private long mappedBytes;
+
+    private final Counter sendfileBytes;
+    private final Counter mmapBytes;
+    private final Counter transferBytes;
+    // sendfile is written by the connector after we return, so only the in-JVM paths are timed
+    private final Timer mmapWrite;
+    private final Timer transferWrite;
+
+    public PhotoFileServer(@Value("${photo.serve.open-files:256}") int maxOpenFiles,
+                           @Value("${photo.serve.mmap-max-file-bytes:65536}") long mmapMaxFileBytes,
+                           @Value("${photo.serve.mmap-cache-bytes:67108864}") long mmapCacheBytes,
+                           @Value("${photo.serve.sendfile-min-bytes:49152}") long sendfileMinBytes,
+                           MeterRegistry meterRegistry) {
+        this.maxOpenFiles = maxOpenFiles;
+        this.mmapMaxFileBytes = mmapMaxFileBytes;
+        this.mmapCacheBytes = mmapCacheBytes;
+        this.sendfileMinBytes = sendfileMinBytes;
+        this.sendfileBytes = servedBytes(meterRegistry, "sendfile");
+        this.mmapBytes = servedBytes(meterRegistry, "mmap");
+        this.transferBytes = servedBytes(meterRegistry, "transfer");
+        this.mmapWrite = Timer.builder("photo.serve.duration").tag("strategy", "mmap").register(meterRegistry);
+        this.transferWrite = Timer.builder("photo.serve.duration").tag("strategy", "transfer").register(meterRegistry);
+    }
+
+    private static Counter servedBytes(MeterRegistry meterRegistry, String strategy) {
+        return Counter.builder("photo.served.bytes").baseUnit("bytes").tag("strategy", strategy).register(meterRegistry);
+    }
+
+    public void serve(Path file, String etag, CacheControl cacheControl, MediaType contentType,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(contentType.toString());
+
+        Handle handle = acquire(file);
+        try {
+            long length = handle.channel.size();
+            long start = 0;
+            long end = length - 1;
+
+            String range = request.getHeader(HttpHeaders.RANGE);
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+            if (range != null && (ifRange == null || ifRange.equals(etag))) {
+                List<HttpRange> ranges;
+                try {
+                    ranges = HttpRange.parseRanges(range);
+                } catch (IllegalArgumentException e) {
+                    ranges = List.of();
+                }
+                // multi-range requests are answered with the full body, which RFC 9110 allows
+                if (ranges.size() == 1) {
+                    HttpRange r = ranges.get(0);
+                    start = r.getRangeStart(length);
+                    end = r.getRangeEnd(length);
+                    if (start >= length || start > end) {
+                        response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                        return;
+                    }
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            }
+            long count = end - start + 1;
+            response.setContentLengthLong(count);
+            if (HttpMethod.HEAD.matches(request.getMethod())) {
+                return;
+            }
+
+            if (count >= sendfileMinBytes && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                sendfileBytes.increment(count);
+                return;
+            }
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long started = System.nanoTime();
+            if (length <= mmapMaxFileBytes) {
+                ByteBuffer buffer = mappedBuffer(file, handle.channel, length).duplicate();
+                buffer.position((int) start).limit((int) (end + 1));
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                mmapWrite.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                mmapBytes.increment(count);
+            } else {
+                long position = start;
+                while (position <= end) {
+                    position += handle.channel.transferTo(position, end + 1 - position, out);
+                }
+                transferWrite.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                transferBytes.increment(count);
+            }
+        } finally {
+            release(handle);
+        }
+    }
+
+    public void evict(Path file) {
+        Handle handle;
+        lock.lock();
+        try {
+            handle = handles.remove(file);
+            MappedByteBuffer buffer = mapped.remove(file);
+            if (buffer != null) {
+                mappedBytes -= buffer.capacity();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (handle != null) {
+            retire(handle);
+        }
+    }
+
+    private Handle acquire(Path file) throws IOException {
+        lock.lock();
+        try {
+            Handle cached = handles.get(file);
+            if (cached != null) {
+                cached.refs.incrementAndGet();
+                return cached;
+            }
+        } finally {
+            lock.unlock();
+        }
+        Handle opened = new Handle(FileChannel.open(file, StandardOpenOption.READ));
+        Handle winner;
+        Handle evicted = null;
+        lock.lock();
+        try {
+            winner = handles.putIfAbsent(file, opened);
+            if (winner == null) {
+                winner = opened;
+                if (handles.size() > maxOpenFiles) {
+                    Iterator<Handle> eldest = handles.values().iterator();
+                    evicted = eldest.next();
+                    eldest.remove();
+                }
+            }
+            winner.refs.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+        if (winner != opened) {
+            opened.channel.close();
+        }
+        if (evicted != null) {
+            retire(evicted);
+        }
+        return winner;
+    }
+
+    private void release(Handle handle) throws IOException {
+        if (handle.refs.decrementAndGet() == 0 && handle.retired) {
+            handle.channel.close();
+        }
+    }
+
+    // The cache's own reference is dropped; the channel closes once in-flight responses finish
+    private void retire(Handle handle) {
+        handle.retired = true;
+        try {
+            release(handle);
+        } catch (IOException ignored) {
+            // nothing useful to do if closing a read-only channel fails
+        }
+    }
+
+    private MappedByteBuffer mappedBuffer(Path file, FileChannel channel, long length) throws IOException {
+        lock.lock();
+        try {
+            return mappedBufferLocked(file, channel, length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private MappedByteBuffer mappedBufferLocked(Path file, FileChannel channel, long length) throws IOException {
+        MappedByteBuffer buffer = mapped.get(file);
+        if (buffer == null) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            mapped.put(file, buffer);
+            mappedBytes += length;
+            Iterator<MappedByteBuffer> eldest = mapped.values().iterator();
+            while (mappedBytes > mmapCacheBytes && eldest.hasNext()) {
+                MappedByteBuffer old = eldest.next();
+                if (old != buffer) {
+                    mappedBytes -= old.capacity();
+                    eldest.remove();
+                }
+            }
+        }
+        return buffer;
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            handles.values().forEach(this::retire);
+            handles.clear();
+            mapped.clear();
+            mappedBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Handle {
+        private final FileChannel channel;
+        // one reference belongs to the cache itself until the handle is retired
+        private final AtomicInteger refs = new AtomicInteger(1);
+        private volatile boolean retired;
+
+        private Handle(FileChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.HRPortal.helper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+// Where employee photos live, keyed by file name (content hash plus extension for anything uploaded
+// since photos became content-addressed). A stored photo never changes: new content gets a new name.
+public interface PhotoStore {
+
+    // Moves source into the store; when the name is already stored the source is just deleted
+    void put(String name, Path source) throws IOException;
+
+    boolean exists(String name) throws IOException;
+
+    // A readable local file with the photo's bytes, for serving and thumbnailing;
+    // NoSuchFileException when the photo is not stored
+    Path localFile(String name) throws IOException;
+
+    // Where localFile() keeps the photo, without touching the disk or the network
+    Path localPath(String name);
+
+    boolean delete(String name) throws IOException;
+
+    // Every stored photo with its size and last write; the stream must be closed
+    Stream<StoredPhoto> list() throws IOException;
+
+    default Stream<String> names() throws IOException {
+        return list().map(StoredPhoto::name);
+    }
+}
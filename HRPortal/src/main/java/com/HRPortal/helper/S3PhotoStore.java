@@ -0,0 +1,390 @@
+package com.HRPortal.helper;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Photos as objects in an S3-compatible bucket (AWS, MinIO, Ceph), addressed path-style and signed with
+// SigV4 over the JDK HTTP client. Serving and thumbnailing need a file, so localFile() downloads into a
+// sharded local cache; photos are immutable, so a cached copy never goes stale and may be removed at
+// any time. trimCache() does so, least recently used first, whenever the cache outgrows maxCacheBytes.
+public class S3PhotoStore implements PhotoStore {
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final int MAX_ATTEMPTS = 3;
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    // a cache hit renews the copy's mtime (its last use) at most this often, to spare the disk a write per hit
+    private static final Duration TOUCH_INTERVAL = Duration.ofHours(1);
+
+    private final URI endpoint;
+    private final String region;
+    private final String bucket;
+    private final String accessKey;
+    private final String secretKey;
+    private final String prefix;
+    private final Path cacheDir;
+    private final long maxCacheBytes;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    public S3PhotoStore(URI endpoint, String region, String bucket, String accessKey, String secretKey,
+                        String prefix, Path cacheDir, long maxCacheBytes, Duration timeout) throws IOException {
+        this.endpoint = endpoint;
+        this.region = region;
+        this.bucket = bucket;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.prefix = prefix;
+        this.cacheDir = Files.createDirectories(cacheDir);
+        this.maxCacheBytes = maxCacheBytes;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public void put(String name, Path source) throws IOException {
+        String contentType = MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+        if (!touch(name, contentType)) {
+            HttpRequest.BodyPublisher file = HttpRequest.BodyPublishers.ofFile(source);
+            HttpResponse<String> response = send("PUT", name, Map.of(), Map.of(),
+                    builder -> builder.header("Content-Type", contentType).method("PUT", file),
+                    HttpResponse.BodyHandlers.ofString());
+            expect(response, "PUT", name);
+        }
+        Files.deleteIfExists(source);
+    }
+
+    // A photo already in the bucket is copied onto itself, which renews its LastModified so the
+    // garbage collector's minimum age protects it again while the new reference is being committed.
+    // False when there is no such object.
+    private boolean touch(String name, String contentType) throws IOException {
+        HttpResponse<String> response = send("PUT", name, Map.of(), Map.of(
+                        "x-amz-copy-source", "/" + encode(bucket) + "/" + encodePath(key(name)),
+                        "x-amz-metadata-directive", "REPLACE"),
+                builder -> builder.header("Content-Type", contentType).method("PUT", HttpRequest.BodyPublishers.noBody()),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 404) {
+            return false;
+        }
+        expect(response, "COPY", name);
+        return true;
+    }
+
+    @Override
+    public boolean exists(String name) throws IOException {
+        HttpResponse<Void> response = send("HEAD", name, Map.of(), Map.of(),
+                builder -> builder.method("HEAD", HttpRequest.BodyPublishers.noBody()),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return false;
+        }
+        expect(response, "HEAD", name);
+        return true;
+    }
+
+    @Override
+    public Path localFile(String name) throws IOException {
+        Path cached = localPath(name);
+        if (Files.isReadable(cached)) {
+            try {
+                Instant now = Instant.now();
+                if (Files.getLastModifiedTime(cached).toInstant().isBefore(now.minus(TOUCH_INTERVAL))) {
+                    Files.setLastModifiedTime(cached, FileTime.from(now));
+                }
+                return cached;
+            } catch (NoSuchFileException e) {
+                // trimmed meanwhile: downloaded again below
+            }
+        }
+        Files.createDirectories(cached.getParent());
+        Path temp = Files.createTempFile(cached.getParent(), "get-", ".tmp");
+        try {
+            HttpResponse<Path> response = send("GET", name, Map.of(), Map.of(), HttpRequest.Builder::GET,
+                    HttpResponse.BodyHandlers.ofFile(temp));
+            if (response.statusCode() == 404) {
+                throw new NoSuchFileException(key(name));
+            }
+            expect(response, "GET", name);
+            Files.move(temp, cached, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return cached;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Deletes the least recently used copies until the cache is down to 90% of maxCacheBytes, so a
+    // trim is not needed again at once. A copy being served stays readable through its open handle.
+    @Scheduled(fixedDelayString = "${photo.store.s3.cache-trim-interval:PT10M}",
+            initialDelayString = "${photo.store.s3.cache-trim-interval:PT10M}")
+    public int trimCache() throws IOException {
+        List<CachedCopy> copies = new ArrayList<>();
+        Files.walkFileTree(cacheDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                // downloads in progress are still get-*.tmp
+                if (attributes.isRegularFile() && !file.getFileName().toString().endsWith(".tmp")) {
+                    copies.add(new CachedCopy(file, attributes.size(), attributes.lastModifiedTime()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                // removed while the walk ran
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        long total = copies.stream().mapToLong(CachedCopy::size).sum();
+        if (total <= maxCacheBytes) {
+            return 0;
+        }
+        copies.sort(Comparator.comparing(CachedCopy::lastUsed));
+        long target = maxCacheBytes - maxCacheBytes / 10;
+        int removed = 0;
+        for (CachedCopy copy : copies) {
+            if (total <= target) {
+                break;
+            }
+            Files.deleteIfExists(copy.file());
+            total -= copy.size();
+            removed++;
+        }
+        return removed;
+    }
+
+    private record CachedCopy(Path file, long size, FileTime lastUsed) {
+    }
+
+    @Override
+    public Path localPath(String name) {
+        return LocalPhotoStore.shardedPath(cacheDir, name);
+    }
+
+    // S3 answers 204 whether or not the object existed
+    @Override
+    public boolean delete(String name) throws IOException {
+        HttpResponse<String> response = send("DELETE", name, Map.of(), Map.of(), HttpRequest.Builder::DELETE,
+                HttpResponse.BodyHandlers.ofString());
+        expect(response, "DELETE", name);
+        Files.deleteIfExists(localPath(name));
+        return true;
+    }
+
+    // Pages through ListObjectsV2 lazily, 1000 keys per request
+    @Override
+    public Stream<StoredPhoto> list() {
+        Iterator<StoredPhoto> keys = new Iterator<>() {
+            private final Deque<StoredPhoto> page = new ArrayDeque<>();
+            private String continuation;
+            private boolean last;
+
+            @Override
+            public boolean hasNext() {
+                while (page.isEmpty() && !last) {
+                    fetch();
+                }
+                return !page.isEmpty();
+            }
+
+            @Override
+            public StoredPhoto next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.poll();
+            }
+
+            private void fetch() {
+                Map<String, String> query = new TreeMap<>(Map.of("list-type", "2", "prefix", prefix));
+                if (continuation != null) {
+                    query.put("continuation-token", continuation);
+                }
+                try {
+                    HttpResponse<InputStream> response = send("GET", null, query, Map.of(), HttpRequest.Builder::GET,
+                            HttpResponse.BodyHandlers.ofInputStream());
+                    try (InputStream body = response.body()) {
+                        if (response.statusCode() != 200) {
+                            throw new IOException("S3 list of " + bucket + " answered " + response.statusCode());
+                        }
+                        Document document = listingParser().newDocumentBuilder().parse(body);
+                        NodeList contents = document.getElementsByTagName("Contents");
+                        for (int i = 0; i < contents.getLength(); i++) {
+                            Element object = (Element) contents.item(i);
+                            page.add(new StoredPhoto(child(object, "Key").substring(prefix.length()),
+                                    Long.parseLong(child(object, "Size")),
+                                    Instant.parse(child(object, "LastModified"))));
+                        }
+                        NodeList next = document.getElementsByTagName("NextContinuationToken");
+                        continuation = next.getLength() > 0 ? next.item(0).getTextContent() : null;
+                        last = continuation == null;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } catch (Exception e) {
+                    throw new UncheckedIOException(new IOException("Unreadable S3 listing of " + bucket, e));
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(keys, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // Listings come from the network: no DTDs, no external entities
+    private static DocumentBuilderFactory listingParser() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        factory.setExpandEntityReferences(false);
+        return factory;
+    }
+
+    private static String child(Element element, String tag) {
+        return element.getElementsByTagName(tag).item(0).getTextContent();
+    }
+
+    private String key(String name) {
+        return prefix + name;
+    }
+
+    private static void expect(HttpResponse<?> response, String method, String name) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("S3 " + method + " of " + name + " answered " + response.statusCode());
+        }
+    }
+
+    // headers are extra x-amz-* headers, signed along with the fixed ones
+    private <T> HttpResponse<T> send(String method, String name, Map<String, String> query,
+                                     Map<String, String> headers, Consumer<HttpRequest.Builder> body,
+                                     HttpResponse.BodyHandler<T> handler) throws IOException {
+        String path = "/" + encode(bucket) + (name != null ? "/" + encodePath(key(name)) : "");
+        String canonicalQuery = query.entrySet().stream()
+                .map(e -> encode(e.getKey()) + "=" + encode(e.getValue()))
+                .collect(Collectors.joining("&"));
+        URI uri = endpoint.resolve(path + (canonicalQuery.isEmpty() ? "" : "?" + canonicalQuery));
+
+        String amzDate = ZonedDateTime.now(ZoneOffset.UTC).format(AMZ_DATE);
+        String host = uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+        Map<String, String> signed = new TreeMap<>(headers);
+        signed.put("host", host);
+        signed.put("x-amz-content-sha256", UNSIGNED_PAYLOAD);
+        signed.put("x-amz-date", amzDate);
+        String signedHeaders = String.join(";", signed.keySet());
+        String canonicalRequest = method + "\n" + path + "\n" + canonicalQuery + "\n"
+                + signed.entrySet().stream().map(e -> e.getKey() + ":" + e.getValue() + "\n").collect(Collectors.joining())
+                + "\n" + signedHeaders + "\n" + UNSIGNED_PAYLOAD;
+        String scope = amzDate.substring(0, 8) + "/" + region + "/s3/aws4_request";
+        String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n" + sha256Hex(canonicalRequest);
+        String signature = HexFormat.of().formatHex(hmac(signingKey(amzDate.substring(0, 8)), stringToSign));
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("x-amz-date", amzDate)
+                .header("x-amz-content-sha256", UNSIGNED_PAYLOAD)
+                .header("Authorization", "AWS4-HMAC-SHA256 Credential=" + accessKey + "/" + scope
+                        + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature);
+        headers.forEach(builder::header);
+        body.accept(builder);
+        HttpRequest request = builder.build();
+        // every request here is idempotent (objects are named by their content), so a connection the
+        // server dropped from the pool is simply retried
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return client.send(request, handler);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted during S3 " + method, e);
+            } catch (IOException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private byte[] signingKey(String date) {
+        byte[] key = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        key = hmac(key, region);
+        key = hmac(key, "s3");
+        return hmac(key, "aws4_request");
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private static String sha256Hex(String data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // RFC 3986 unreserved characters stay, everything else is percent-encoded, as SigV4 requires
+    static String encode(String value) {
+        StringBuilder out = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~') {
+                out.append(c);
+            } else {
+                out.append('%').append(String.format("%02X", b & 0xFF));
+            }
+        }
+        return out.toString();
+    }
+
+    private static String encodePath(String key) {
+        return Stream.of(key.split("/", -1)).map(S3PhotoStore::encode).collect(Collectors.joining("/"));
+    }
+}
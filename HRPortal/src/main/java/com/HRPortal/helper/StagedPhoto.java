@@ -0,0 +1,7 @@
+package com.HRPortal.helper;
+
+import java.nio.file.Path;
+
+// An upload written to the incoming directory but not yet hashed into its content-addressed name
+public record StagedPhoto(Path file, String extension) {
+}
@@ -0,0 +1,7 @@
+package com.HRPortal.helper;
+
+import java.time.Instant;
+
+// A photo as listed by its PhotoStore
+public record StoredPhoto(String name, long size, Instant modified) {
+}
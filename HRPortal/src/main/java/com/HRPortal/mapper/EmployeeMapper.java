@@ -3,10 +3,13 @@ package com.HRPortal.mapper;
 import com.HRPortal.dto.EmployeeDTO;
 import com.HRPortal.entity.Department;
 import com.HRPortal.entity.Employees;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 @Component
 public class EmployeeMapper {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeMapper.class);
 
     public EmployeeDTO toDTO(Employees employee) {
         if (employee == null) {
@@ -20,6 +23,8 @@ public class EmployeeMapper {
         dto.setEmail(employee.getEmail());
         dto.setTitle(employee.getTitle());
         dto.setPhotograph_path(employee.getPhotograph_path());
+        dto.setPhoto_status(employee.getPhoto_status());
+        dto.setVersion(employee.getVersion());
         
         if (employee.getDepartment() != null) {
             dto.setDepartment_id(employee.getDepartment().getDepartmentId());
@@ -43,7 +48,7 @@ public class EmployeeMapper {
             return employee;
         }
         
-        System.out.println("In updateEntity, DTO department_id: " + dto.getDepartment_id());
+        logger.debug("In updateEntity, DTO department_id: {}", dto.getDepartment_id());
 
         if (dto.getFirst_name() != null) {
             employee.setFirst_name(dto.getFirst_name());
@@ -51,11 +56,10 @@ public class EmployeeMapper {
         
         // Set department if department_id is provided (0 means no department)
         if (dto.getDepartment_id() != 0) {
-            System.out.println("Creating department with ID: " + dto.getDepartment_id());
+            logger.debug("Creating department with ID: {}", dto.getDepartment_id());
             Department department = new Department();
             department.setDepartmentId(dto.getDepartment_id());
             employee.setDepartment(department);
-            System.out.println("Employee department after setting: " + employee.getDepartment());
         }
         
         if (dto.getLast_name() != null) {
@@ -1,9 +1,51 @@
 package com.HRPortal.repository;
 
+import com.HRPortal.dto.DepartmentNameDTO;
+import com.HRPortal.dto.DepartmentSeatsDTO;
 import com.HRPortal.entity.Department;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface DepartmentRepo extends JpaRepository<Department, Long> {
+
+    // Catalog reads go through the query cache; any write to department (including the seat
+    // updates below) invalidates them through the update-timestamps region
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.HRPortal.dto.DepartmentNameDTO(d.departmentId, d.name) FROM Department d ORDER BY d.departmentId")
+    List<DepartmentNameDTO> findAllNames();
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.HRPortal.dto.DepartmentSeatsDTO(d.departmentId, d.name, d.seats_left) FROM Department d ORDER BY d.departmentId")
+    List<DepartmentSeatsDTO> findAllSeats();
+
+    @Query("SELECT new com.HRPortal.dto.DepartmentSeatsDTO(d.departmentId, d.name, d.seats_left) FROM Department d WHERE d.departmentId = :id")
+    Optional<DepartmentSeatsDTO> findSeatsById(@Param("id") int id);
+
+    // Conditional decrements: the row lock taken by the UPDATE serialises concurrent hires, and a
+    // department that is already full matches zero rows. A null seats_left means unlimited.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Department d SET d.seats_left = d.seats_left - 1 " +
+            "WHERE d.departmentId = :id AND (d.seats_left IS NULL OR d.seats_left > 0)")
+    int reserveSeat(@Param("id") int id);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Department d SET d.seats_left = d.seats_left - :seats " +
+            "WHERE d.departmentId = :id AND (d.seats_left IS NULL OR d.seats_left >= :seats)")
+    int reserveSeats(@Param("id") int id, @Param("seats") int seats);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Department d SET d.seats_left = d.seats_left + 1 " +
+            "WHERE d.departmentId = :id AND d.seats_left IS NOT NULL " +
+            "AND (d.capacity IS NULL OR d.seats_left < d.capacity)")
+    int releaseSeat(@Param("id") int id);
 }
@@ -0,0 +1,31 @@
+package com.HRPortal.repository;
+
+import com.HRPortal.dto.EmployeeDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Keyset position in a listing: the sort key and id of the previous page's last row. It travels as an
+// opaque token, so the next page needs no lookup and carries on from the same place when that row is
+// renamed or deleted meanwhile. lastName is null for rows without one.
+public record EmployeeCursor(String sort, int employeeId, String lastName) {
+
+    public static EmployeeCursor after(EmployeeDTO last, String sort) {
+        return new EmployeeCursor(sort, last.getEmployee_id(), last.getLast_name());
+    }
+
+    // sort, id and "=" + last name (nothing for null) on separate lines, in URL-safe Base64
+    public String encode() {
+        String key = sort + "\n" + employeeId + "\n" + (lastName != null ? "=" + lastName : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // IllegalArgumentException for anything encode() did not produce
+    public static EmployeeCursor decode(String token) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\n", 3);
+        if (parts.length != 3 || !(parts[2].isEmpty() || parts[2].startsWith("="))) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return new EmployeeCursor(parts[0], Integer.parseInt(parts[1]), parts[2].isEmpty() ? null : parts[2].substring(1));
+    }
+}
@@ -0,0 +1,52 @@
+package com.HRPortal.repository;
+
+import com.HRPortal.entity.Employees;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Listing filters; null or empty parts match everything. The last name range is [lastNameFrom, lastNameTo).
+// Every combination is served by an index from the db/migration scripts (V5, V6), e.g.
+// idx_employees_title_last_name for the title filter in last-name order.
+public record EmployeeFilter(List<Integer> departmentIds, List<String> titles, String lastNameFrom, String lastNameTo)
+        implements Specification<Employees> {
+
+    public static final EmployeeFilter NONE = new EmployeeFilter(null, null, null, null);
+
+    public EmployeeFilter withoutDepartments() {
+        return new EmployeeFilter(null, titles, lastNameFrom, lastNameTo);
+    }
+
+    public EmployeeFilter withoutTitles() {
+        return new EmployeeFilter(departmentIds, null, lastNameFrom, lastNameTo);
+    }
+
+    @Override
+    public Predicate toPredicate(Root<Employees> e, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (departmentIds != null && !departmentIds.isEmpty()) {
+            // the id of a to-one association resolves to the foreign key column, no join needed
+            Path<Integer> departmentId = e.get("department").get("departmentId");
+            List<Integer> ids = departmentIds.stream().filter(id -> id != 0).toList();
+            Predicate in = ids.isEmpty() ? cb.disjunction() : departmentId.in(ids);
+            // 0 stands for "no department", as in EmployeeDTO
+            predicates.add(departmentIds.contains(0) ? cb.or(in, departmentId.isNull()) : in);
+        }
+        if (titles != null && !titles.isEmpty()) {
+            predicates.add(e.get("title").in(titles));
+        }
+        if (lastNameFrom != null && !lastNameFrom.isEmpty()) {
+            predicates.add(cb.greaterThanOrEqualTo(e.get("last_name"), lastNameFrom));
+        }
+        if (lastNameTo != null && !lastNameTo.isEmpty()) {
+            predicates.add(cb.lessThan(e.get("last_name"), lastNameTo));
+        }
+        return cb.and(predicates.toArray(Predicate[]::new));
+    }
+}
@@ -1,12 +1,40 @@
-package com.HRPortal.repository;
-
-import com.HRPortal.entity.Employees;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
-
-@Repository
-public interface EmployeesRepo extends JpaRepository<Employees, Integer> {
-//    List<Employees> findByFirst_name(String first_name);
-//    List<Employees> findByLast_name(String first_name);
-
-}
+package com.HRPortal.repository;
+
+import com.HRPortal.dto.EmployeeDTO;
+import com.HRPortal.entity.Employees;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EmployeesRepo extends JpaRepository<Employees, Integer>, EmployeesRepoCustom {
+//    List<Employees> findByFirst_name(String first_name);
+//    List<Employees> findByLast_name(String first_name);
+
+    // Selects straight into the DTO with one join, so listings never hydrate entities or lazy-load departments
+    String DTO_SELECT = "SELECT new com.HRPortal.dto.EmployeeDTO(e.employee_id, e.first_name, e.last_name, " +
+            "e.email, e.title, e.photograph_path, COALESCE(d.departmentId, 0), d.name, e.photo_status, e.version) " +
+            "FROM Employees e LEFT JOIN e.department d ";
+
+    @Query(DTO_SELECT + "WHERE e.employee_id = :emp_id")
+    Optional<EmployeeDTO> findDtoByEmployee_id(@Param("emp_id") int emp_id);
+
+    @Query(DTO_SELECT + "WHERE e.employee_id IN :ids")
+    List<EmployeeDTO> findDtoByEmployee_idIn(@Param("ids") Collection<Integer> ids);
+
+    @Query(DTO_SELECT + "WHERE e.email IN :emails")
+    List<EmployeeDTO> findDtoByEmailIn(@Param("emails") Collection<String> emails);
+
+    // Empty when the employee does not exist, a single null element when it has no photo
+    @Query("SELECT e.photograph_path FROM Employees e WHERE e.employee_id = :emp_id")
+    List<String> findPhotograph_pathByEmployee_id(@Param("emp_id") int emp_id);
+
+    // Rows pointing at any of the paths, e.g. the FileHelper.storedPaths of one photo
+    @Query("SELECT COUNT(e) FROM Employees e WHERE e.photograph_path IN :paths")
+    long countByPhotograph_pathIn(@Param("paths") Collection<String> paths);
+}
@@ -0,0 +1,19 @@
+package com.HRPortal.repository;
+
+import com.HRPortal.dto.EmployeeDTO;
+import com.HRPortal.dto.FacetCountDTO;
+
+import java.util.List;
+
+// Filtered listings and facet counts; the filter combinations are dynamic, so these are Criteria queries
+public interface EmployeesRepoCustom {
+
+    List<EmployeeDTO> findDtoPageAfter(EmployeeFilter filter, int after, int size);
+
+    // after is the keyset of the previous page's last row, null for the first page
+    List<EmployeeDTO> findDtoPageByLastNameAfter(EmployeeFilter filter, EmployeeCursor after, int size);
+
+    List<FacetCountDTO> countByDepartment(EmployeeFilter filter);
+
+    List<FacetCountDTO> countByTitle(EmployeeFilter filter);
+}
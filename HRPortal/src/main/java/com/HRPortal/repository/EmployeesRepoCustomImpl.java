@@ -0,0 +1,106 @@
+package com.HRPortal.repository;
+
+import com.HRPortal.dto.EmployeeDTO;
+import com.HRPortal.dto.FacetCountDTO;
+import com.HRPortal.entity.Department;
+import com.HRPortal.entity.Employees;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+
+import java.util.List;
+
+public class EmployeesRepoCustomImpl implements EmployeesRepoCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<EmployeeDTO> findDtoPageAfter(EmployeeFilter filter, int after, int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EmployeeDTO> query = cb.createQuery(EmployeeDTO.class);
+        Root<Employees> e = selectDto(cb, query);
+        Path<Integer> id = e.get("employee_id");
+        query.where(filter.toPredicate(e, query, cb), cb.greaterThan(id, after))
+                .orderBy(cb.asc(id));
+        return entityManager.createQuery(query).setMaxResults(size).getResultList();
+    }
+
+    @Override
+    public List<EmployeeDTO> findDtoPageByLastNameAfter(EmployeeFilter filter, EmployeeCursor after, int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EmployeeDTO> query = cb.createQuery(EmployeeDTO.class);
+        Root<Employees> e = selectDto(cb, query);
+        Path<String> name = e.get("last_name");
+        Path<Integer> id = e.get("employee_id");
+        if (after == null) {
+            query.where(filter.toPredicate(e, query, cb));
+        } else if (after.lastName() == null) {
+            // NULL last names sort first (MySQL, and H2 in MySQL mode) and compare with nothing
+            query.where(filter.toPredicate(e, query, cb), cb.or(
+                    cb.and(cb.isNull(name), cb.greaterThan(id, after.employeeId())),
+                    cb.isNotNull(name)));
+        } else {
+            query.where(filter.toPredicate(e, query, cb), cb.or(
+                    cb.greaterThan(name, after.lastName()),
+                    cb.and(cb.equal(name, after.lastName()), cb.greaterThan(id, after.employeeId()))));
+        }
+        query.orderBy(cb.asc(name), cb.asc(id));
+        return entityManager.createQuery(query).setMaxResults(size).getResultList();
+    }
+
+    // Same columns as EmployeesRepo.DTO_SELECT
+    private static Root<Employees> selectDto(CriteriaBuilder cb, CriteriaQuery<EmployeeDTO> query) {
+        Root<Employees> e = query.from(Employees.class);
+        Join<Employees, Department> d = e.join("department", JoinType.LEFT);
+        query.select(cb.construct(EmployeeDTO.class,
+                e.get("employee_id"), e.get("first_name"), e.get("last_name"), e.get("email"), e.get("title"),
+                e.get("photograph_path"), cb.coalesce(d.<Integer>get("departmentId"), 0), d.get("name"),
+                e.get("photo_status"), e.get("version")));
+        return e;
+    }
+
+    @Override
+    public List<FacetCountDTO> countByDepartment(EmployeeFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Employees> e = query.from(Employees.class);
+        Join<Employees, Department> d = e.join("department", JoinType.LEFT);
+        Path<Integer> departmentId = d.get("departmentId");
+        Path<String> departmentName = d.get("name");
+        Expression<Long> count = cb.count(e);
+        query.multiselect(departmentId, departmentName, count)
+                .where(filter.toPredicate(e, query, cb))
+                .groupBy(departmentId, departmentName)
+                .orderBy(cb.desc(count), cb.asc(departmentId));
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(row -> new FacetCountDTO(
+                        row.get(departmentId) == null ? "0" : String.valueOf(row.get(departmentId)),
+                        row.get(departmentName),
+                        row.get(count)))
+                .toList();
+    }
+
+    @Override
+    public List<FacetCountDTO> countByTitle(EmployeeFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Employees> e = query.from(Employees.class);
+        Path<String> title = e.get("title");
+        Expression<Long> count = cb.count(e);
+        query.multiselect(title, count)
+                .where(filter.toPredicate(e, query, cb))
+                .groupBy(title)
+                .orderBy(cb.desc(count), cb.asc(title));
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(row -> new FacetCountDTO(row.get(title), row.get(title), row.get(count)))
+                .toList();
+    }
+}
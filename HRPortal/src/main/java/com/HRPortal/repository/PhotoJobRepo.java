@@ -0,0 +1,50 @@
+package com.HRPortal.repository;
+
+import com.HRPortal.entity.PhotoJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PhotoJobRepo extends JpaRepository<PhotoJob, Long> {
+
+    // Staged files are on the disk of the instance that took the upload, so it alone runs the job
+    @Query("SELECT j.id FROM PhotoJob j WHERE j.node IN (:node, '') ORDER BY j.id")
+    List<Long> findIdsByNode(@Param("node") String node);
+
+    @Query("SELECT j FROM PhotoJob j WHERE j.employee_id = :emp_id")
+    List<PhotoJob> findByEmployee_id(@Param("emp_id") int emp_id);
+
+    // A newer upload for the same employee supersedes this one
+    @Query("SELECT COUNT(j) > 0 FROM PhotoJob j WHERE j.employee_id = :emp_id AND j.id > :id")
+    boolean existsNewer(@Param("emp_id") int emp_id, @Param("id") long id);
+
+    // 0 when the job was cancelled (or already finished) while it ran
+    @Modifying
+    @Query("DELETE FROM PhotoJob j WHERE j.id = :id AND j.cancelled_at IS NULL")
+    int deleteJob(@Param("id") long id);
+
+    // 0 when another run of the owning node cleaned it up already
+    @Modifying
+    @Query("DELETE FROM PhotoJob j WHERE j.id = :id AND j.cancelled_at IS NOT NULL")
+    int deleteCancelled(@Param("id") long id);
+
+    // For jobs staged on other instances, whose files this one cannot reach
+    @Modifying
+    @Query("UPDATE PhotoJob j SET j.cancelled_at = :at WHERE j.id IN :ids")
+    int markCancelled(@Param("ids") Collection<Long> ids, @Param("at") Instant at);
+
+    @Modifying
+    @Query("UPDATE PhotoJob j SET j.attempts = j.attempts + 1 WHERE j.id = :id")
+    int incrementAttempts(@Param("id") long id);
+
+    @Modifying
+    @Query("UPDATE PhotoJob j SET j.photo_path = :path WHERE j.id = :id")
+    int recordPhotoPath(@Param("id") long id, @Param("path") String path);
+}
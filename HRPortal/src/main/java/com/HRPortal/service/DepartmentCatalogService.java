@@ -0,0 +1,110 @@
+package com.HRPortal.service;
+
+import com.HRPortal.dto.DepartmentNameDTO;
+import com.HRPortal.dto.DepartmentSeatsDTO;
+import com.HRPortal.repository.DepartmentRepo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Immutable in-memory snapshot of department names and seat counts. Reads are a single volatile
+// load; writes that can change seat counts call invalidate() and the next read reloads. The ETag is
+// the SHA-256 of both bodies as served, so it changes with any change of content and is the same on
+// every instance and after a restart.
+@Service
+public class DepartmentCatalogService {
+
+    public record Snapshot(List<DepartmentNameDTO> names, List<DepartmentSeatsDTO> seats, String etag) {
+    }
+
+    private final DepartmentRepo departmentRepo;
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter refreshes;
+
+    public DepartmentCatalogService(DepartmentRepo departmentRepo,
+                                    ObjectMapper objectMapper,
+                                    MeterRegistry registry,
+                                    @Value("${department.catalog.max-entries:10000}") int maxEntries) {
+        this.departmentRepo = departmentRepo;
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("department.catalog.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("department.catalog.requests").tag("result", "miss").register(registry);
+        this.refreshes = Counter.builder("department.catalog.refreshes").register(registry);
+    }
+
+    public Snapshot snapshot() {
+        Snapshot snapshot = current.get();
+        if (snapshot != null) {
+            hits.increment();
+            return snapshot;
+        }
+        misses.increment();
+        return refresh();
+    }
+
+    // Deferred to after commit when called inside a transaction, otherwise a reload could
+    // re-cache the seat counts that are about to change.
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict();
+                }
+            });
+        } else {
+            evict();
+        }
+    }
+
+    private void evict() {
+        generation.incrementAndGet();
+        current.set(null);
+    }
+
+    private Snapshot refresh() {
+        long loadedAt = generation.get();
+        List<DepartmentNameDTO> names = List.copyOf(departmentRepo.findAllNames());
+        List<DepartmentSeatsDTO> seats = List.copyOf(departmentRepo.findAllSeats());
+        Snapshot snapshot = new Snapshot(names, seats, etagOf(names, seats));
+        refreshes.increment();
+        if (names.size() > maxEntries) {
+            return snapshot;
+        }
+        // An invalidation that raced with the load must win, so drop what we just installed
+        if (current.compareAndSet(null, snapshot) && generation.get() != loadedAt) {
+            current.compareAndSet(snapshot, null);
+        }
+        return snapshot;
+    }
+
+    // JSON arrays delimit themselves, so the two bodies can be hashed one after the other
+    private String etagOf(List<DepartmentNameDTO> names, List<DepartmentSeatsDTO> seats) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(objectMapper.writeValueAsBytes(names));
+            digest.update(objectMapper.writeValueAsBytes(seats));
+            return "\"" + HexFormat.of().formatHex(digest.digest()) + "\"";
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.HRPortal.service;
+
+import com.HRPortal.dto.EmployeeBatchDTO;
+import com.HRPortal.dto.EmployeeBatchEntryDTO;
+import com.HRPortal.dto.EmployeeDTO;
+import com.HRPortal.repository.EmployeesRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Dashboard cards in one request: one IN query for all DTOs, and optionally each small thumbnail
+// inlined as a data URI instead of a separate /image request per card. Only thumbnails already
+// generated are inlined; missing ones are queued, so a batch never waits on image decoding.
+@Service
+public class EmployeeBatchService {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeBatchService.class);
+
+    @Autowired
+    private EmployeesRepo employeesRepo;
+    @Autowired
+    private PhotoVariantService photoVariants;
+
+    @Value("${employee.batch.max-ids:200}")
+    private int maxIds;
+
+    @Value("${employee.batch.inline-max-size:64}")
+    private int inlineMaxSize;
+
+    @Value("${employee.batch.inline-max-bytes:16384}")
+    private int inlineMaxBytes;
+
+    public EmployeeBatchDTO getBatch(List<Integer> ids, int thumbnailSize) {
+        if (ids == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids is required");
+        }
+        Set<Integer> unique = new LinkedHashSet<>(ids);
+        unique.remove(null);
+        if (unique.size() > maxIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxIds + " ids per batch");
+        }
+        if (thumbnailSize < 0 || thumbnailSize > inlineMaxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "thumbnail_size must be between 0 and " + inlineMaxSize);
+        }
+
+        Map<Integer, EmployeeDTO> byId = new HashMap<>();
+        if (!unique.isEmpty()) {
+            for (EmployeeDTO dto : employeesRepo.findDtoByEmployee_idIn(unique)) {
+                byId.put(dto.getEmployee_id(), dto);
+            }
+        }
+        List<EmployeeBatchEntryDTO> results = new ArrayList<>(unique.size());
+        for (int id : unique) {
+            EmployeeDTO dto = byId.get(id);
+            if (dto == null) {
+                results.add(new EmployeeBatchEntryDTO(id, HttpStatus.NOT_FOUND.value(), null, null));
+            } else {
+                String thumbnail = thumbnailSize > 0 ? inlineThumbnail(dto.getPhotograph_path(), thumbnailSize) : null;
+                results.add(new EmployeeBatchEntryDTO(id, HttpStatus.OK.value(), dto, thumbnail));
+            }
+        }
+        return new EmployeeBatchDTO(results, byId.size(), unique.size() - byId.size());
+    }
+
+    // Null when there is nothing small enough to inline yet; the card then falls back to photo_url
+    private String inlineThumbnail(String photoPath, int size) {
+        if (photoPath == null || photoPath.isEmpty()) {
+            return null;
+        }
+        try {
+            Optional<Path> variant = photoVariants.cachedVariant(photoPath, size);
+            if (variant.isEmpty() || Files.size(variant.get()) > inlineMaxBytes) {
+                return null;
+            }
+            MediaType type = MediaTypeFactory.getMediaType(variant.get().getFileName().toString())
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM);
+            return "data:" + type + ";base64," + Base64.getEncoder().encodeToString(Files.readAllBytes(variant.get()));
+        } catch (IOException e) {
+            logger.debug("No inline thumbnail for {}: {}", photoPath, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.HRPortal.service;
+
+import com.HRPortal.dto.EmployeeChangeDTO;
+import com.HRPortal.dto.EmployeeChangesDTO;
+import com.HRPortal.dto.EmployeeDTO;
+import com.HRPortal.repository.EmployeesRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Monotonic log of employee writes (the employee_change outbox), appended inside the writing transaction
+// so a change is logged if and only if it commits. Readers get deltas after a sequence number instead of
+// re-downloading the directory.
+//
+// Sequence numbers come from the one-row employee_change_counter table rather than an IDENTITY column:
+// the writer increments it just before commit and holds the row lock until the commit, so numbers commit
+// in order across every instance, a rollback gives its numbers back, and the committed log is always
+// 1..counter. A client that has read up to N therefore never misses a later commit of a number <= N.
+@Service
+public class EmployeeChangeLog {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeChangeLog.class);
+    public static final String OP_UPSERT = "upsert";
+    public static final String OP_DELETE = "delete";
+    private static final String INSERT_SQL = "INSERT INTO employee_change (seq, employee_id, changed_at) VALUES (?, ?, ?)";
+    private static final String COUNTER_SQL = "SELECT seq FROM employee_change_counter WHERE id = 1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EmployeesRepo employeesRepo;
+    @Autowired
+    private ApplicationEventPublisher events;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${employee.changes.max-limit:500}")
+    private int maxLimit;
+
+    @Value("${employee.changes.retention:P7D}")
+    private Duration retention;
+
+    // BEFORE_COMMIT keeps the counter lock short: writers queue on it only for their commit
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        append(List.of(event.employeeId()));
+    }
+
+    // Should run in the transaction that wrote the employees (bulk import calls it directly); without one
+    // the numbers and rows are written in a transaction of their own
+    public void append(List<Integer> employeeIds) {
+        if (employeeIds.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE employee_change_counter SET seq = seq + ? WHERE id = 1", employeeIds.size());
+            long last = jdbcTemplate.queryForObject(COUNTER_SQL, Long.class);
+            long first = last - employeeIds.size() + 1;
+            Timestamp now = Timestamp.from(Instant.now());
+            List<Object[]> rows = new ArrayList<>(employeeIds.size());
+            for (int i = 0; i < employeeIds.size(); i++) {
+                rows.add(new Object[] {first + i, employeeIds.get(i), now});
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    events.publishEvent(new EmployeeChangesCommittedEvent(last));
+                }
+            });
+        });
+    }
+
+    // Highest committed sequence number: every number up to it is in the log (or pruned)
+    public long head() {
+        return jdbcTemplate.queryForObject(COUNTER_SQL, Long.class);
+    }
+
+    public EmployeeChangesDTO changesSince(long since, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxLimit);
+        }
+        long head = head();
+        List<long[]> rows = jdbcTemplate.query(
+                "SELECT seq, employee_id FROM employee_change WHERE seq > ? AND seq <= ? ORDER BY seq LIMIT ?",
+                (rs, i) -> new long[] {rs.getLong(1), rs.getInt(2)}, since, head, limit + 1);
+        // Read after the page, so a prune by any instance before it was read is seen here
+        long prunedThrough = prunedThrough();
+        if (since < prunedThrough) {
+            throw new ResponseStatusException(HttpStatus.GONE,
+                    "Changes up to " + prunedThrough + " are no longer kept; reload /api/employee/get");
+        }
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+        if (rows.isEmpty()) {
+            return new EmployeeChangesDTO(List.of(), since, false);
+        }
+
+        // An employee written several times in this page is sent once, at its latest position
+        LinkedHashMap<Integer, Long> latest = new LinkedHashMap<>();
+        for (long[] row : rows) {
+            latest.remove((int) row[1]);
+            latest.put((int) row[1], row[0]);
+        }
+        Map<Integer, EmployeeDTO> current = new HashMap<>();
+        for (EmployeeDTO dto : employeesRepo.findDtoByEmployee_idIn(latest.keySet())) {
+            current.put(dto.getEmployee_id(), dto);
+        }
+        List<EmployeeChangeDTO> changes = new ArrayList<>(latest.size());
+        latest.forEach((employeeId, seq) -> {
+            EmployeeDTO dto = current.get(employeeId);
+            changes.add(new EmployeeChangeDTO(seq, employeeId, dto != null ? OP_UPSERT : OP_DELETE, dto));
+        });
+        return new EmployeeChangesDTO(changes, rows.get(rows.size() - 1)[0], hasMore);
+    }
+
+    // The newest row is always kept, so the oldest retained number still marks where pruning stopped
+    @Scheduled(fixedDelayString = "${employee.changes.prune-interval:PT1H}",
+            initialDelayString = "${employee.changes.prune-interval:PT1H}")
+    public void prune() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(retention));
+        int deleted = jdbcTemplate.update(
+                "DELETE FROM employee_change WHERE changed_at < ? AND seq < ?", cutoff, head());
+        if (deleted > 0) {
+            logger.info("Pruned {} employee changes older than {}", deleted, retention);
+        }
+    }
+
+    // Changes up to here may have been pruned; older cursors must reload the directory. Read from the table
+    // (one primary-key lookup) on every request, as any instance may have pruned since the last one.
+    private long prunedThrough() {
+        Long oldest = jdbcTemplate.queryForObject("SELECT MIN(seq) FROM employee_change", Long.class);
+        return oldest != null ? oldest - 1 : head();
+    }
+}
@@ -0,0 +1,206 @@
+package com.HRPortal.service;
+
+import com.HRPortal.dto.EmployeeChangesDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Live variant of /changes: each subscriber gets its backlog, then every committed change as an SSE
+// "changes" event whose id is the next since. One background thread reads the log after commits
+// (subscribers at the same position share one read) and queues the pages per subscriber; a pool of
+// sender threads writes each subscriber's queue in order. A client that falls queue-capacity pages
+// behind is disconnected rather than holding up the others; it resumes from the log with Last-Event-ID.
+// Commits on other instances are picked up by polling every poll-interval.
+@Service
+public class EmployeeChangeStream {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeChangeStream.class);
+
+    @Autowired
+    private EmployeeChangeLog changeLog;
+
+    @Value("${employee.changes.max-limit:500}")
+    private int pageSize;
+
+    @Value("${employee.changes.sse-timeout:PT30M}")
+    private Duration timeout;
+
+    @Value("${employee.changes.sse-queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${employee.changes.sse-senders:4}")
+    private int senderThreads;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final ExecutorService reader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "employee-changes-sse");
+        t.setDaemon(true);
+        return t;
+    });
+    private ExecutorService senders;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threads = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(senderThreads, r -> {
+            Thread t = new Thread(r, "employee-changes-sse-send-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public SseEmitter subscribe(long since) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, since, queueCapacity);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        wake();
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @EventListener
+    public void onChangesCommitted(EmployeeChangesCommittedEvent event) {
+        if (!subscribers.isEmpty()) {
+            wake();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${employee.changes.poll-interval:PT5S}")
+    public void poll() {
+        if (!subscribers.isEmpty()) {
+            wake();
+        }
+    }
+
+    // Wake-ups that arrive while a drain is queued are folded into it
+    private void wake() {
+        if (pending.compareAndSet(false, true)) {
+            reader.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        pending.set(false);
+        Map<Long, EmployeeChangesDTO> pages = new HashMap<>();
+        for (Subscriber subscriber : subscribers) {
+            try {
+                EmployeeChangesDTO page;
+                do {
+                    page = pages.computeIfAbsent(subscriber.since, since -> changeLog.changesSince(since, pageSize));
+                    if (page.getChanges().isEmpty()) {
+                        break;
+                    }
+                    if (!enqueue(subscriber, new Outgoing(SseEmitter.event()
+                            .id(String.valueOf(page.getNext_since()))
+                            .name("changes")
+                            .data(page, MediaType.APPLICATION_JSON), false))) {
+                        break;
+                    }
+                    subscriber.since = page.getNext_since();
+                } while (page.isHas_more());
+            } catch (ResponseStatusException e) {
+                // cursor older than the retained log: tell the client to reload, then hang up
+                subscribers.remove(subscriber);
+                enqueue(subscriber, new Outgoing(SseEmitter.event().name("reload").data(e.getReason()), true));
+            }
+        }
+    }
+
+    // False when the subscriber was too far behind and has been dropped
+    private boolean enqueue(Subscriber subscriber, Outgoing outgoing) {
+        if (!subscriber.queue.offer(outgoing)) {
+            logger.debug("Dropping change stream subscriber {} pages behind", queueCapacity);
+            subscribers.remove(subscriber);
+            subscriber.dropped = true;
+            subscriber.queue.clear();
+            subscriber.queue.offer(new Outgoing(null, true));
+        }
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> send(subscriber));
+        }
+        return !subscriber.dropped;
+    }
+
+    // Runs on a sender thread; only one at a time per subscriber, so events go out in order
+    private void send(Subscriber subscriber) {
+        try {
+            Outgoing outgoing;
+            while ((outgoing = subscriber.queue.poll()) != null) {
+                if (outgoing.event() != null) {
+                    subscriber.emitter.send(outgoing.event());
+                }
+                if (outgoing.last()) {
+                    subscriber.emitter.complete();
+                    return;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Dropping change stream subscriber: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.dropped = true;
+            subscriber.queue.clear();
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.sending.set(false);
+        }
+        // an event queued after the last poll but before sending was released
+        if (!subscriber.queue.isEmpty() && subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> send(subscriber));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reader.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private record Outgoing(SseEmitter.SseEventBuilder event, boolean last) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Outgoing> queue;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // only touched by the reader thread after subscribe
+        private volatile long since;
+        private volatile boolean dropped;
+
+        private Subscriber(SseEmitter emitter, long since, int queueCapacity) {
+            this.emitter = emitter;
+            this.since = since;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.HRPortal.service;
+
+// Published by EmployeesService after an employee is added, updated or deleted; listeners that
+// care about committed state use @TransactionalEventListener
+public record EmployeeChangedEvent(int employeeId) {
+}
@@ -0,0 +1,5 @@
+package com.HRPortal.service;
+
+// Published by EmployeeChangeLog after a transaction that appended change rows has committed
+public record EmployeeChangesCommittedEvent(long lastSeq) {
+}
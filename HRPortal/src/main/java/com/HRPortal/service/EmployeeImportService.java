@@ -0,0 +1,308 @@
+package com.HRPortal.service;
+
+import com.HRPortal.dto.EmployeeDTO;
+import com.HRPortal.dto.EmployeeImportReportDTO;
+import com.HRPortal.dto.ImportRowErrorDTO;
+import com.HRPortal.util.CsvRowReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+// Bulk onboarding: rows are parsed one at a time, validated, and written in JDBC batches of
+// employee.import.batch-size, each batch in its own transaction together with its seat reservations.
+@Service
+public class EmployeeImportService {
+    private static final String INSERT_SQL =
+            "INSERT INTO employees (first_name, last_name, email, title, department_id) VALUES (?, ?, ?, ?, ?)";
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final List<String> REQUIRED_COLUMNS = List.of("first_name", "last_name", "email");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private SeatReservationService seatReservation;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ApplicationEventPublisher events;
+    @Autowired
+    private EmployeeChangeLog changeLog;
+
+    @Value("${employee.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${employee.import.max-errors:1000}")
+    private int maxErrors;
+
+    public EmployeeImportReportDTO importCsv(InputStream in) throws IOException {
+        CsvRowReader csv = new CsvRowReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header is missing column: " + required);
+            }
+        }
+
+        Batch batch = new Batch();
+        int row = 0;
+        while (true) {
+            List<String> fields;
+            try {
+                fields = csv.next();
+            } catch (IOException e) {
+                batch.fail(row + 1, null, e.getMessage());
+                break;
+            }
+            if (fields == null) {
+                break;
+            }
+            row++;
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            EmployeeDTO dto = new EmployeeDTO();
+            dto.setFirst_name(field(fields, columns, "first_name"));
+            dto.setLast_name(field(fields, columns, "last_name"));
+            dto.setEmail(field(fields, columns, "email"));
+            dto.setTitle(field(fields, columns, "title"));
+            String departmentId = field(fields, columns, "department_id");
+            try {
+                dto.setDepartment_id(departmentId == null ? 0 : Integer.parseInt(departmentId));
+            } catch (NumberFormatException e) {
+                batch.fail(row, dto.getEmail(), "department_id must be a number");
+                continue;
+            }
+            batch.add(row, dto);
+        }
+        return batch.finish();
+    }
+
+    public EmployeeImportReportDTO importNdjson(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Batch batch = new Batch();
+        int row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                batch.add(row, objectMapper.readValue(line, EmployeeDTO.class));
+            } catch (JsonProcessingException e) {
+                batch.fail(row, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+        return batch.finish();
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String validate(EmployeeDTO dto) {
+        if (dto.getFirst_name() == null || dto.getFirst_name().isBlank()) {
+            return "first_name is required";
+        }
+        if (dto.getLast_name() == null || dto.getLast_name().isBlank()) {
+            return "last_name is required";
+        }
+        if (dto.getEmail() == null || !EMAIL_PATTERN.matcher(dto.getEmail()).matches()) {
+            return "email is missing or invalid";
+        }
+        return null;
+    }
+
+    private class Batch {
+        private final Set<String> seenEmails = new HashSet<>();
+        private final List<Integer> rows = new ArrayList<>();
+        private final List<EmployeeDTO> pending = new ArrayList<>();
+        private final List<ImportRowErrorDTO> errors = new ArrayList<>();
+        private int total;
+        private int imported;
+        private int rejected;
+
+        void add(int row, EmployeeDTO dto) {
+            total++;
+            String problem = validate(dto);
+            if (problem == null && !seenEmails.add(dto.getEmail().toLowerCase(Locale.ROOT))) {
+                problem = "Duplicate email in file";
+            }
+            if (problem != null) {
+                reject(row, dto.getEmail(), problem);
+                return;
+            }
+            rows.add(row);
+            pending.add(dto);
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void fail(int row, String email, String message) {
+            total++;
+            reject(row, email, message);
+        }
+
+        EmployeeImportReportDTO finish() {
+            flush();
+            return new EmployeeImportReportDTO(total, imported, rejected, errors, rejected > errors.size());
+        }
+
+        private void reject(int row, String email, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportRowErrorDTO(row, email, message));
+            }
+        }
+
+        // A unique email (or a department) changed by another writer fails the batch at the insert; it is
+        // then written again row by row, so only the conflicting rows are rejected
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Integer> all = IntStream.range(0, pending.size()).boxed().toList();
+            try {
+                commit(all);
+            } catch (DataIntegrityViolationException e) {
+                for (int i : all) {
+                    try {
+                        commit(List.of(i));
+                    } catch (DataAccessException rowFailure) {
+                        reject(rows.get(i), pending.get(i).getEmail(),
+                                "Row rejected: " + rowFailure.getMostSpecificCause().getMessage());
+                    }
+                }
+            } catch (DataAccessException e) {
+                for (int i : all) {
+                    reject(rows.get(i), pending.get(i).getEmail(), "Batch rejected: " + e.getMostSpecificCause().getMessage());
+                }
+            }
+            rows.clear();
+            pending.clear();
+        }
+
+        // Writes these indexes into pending in one transaction; the report only changes once it commits
+        private void commit(List<Integer> indexes) {
+            List<Integer> accepted = new ArrayList<>();
+            List<ImportRowErrorDTO> refused = new ArrayList<>();
+            transactionTemplate.executeWithoutResult(status -> write(indexes, accepted, refused));
+            for (ImportRowErrorDTO error : refused) {
+                reject(error.getRow(), error.getEmail(), error.getMessage());
+            }
+            imported += accepted.size();
+            if (!accepted.isEmpty()) {
+                events.publishEvent(new EmployeesImportedEvent(
+                        accepted.stream().map(i -> pending.get(i).getEmail()).toList()));
+            }
+        }
+
+        // Collects the indexes that pass the database checks into accepted and the others into refused,
+        // then inserts the accepted ones
+        private void write(List<Integer> indexes, List<Integer> accepted, List<ImportRowErrorDTO> refused) {
+            Set<String> existing = new HashSet<>();
+            List<String> emails = indexes.stream().map(i -> pending.get(i).getEmail()).toList();
+            for (String email : namedJdbcTemplate.queryForList(
+                    "SELECT email FROM employees WHERE email IN (:emails)", Map.of("emails", emails), String.class)) {
+                existing.add(email.toLowerCase(Locale.ROOT));
+            }
+
+            TreeMap<Integer, List<Integer>> byDepartment = new TreeMap<>();
+            for (int i : indexes) {
+                EmployeeDTO dto = pending.get(i);
+                if (existing.contains(dto.getEmail().toLowerCase(Locale.ROOT))) {
+                    refused.add(new ImportRowErrorDTO(rows.get(i), dto.getEmail(), "Email already exists"));
+                } else if (dto.getDepartment_id() == 0) {
+                    accepted.add(i);
+                } else {
+                    byDepartment.computeIfAbsent(dto.getDepartment_id(), k -> new ArrayList<>()).add(i);
+                }
+            }
+
+            if (!byDepartment.isEmpty()) {
+                Set<Integer> known = new HashSet<>(namedJdbcTemplate.queryForList(
+                        "SELECT department_id FROM department WHERE department_id IN (:ids)",
+                        Map.of("ids", byDepartment.keySet()), Integer.class));
+                // ascending department order, same as SeatReservationService.transfer
+                byDepartment.forEach((departmentId, members) -> {
+                    int granted = known.contains(departmentId)
+                            ? seatReservation.reserveUpTo(departmentId, members.size())
+                            : 0;
+                    for (int j = 0; j < members.size(); j++) {
+                        int i = members.get(j);
+                        if (j < granted) {
+                            accepted.add(i);
+                        } else {
+                            refused.add(new ImportRowErrorDTO(rows.get(i), pending.get(i).getEmail(), known.contains(departmentId)
+                                    ? "No seats left in the selected department"
+                                    : "Department not found"));
+                        }
+                    }
+                });
+            }
+
+            jdbcTemplate.batchUpdate(INSERT_SQL, accepted, batchSize, (ps, i) -> {
+                EmployeeDTO dto = pending.get(i);
+                ps.setString(1, dto.getFirst_name());
+                ps.setString(2, dto.getLast_name());
+                ps.setString(3, dto.getEmail());
+                ps.setString(4, dto.getTitle());
+                if (dto.getDepartment_id() != 0) {
+                    ps.setInt(5, dto.getDepartment_id());
+                } else {
+                    ps.setNull(5, Types.INTEGER);
+                }
+            });
+            if (!accepted.isEmpty()) {
+                // JDBC batches do not return the generated ids
+                changeLog.append(namedJdbcTemplate.queryForList(
+                        "SELECT employee_id FROM employees WHERE email IN (:emails) ORDER BY employee_id",
+                        Map.of("emails", accepted.stream().map(i -> pending.get(i).getEmail()).toList()), Integer.class));
+            }
+        }
+    }
+}
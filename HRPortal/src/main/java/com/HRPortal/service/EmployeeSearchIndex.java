@@ -0,0 +1,477 @@
+package com.HRPortal.service;
+
+import com.HRPortal.dto.EmployeeDTO;
+import com.HRPortal.repository.EmployeesRepo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// In-process search over first/last name, email, title and department name.
+// Every field is split into lowercase terms; each term keeps a sorted posting list of employee ids.
+// A query term matches indexed terms that are equal to it, start with it (up to MAX_PREFIX_TERMS of them),
+// or, for words of MIN_FUZZY_LENGTH letters and more, are one edit away. One-edit candidates come from a
+// map of single-character deletions (SymSpell), so typo lookups never scan the dictionary.
+// All query terms must match; results rank exact before prefix before typo matches.
+// Built from the database once the application is ready, then kept current from change events. A build
+// fills a fresh index without holding the lock and swaps it in, replaying the changes made meanwhile;
+// a change never replaces a newer version of the employee, nor brings a deleted one back. Rebuilt every
+// employee.search.rebuild-interval, which also drops the tombstones the old index gathered.
+@Service
+public class EmployeeSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeSearchIndex.class);
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_PREFIX_TERMS = 512;
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int TYPO = 2;
+
+    @Autowired
+    private EmployeesService employeesService;
+    @Autowired
+    private EmployeesRepo employeesRepo;
+
+    @Value("${employee.search.max-limit:100}")
+    private int maxLimit;
+
+    // Guards the current index's contents and changedDuringBuild; swapping the index takes it too
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Index index = new Index();
+    private List<Change> changedDuringBuild;
+    private volatile boolean ready;
+
+    public EmployeeSearchIndex(MeterRegistry meterRegistry) {
+        Gauge.builder("employee.search.documents", this, search -> search.index.documents.size()).register(meterRegistry);
+        Gauge.builder("employee.search.terms", this, search -> search.index.terms.size()).register(meterRegistry);
+        Gauge.builder("employee.search.tombstones", this, search -> search.index.deleted.size()).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void build() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // searches keep using the current index while the new one is read; the fresh index starts without
+        // tombstones and only gains those of deletions replayed from changedDuringBuild, i.e. made after
+        // its snapshot began, so the ones the current index gathered are dropped with it at the swap
+        Index fresh = new Index();
+        boolean built = false;
+        try {
+            employeesService.streamAll(fresh::apply);
+            built = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (built) {
+                    for (Change change : changedDuringBuild) {
+                        change.applyTo(fresh);
+                    }
+                    index = fresh;
+                    ready = true;
+                }
+                changedDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.info("Employee search index built: {} employees, {} terms in {} ms",
+                fresh.documents.size(), fresh.terms.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Scheduled(fixedDelayString = "${employee.search.rebuild-interval:PT6H}",
+            initialDelayString = "${employee.search.rebuild-interval:PT6H}")
+    public void rebuild() {
+        build();
+    }
+
+    // fallbackExecution: changes made outside a transaction are applied straight away
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        EmployeeDTO current = employeesRepo.findDtoByEmployee_id(event.employeeId()).orElse(null);
+        apply(List.of(new Change(event.employeeId(), current)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeesImported(EmployeesImportedEvent event) {
+        List<EmployeeDTO> imported = employeesRepo.findDtoByEmailIn(event.emails());
+        apply(imported.stream().map(dto -> new Change(dto.getEmployee_id(), dto)).toList());
+    }
+
+    private void apply(List<Change> changes) {
+        lock.writeLock().lock();
+        try {
+            for (Change change : changes) {
+                change.applyTo(index);
+            }
+            if (changedDuringBuild != null) {
+                changedDuringBuild.addAll(changes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<EmployeeDTO> search(String query, int limit) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + maxLimit);
+        }
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Query must contain letters or digits");
+        }
+        if (!ready) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Search index is still loading");
+        }
+
+        lock.readLock().lock();
+        try {
+            Index current = index;
+            List<List<Match>> perToken = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                List<Match> matches = current.match(token);
+                if (matches.isEmpty()) {
+                    return List.of();
+                }
+                perToken.add(matches);
+            }
+            // drive from the most selective query term and leapfrog through the others: a term that
+            // lacks the current id names the next id worth trying, so runs of misses cost one binary search
+            perToken.sort(Comparator.comparingLong(EmployeeSearchIndex::postingsSize));
+            List<Match> driver = perToken.get(0);
+            List<List<Match>> others = perToken.subList(1, perToken.size());
+
+            List<Hit> hits = new ArrayList<>();
+            Set<Integer> seen = new HashSet<>();
+            for (Match match : driver) {
+                Postings postings = match.postings;
+                int i = 0;
+                while (i < postings.size && hits.size() < limit) {
+                    int id = postings.ids[i];
+                    int next = id;
+                    for (List<Match> other : others) {
+                        next = Math.max(next, ceiling(other, id));
+                        if (next != id) {
+                            break;
+                        }
+                    }
+                    if (next == Integer.MAX_VALUE) {
+                        break;
+                    }
+                    if (next != id) {
+                        i = postings.ceilingIndex(i + 1, next);
+                        continue;
+                    }
+                    if (seen.add(id)) {
+                        int score = match.tier;
+                        for (List<Match> other : others) {
+                            score += bestTier(other, id);
+                        }
+                        hits.add(new Hit(score, current.documents.get(id)));
+                    }
+                    i++;
+                }
+                if (hits.size() >= limit) {
+                    break;
+                }
+            }
+            hits.sort(Comparator.comparingInt(Hit::score).thenComparingInt(hit -> hit.employee.getEmployee_id()));
+            return hits.stream().map(Hit::employee).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int bestTier(List<Match> matches, int id) {
+        // matches are ordered by tier, so the first hit is the best one
+        for (Match match : matches) {
+            if (match.postings.contains(id)) {
+                return match.tier;
+            }
+        }
+        return -1;
+    }
+
+    // Smallest id >= target in any of the matches, Integer.MAX_VALUE if there is none
+    private static int ceiling(List<Match> matches, int target) {
+        int result = Integer.MAX_VALUE;
+        for (Match match : matches) {
+            result = Math.min(result, match.postings.ceiling(target));
+        }
+        return result;
+    }
+
+    private static long postingsSize(List<Match> matches) {
+        long size = 0;
+        for (Match match : matches) {
+            size += match.postings.size;
+        }
+        return size;
+    }
+
+    private static Set<String> termsOf(EmployeeDTO dto) {
+        Set<String> result = new HashSet<>();
+        for (String field : new String[]{dto.getFirst_name(), dto.getLast_name(), dto.getEmail(), dto.getTitle(),
+                dto.getDepartment_name()}) {
+            result.addAll(tokenize(field));
+        }
+        return result;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isFuzzyCandidate(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isLetter(term.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> deletionsOf(String term) {
+        List<String> result = new ArrayList<>(term.length());
+        for (int i = 0; i < term.length(); i++) {
+            result.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return result;
+    }
+
+    private static void addAll(Set<String> target, Set<String> source) {
+        if (source != null) {
+            target.addAll(source);
+        }
+    }
+
+    // Optimal string alignment distance <= 1: one insertion, deletion, substitution or adjacent swap
+    static boolean withinOneEdit(String a, String b) {
+        int lengthDifference = a.length() - b.length();
+        if (Math.abs(lengthDifference) > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < a.length() && i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (lengthDifference > 0) {
+            return a.substring(i + 1).equals(b.substring(i));
+        }
+        if (lengthDifference < 0) {
+            return a.substring(i).equals(b.substring(i + 1));
+        }
+        if (i >= a.length() - 1) {
+            return true;
+        }
+        return a.substring(i + 1).equals(b.substring(i + 1))
+                || (a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                && a.substring(i + 2).equals(b.substring(i + 2)));
+    }
+
+    // The terms, typo candidates and documents of one build; callers hold the write lock to change it
+    private static final class Index {
+        private final TreeMap<String, Postings> terms = new TreeMap<>();
+        private final Map<String, Set<String>> deletions = new HashMap<>();
+        private final Map<Integer, EmployeeDTO> documents = new HashMap<>();
+        // ids are never reused, so a deleted employee stays deleted; kept only to turn away a change read
+        // before the delete but applied after it, so a rebuild starts the set afresh
+        private final Set<Integer> deleted = new HashSet<>();
+
+        // Skipped when this index already holds a newer version
+        void apply(EmployeeDTO dto) {
+            EmployeeDTO indexed = documents.get(dto.getEmployee_id());
+            if (deleted.contains(dto.getEmployee_id()) || (indexed != null && indexed.getVersion() > dto.getVersion())) {
+                return;
+            }
+            remove(dto.getEmployee_id());
+            add(dto);
+        }
+
+        void delete(int employeeId) {
+            remove(employeeId);
+            deleted.add(employeeId);
+        }
+
+        // Exact, then prefix, then one-edit terms for a single query token
+        private List<Match> match(String token) {
+            List<Match> matches = new ArrayList<>();
+            Postings exact = terms.get(token);
+            if (exact != null) {
+                matches.add(new Match(EXACT, exact));
+            }
+            int prefixTerms = 0;
+            for (Map.Entry<String, Postings> entry : terms.tailMap(token, false).entrySet()) {
+                if (!entry.getKey().startsWith(token) || ++prefixTerms > MAX_PREFIX_TERMS) {
+                    break;
+                }
+                matches.add(new Match(PREFIX, entry.getValue()));
+            }
+            if (isFuzzyCandidate(token)) {
+                Set<String> candidates = new HashSet<>();
+                addAll(candidates, deletions.get(token));
+                for (String deletion : deletionsOf(token)) {
+                    addAll(candidates, deletions.get(deletion));
+                }
+                for (String candidate : candidates) {
+                    if (!candidate.startsWith(token) && withinOneEdit(token, candidate)) {
+                        matches.add(new Match(TYPO, terms.get(candidate)));
+                    }
+                }
+            }
+            return matches;
+        }
+
+        private void add(EmployeeDTO dto) {
+            documents.put(dto.getEmployee_id(), dto);
+            for (String term : termsOf(dto)) {
+                Postings postings = terms.get(term);
+                if (postings == null) {
+                    postings = new Postings();
+                    terms.put(term, postings);
+                    if (isFuzzyCandidate(term)) {
+                        deletions.computeIfAbsent(term, k -> new HashSet<>(2)).add(term);
+                        for (String deletion : deletionsOf(term)) {
+                            deletions.computeIfAbsent(deletion, k -> new HashSet<>(2)).add(term);
+                        }
+                    }
+                }
+                postings.add(dto.getEmployee_id());
+            }
+        }
+
+        private void remove(int employeeId) {
+            EmployeeDTO old = documents.remove(employeeId);
+            if (old == null) {
+                return;
+            }
+            for (String term : termsOf(old)) {
+                Postings postings = terms.get(term);
+                if (postings != null && postings.remove(employeeId) && postings.size == 0) {
+                    terms.remove(term);
+                    if (isFuzzyCandidate(term)) {
+                        removeDeletion(term, term);
+                        for (String deletion : deletionsOf(term)) {
+                            removeDeletion(deletion, term);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void removeDeletion(String deletion, String term) {
+            Set<String> owners = deletions.get(deletion);
+            if (owners != null && owners.remove(term) && owners.isEmpty()) {
+                deletions.remove(deletion);
+            }
+        }
+    }
+
+    // A changed employee as read after the commit; null when it was deleted
+    private record Change(int employeeId, EmployeeDTO current) {
+        void applyTo(Index index) {
+            if (current == null) {
+                index.delete(employeeId);
+            } else {
+                index.apply(current);
+            }
+        }
+    }
+
+    private record Match(int tier, Postings postings) {
+    }
+
+    private record Hit(int score, EmployeeDTO employee) {
+    }
+
+    // Sorted, growable int array; ids mostly arrive in ascending order, so adds are usually appends
+    private static final class Postings {
+        private int[] ids = new int[2];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) {
+                    return;
+                }
+                insertAt(-at - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        private void insertAt(int index, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        int ceilingIndex(int from, int target) {
+            int at = Arrays.binarySearch(ids, from, size, target);
+            return at >= 0 ? at : -at - 1;
+        }
+
+        int ceiling(int target) {
+            int at = ceilingIndex(0, target);
+            return at < size ? ids[at] : Integer.MAX_VALUE;
+        }
+    }
+}
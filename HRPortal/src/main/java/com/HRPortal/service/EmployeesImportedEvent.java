@@ -0,0 +1,8 @@
+package com.HRPortal.service;
+
+import java.util.List;
+
+// Published by EmployeeImportService once a batch has committed; JDBC batches do not return ids, so
+// the rows are identified by their (unique) emails
+public record EmployeesImportedEvent(List<String> emails) {
+}
@@ -1,26 +1,144 @@
 package com.HRPortal.service;
 
 
+import com.HRPortal.dto.EmployeeDTO;
+import com.HRPortal.dto.FacetCountDTO;
 import com.HRPortal.entity.Employees;
 import com.HRPortal.entity.Department;
+import com.HRPortal.entity.PhotoStatus;
+import com.HRPortal.helper.StagedPhoto;
+import com.HRPortal.mapper.EmployeeMapper;
+import com.HRPortal.repository.EmployeeCursor;
+import com.HRPortal.repository.EmployeeFilter;
 import com.HRPortal.repository.EmployeesRepo;
 import com.HRPortal.repository.DepartmentRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 public class EmployeesService {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeesService.class);
+    public static final String SORT_BY_ID = "employee_id";
+    public static final String SORT_BY_LAST_NAME = "last_name";
+    public static final String FACET_DEPARTMENT = "department";
+    public static final String FACET_TITLE = "title";
+
+    private static final String STREAM_SQL =
+            "SELECT e.employee_id, e.first_name, e.last_name, e.email, e.title, e.photograph_path, " +
+            "e.department_id, d.name AS department_name, e.photo_status, e.version " +
+            "FROM employees e LEFT JOIN department d ON d.department_id = e.department_id " +
+            "ORDER BY e.employee_id";
+
     @Autowired
     private EmployeesRepo employeesRepo;
     @Autowired
     private DepartmentRepo departmentRepo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private SeatReservationService seatReservation;
+    @Autowired
+    private ApplicationEventPublisher events;
+    @Autowired
+    private PhotoJobService photoJobs;
+    @Autowired
+    private EmployeeMapper employeeMapper;
+
+    @Value("${employee.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${employee.stream.fetch-size:500}")
+    private int streamFetchSize;
+
+    // after is the next_cursor of the previous page, null for the first one
+    public List<EmployeeDTO> getPage(EmployeeFilter filter, String after, int size, String sort) {
+        if (size < 1 || size > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + maxPageSize);
+        }
+        EmployeeCursor cursor = after != null ? decodeCursor(after, sort) : null;
+        if (SORT_BY_ID.equals(sort)) {
+            return employeesRepo.findDtoPageAfter(filter, cursor != null ? cursor.employeeId() : 0, size);
+        }
+        if (SORT_BY_LAST_NAME.equals(sort)) {
+            return employeesRepo.findDtoPageByLastNameAfter(filter, cursor, size);
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort: " + sort);
+    }
+
+    // The cursor of the page after items, null when a short page shows it was the last
+    public String nextCursor(List<EmployeeDTO> items, int size, String sort) {
+        return items.size() == size ? EmployeeCursor.after(items.get(items.size() - 1), sort).encode() : null;
+    }
+
+    private static EmployeeCursor decodeCursor(String token, String sort) {
+        EmployeeCursor cursor;
+        try {
+            cursor = EmployeeCursor.decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed cursor: " + token);
+        }
+        if (!cursor.sort().equals(sort)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor belongs to the " + cursor.sort() + " sort");
+        }
+        return cursor;
+    }
 
-    public List<Employees> getAll() {
-        return employeesRepo.findAll();
+    // Each facet is counted with every filter except its own, so the other buckets stay visible for drill-down
+    public Map<String, List<FacetCountDTO>> getFacets(EmployeeFilter filter, List<String> facets) {
+        Map<String, List<FacetCountDTO>> result = new LinkedHashMap<>();
+        for (String facet : facets) {
+            switch (facet) {
+                case FACET_DEPARTMENT -> result.put(facet, employeesRepo.countByDepartment(filter.withoutDepartments()));
+                case FACET_TITLE -> result.put(facet, employeesRepo.countByTitle(filter.withoutTitles()));
+                default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported facet: " + facet);
+            }
+        }
+        return result;
+    }
+
+    // Hands rows to the sink one by one as the driver fetches them, so memory stays flat
+    // regardless of table size. The connection is held until the last row has been consumed.
+    public void streamAll(Consumer<EmployeeDTO> sink) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(STREAM_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamFetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> sink.accept(toDTO(rs)));
+    }
+
+    private static EmployeeDTO toDTO(ResultSet rs) throws SQLException {
+        String photoStatus = rs.getString("photo_status");
+        return new EmployeeDTO(
+                rs.getInt("employee_id"),
+                rs.getString("first_name"),
+                rs.getString("last_name"),
+                rs.getString("email"),
+                rs.getString("title"),
+                rs.getString("photograph_path"),
+                rs.getInt("department_id"),
+                rs.getString("department_name"),
+                photoStatus == null ? null : PhotoStatus.valueOf(photoStatus),
+                rs.getInt("version")
+        );
     }
 
     public String getDetails()
@@ -33,6 +151,20 @@ public class EmployeesService {
         return employeesRepo.findById(emp_id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employees not found"));
 
     }
+
+    public String getPhotographPath(int emp_id)
+    {
+        List<String> paths = employeesRepo.findPhotograph_pathByEmployee_id(emp_id);
+        if (paths.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Employees not found");
+        }
+        return paths.get(0);
+    }
+
+    public EmployeeDTO getEmployeeDTOByEmployee_id(int emp_id)
+    {
+        return employeesRepo.findDtoByEmployee_id(emp_id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employees not found"));
+    }
 //    public List<Employees> getEmployeeByName(String name)
 //    {
 //        List<Employees> employees = employeesRepo.findByFirst_name(name);
@@ -44,45 +176,134 @@ public class EmployeesService {
 //
 //    }
 
+    @Transactional
     public Employees addEmployees(Employees employees)
+    {
+        return addEmployees(employees, null);
+    }
+
+    // One unit of work: department read, seat, the INSERT and, with a photo, its staged file and job row.
+    // The photo itself is processed after commit; the employee is returned with photo_status PENDING.
+    @Transactional
+    public Employees addEmployees(Employees employees, MultipartFile photograph)
     {
         Department dept = employees.getDepartment();
         if (dept != null && dept.getDepartmentId() != 0) {
-            Department target = departmentRepo.findById((long)dept.getDepartmentId())
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Department not found"));
-            if (target.getSeats_left() != null && target.getSeats_left() == 0) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "No seats left in the selected department");
-            }
-            employees.setDepartment(target);
+            // read before the seat update: the update evicts the department cache region, the read can still hit it
+            employees.setDepartment(departmentRepo.findById((long)dept.getDepartmentId())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Department not found")));
+            seatReservation.reserve(dept.getDepartmentId());
+        }
+        PhotoJobService.Upload upload = null;
+        if (photograph != null && !photograph.isEmpty()) {
+            upload = photoJobs.stage(photograph);
+            employees.setPhoto_status(PhotoStatus.PENDING);
         }
-        return employeesRepo.save(employees);
+        Employees saved = employeesRepo.save(employees);
+        if (upload != null) {
+            photoJobs.submit(upload, saved.getEmployee_id());
+        }
+        events.publishEvent(new EmployeeChangedEvent(saved.getEmployee_id()));
+        return saved;
     }
+
+    @Transactional
     public Employees updateEmployees(int emp_id, Employees employees){
-//        Employees up_st = studentRepo.findById(roll).orElseThrow(() -> new RuntimeException("Employees not found"));
-//        up_st.setName(employees.getName());
-//        up_st.setRoll(employees.getRoll());
+        return updateEmployees(emp_id, employees, null);
+    }
 
-        return employeesRepo.findById(emp_id).map(st -> {
-            Department dept = employees.getDepartment();
-            if (dept != null && dept.getDepartmentId() != 0) {
-                Department target = departmentRepo.findById((long)dept.getDepartmentId())
-                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Department not found"));
-                if (target.getSeats_left() != null && target.getSeats_left() == 0) {
-                    throw new ResponseStatusException(HttpStatus.CONFLICT, "No seats left in the selected department");
-                }
-                st.setDepartment(target);
+    // One read and one dirty-checked UPDATE at commit. A null photograph keeps the current photo,
+    // an empty one removes it, anything else is queued and replaces the current photo once processed.
+    @Transactional
+    public Employees updateEmployees(int emp_id, Employees employees, MultipartFile photograph){
+        Employees st = employeesRepo.findById(emp_id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employees not found"));
+        Department dept = employees.getDepartment();
+        if (dept != null && dept.getDepartmentId() != 0) {
+            int currentId = st.getDepartment() != null ? st.getDepartment().getDepartmentId() : 0;
+            if (currentId != dept.getDepartmentId()) {
+                st.setDepartment(departmentRepo.findById((long)dept.getDepartmentId())
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Department not found")));
+                seatReservation.transfer(currentId, dept.getDepartmentId());
             }
-            st.setFirst_name(employees.getFirst_name());
-            st.setLast_name(employees.getLast_name());
-            st.setEmail(employees.getEmail());
-            st.setTitle(employees.getTitle());
-            st.setPhotograph_path(employees.getPhotograph_path());
-            return employeesRepo.save(st);
-        }).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employees not found"));
+        }
+        st.setFirst_name(employees.getFirst_name());
+        st.setLast_name(employees.getLast_name());
+        st.setEmail(employees.getEmail());
+        st.setTitle(employees.getTitle());
+        if (photograph != null && photograph.isEmpty()) {
+            if (st.getPhoto_status() == PhotoStatus.PENDING) {
+                photoJobs.cancel(emp_id);
+            }
+            // the file is left to PhotoGarbageCollector
+            st.setPhotograph_path(null);
+            st.setPhoto_status(null);
+        } else if (photograph != null) {
+            photoJobs.submit(photoJobs.stage(photograph), emp_id);
+            st.setPhoto_status(PhotoStatus.PENDING);
+        }
+        events.publishEvent(new EmployeeChangedEvent(emp_id));
+        return st;
+    }
+
+    // JSON merge patch: fields left null in changes are kept, fields named in cleared are removed
+    // (title, department_id). expectedVersion comes from If-Match and is checked on read; an edit
+    // committed between this read and our flush still fails on the @Version check at commit.
+    @Transactional
+    public Employees patchEmployees(int emp_id, Integer expectedVersion, EmployeeDTO changes, Set<String> cleared){
+        Employees st = employeesRepo.findById(emp_id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employees not found"));
+        if (expectedVersion != null && expectedVersion != st.getVersion()) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Employee was modified by someone else");
+        }
+        int currentId = st.getDepartment() != null ? st.getDepartment().getDepartmentId() : 0;
+        int targetId = cleared.contains("department_id") ? 0
+                : changes.getDepartment_id() != 0 ? changes.getDepartment_id() : currentId;
+        if (targetId != currentId) {
+            if (targetId == 0) {
+                st.setDepartment(null);
+                seatReservation.release(currentId);
+            } else {
+                st.setDepartment(departmentRepo.findById((long)targetId)
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Department not found")));
+                seatReservation.transfer(currentId, targetId);
+            }
+        }
+        // the department is already resolved; the mapper would otherwise attach a detached stub
+        changes.setDepartment_id(0);
+        employeeMapper.updateEntity(st, changes);
+        if (cleared.contains("title")) {
+            st.setTitle(null);
+        }
+        events.publishEvent(new EmployeeChangedEvent(emp_id));
+        return st;
+    }
+
+    // For photos streamed in before the transaction: the staged file is removed again if the employee
+    // is gone or the update rolls back, and otherwise queued like a multipart upload
+    @Transactional
+    public Employees queuePhoto(int emp_id, StagedPhoto staged){
+        PhotoJobService.Upload upload = photoJobs.adopt(staged);
+        Employees st = employeesRepo.findById(emp_id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employees not found"));
+        photoJobs.submit(upload, emp_id);
+        st.setPhoto_status(PhotoStatus.PENDING);
+        events.publishEvent(new EmployeeChangedEvent(emp_id));
+        return st;
     }
+
+    @Transactional
     public String deleteEmployees(int emp_id){
         return employeesRepo.findById(emp_id).map(st -> {
+            if (st.getPhoto_status() == PhotoStatus.PENDING) {
+                photoJobs.cancel(emp_id);
+            }
+            // the photo is left to PhotoGarbageCollector, which deletes it once no row has pointed at it for min-age
             employeesRepo.delete(st);
+            events.publishEvent(new EmployeeChangedEvent(emp_id));
+            if (st.getDepartment() != null) {
+                seatReservation.release(st.getDepartment().getDepartmentId());
+            }
             return st.toString();
         }).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Employees not found"));
     }
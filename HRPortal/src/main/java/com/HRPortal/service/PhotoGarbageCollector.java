@@ -0,0 +1,243 @@
+package com.HRPortal.service;
+
+import com.HRPortal.helper.BloomFilter;
+import com.HRPortal.helper.FileHelper;
+import com.HRPortal.helper.IoThrottle;
+import com.HRPortal.helper.PhotoStore;
+import com.HRPortal.helper.StoredPhoto;
+import com.HRPortal.repository.EmployeesRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Reconciles the photograph_path column with the PhotoStore. Neither side is loaded into memory:
+// the referenced names are streamed into a Bloom filter, the store listing is checked against it,
+// and the listed names go into a second filter that the column is read past again, a page at a time.
+// No cursor on the table stays open while the store is walked or queried.
+//  - an orphan (stored, referenced by no row) is deleted with its thumbnails once it is older than
+//    min-age, after a last exact check against the table; a false positive only keeps an orphan longer
+//  - a dangling reference (a row whose photo is not stored) is confirmed with exists() and reported
+// Every listed photo, table check and delete is paced by the I/O budget.
+@Service
+public class PhotoGarbageCollector {
+    private static final Logger logger = LoggerFactory.getLogger(PhotoGarbageCollector.class);
+
+    private static final String REFERENCES_SQL =
+            "SELECT employee_id, photograph_path FROM employees WHERE photograph_path IS NOT NULL";
+    private static final int MAX_LOGGED_DANGLING = 20;
+
+    @Autowired
+    private PhotoStore photoStore;
+    @Autowired
+    private FileHelper fileHelper;
+    @Autowired
+    private PhotoVariantService photoVariants;
+    @Autowired
+    private EmployeesRepo employeesRepo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${photo.gc.enabled:true}")
+    private boolean enabled;
+
+    // false only reports what would be deleted
+    @Value("${photo.gc.delete:true}")
+    private boolean deleteOrphans;
+
+    // a photo is stored just before the row pointing at it commits; younger photos are never orphans
+    @Value("${photo.gc.min-age:PT24H}")
+    private Duration minAge;
+
+    @Value("${photo.gc.max-ops-per-second:200}")
+    private int maxOpsPerSecond;
+
+    @Value("${photo.gc.max-deletes-per-run:10000}")
+    private int maxDeletesPerRun;
+
+    @Value("${photo.gc.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${employee.stream.fetch-size:500}")
+    private int fetchSize;
+
+    private Timer duration;
+    private Counter deletedCounter;
+    private Counter reclaimedCounter;
+    private final AtomicLong lastOrphans = new AtomicLong();
+    private final AtomicLong lastDangling = new AtomicLong();
+    private volatile Report lastReport;
+
+    public record Report(long photos, long references, long orphans, long deleted, long reclaimedBytes,
+                         long dangling, Duration elapsed) {
+    }
+
+    private record Reference(int employeeId, String photoPath) {
+    }
+
+    @PostConstruct
+    public void init() {
+        duration = Timer.builder("photo.gc.duration").register(meterRegistry);
+        deletedCounter = Counter.builder("photo.gc.deleted").register(meterRegistry);
+        reclaimedCounter = Counter.builder("photo.gc.reclaimed").baseUnit("bytes").register(meterRegistry);
+        meterRegistry.gauge("photo.gc.orphans", lastOrphans);
+        meterRegistry.gauge("photo.gc.dangling", lastDangling);
+    }
+
+    @Scheduled(fixedDelayString = "${photo.gc.interval:PT6H}",
+            initialDelayString = "${photo.gc.initial-delay:PT15M}")
+    public void collect() throws IOException, InterruptedException {
+        if (enabled) {
+            reconcile();
+        }
+    }
+
+    public Report lastReport() {
+        return lastReport;
+    }
+
+    public synchronized Report reconcile() throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        Instant cutoff = Instant.now().minus(minAge);
+        IoThrottle throttle = new IoThrottle(Long.MAX_VALUE, maxOpsPerSecond);
+
+        long references = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM employees WHERE photograph_path IS NOT NULL", Long.class);
+        BloomFilter referenced = new BloomFilter(references, falsePositiveRate);
+        try (Stream<Reference> rows = references()) {
+            rows.forEach(row -> {
+                String name = nameOf(row.photoPath());
+                if (name != null) {
+                    referenced.put(name);
+                }
+            });
+        }
+
+        // sized from the table, the store should hold about as many; orphans beyond that only raise the
+        // chance that a dangling reference goes unnoticed until the next run
+        BloomFilter stored = new BloomFilter(Math.max(references, 1000) * 2, falsePositiveRate);
+        long photos = 0;
+        long orphans = 0;
+        long deleted = 0;
+        long reclaimed = 0;
+        try (Stream<StoredPhoto> listing = photoStore.list()) {
+            for (Iterator<StoredPhoto> it = listing.iterator(); it.hasNext(); ) {
+                StoredPhoto photo = it.next();
+                throttle.acquire(0);
+                photos++;
+                stored.put(photo.name());
+                if (referenced.mightContain(photo.name()) || photo.modified().isAfter(cutoff)) {
+                    continue;
+                }
+                boolean deleting = deleteOrphans && deleted < maxDeletesPerRun;
+                if (deleting) {
+                    // rows written since the first pass are not in the filter
+                    throttle.acquire(0);
+                    if (employeesRepo.countByPhotograph_pathIn(FileHelper.storedPaths(photo.name())) > 0) {
+                        continue;
+                    }
+                }
+                orphans++;
+                if (deleting && delete(photo)) {
+                    deleted++;
+                    reclaimed += photo.size();
+                }
+            }
+        }
+
+        long dangling = 0;
+        List<Reference> page;
+        int after = 0;
+        do {
+            // the page is read and its cursor closed before the throttled exists() calls
+            page = referencesAfter(after);
+            for (Reference row : page) {
+                after = row.employeeId();
+                String name = nameOf(row.photoPath());
+                if (name != null && stored.mightContain(name)) {
+                    continue;
+                }
+                throttle.acquire(0);
+                if (name == null || !photoStore.exists(name)) {
+                    dangling++;
+                    if (dangling <= MAX_LOGGED_DANGLING) {
+                        logger.warn("Employee {} refers to a missing photo {}", row.employeeId(), row.photoPath());
+                    }
+                }
+            }
+        } while (page.size() == fetchSize);
+
+        Report report = new Report(photos, references, orphans, deleted, reclaimed, dangling,
+                Duration.ofNanos(System.nanoTime() - started));
+        duration.record(report.elapsed());
+        lastOrphans.set(orphans);
+        lastDangling.set(dangling);
+        lastReport = report;
+        logger.info("Photo reconciliation: {} photos, {} references, {} orphans ({} deleted, {} bytes reclaimed), "
+                        + "{} dangling references, in {}", photos, references, orphans, deleted, reclaimed, dangling,
+                report.elapsed());
+        return report;
+    }
+
+    private boolean delete(StoredPhoto photo) {
+        try {
+            fileHelper.deleteFile(photo.name());
+            photoVariants.deleteVariants(photo.name());
+            deletedCounter.increment();
+            reclaimedCounter.increment(photo.size());
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not delete orphaned photo {}: {}", photo.name(), e.getMessage());
+            return false;
+        }
+    }
+
+    // Null for a path that could never name a stored photo
+    private String nameOf(String photoPath) {
+        try {
+            return fileHelper.photoName(photoPath);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Forward-only and fetched in batches, like EmployeesService.streamAll(); the stream must be closed
+    // before anything slow is done with the rows
+    private Stream<Reference> references() {
+        return jdbcTemplate.queryForStream(con -> {
+            PreparedStatement ps = con.prepareStatement(REFERENCES_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, PhotoGarbageCollector::reference);
+    }
+
+    // The next fetchSize references in employee_id order, read in full
+    private List<Reference> referencesAfter(int employeeId) {
+        return jdbcTemplate.query(REFERENCES_SQL + " AND employee_id > ? ORDER BY employee_id LIMIT ?",
+                PhotoGarbageCollector::reference, employeeId, fetchSize);
+    }
+
+    private static Reference reference(ResultSet rs, int rowNum) throws SQLException {
+        return new Reference(rs.getInt("employee_id"), rs.getString("photograph_path"));
+    }
+}
@@ -0,0 +1,403 @@
+package com.HRPortal.service;
+
+import com.HRPortal.entity.Employees;
+import com.HRPortal.entity.PhotoJob;
+import com.HRPortal.entity.PhotoStatus;
+import com.HRPortal.helper.FileHelper;
+import com.HRPortal.helper.StagedPhoto;
+import com.HRPortal.repository.EmployeesRepo;
+import com.HRPortal.repository.PhotoJobRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Photo processing off the request thread. A write only stages the upload and records a photo_job row in
+// its own transaction, so it answers as soon as that commits. After commit the job goes to a bounded
+// worker pool that hashes the file into its content-addressed name, points the employee at it
+// (photo_status READY) and schedules the thumbnails. The replaced photo is left to PhotoGarbageCollector.
+//
+// The photo_job table is the durable queue: jobs the pool had no room for, and jobs interrupted by a
+// restart, are picked up by the sweeper. New uploads are refused with 503 once the backlog is full.
+// Staged files are on local disk, so each instance only sweeps the jobs it staged (its node), and a
+// job cancelled on another instance is only marked; its node discards the file and deletes the row. A
+// job records its content-addressed path before the staged file is moved, so a retry after a failed
+// finish still points the employee at the stored photo.
+@Service
+public class PhotoJobService {
+    private static final Logger logger = LoggerFactory.getLogger(PhotoJobService.class);
+
+    @Autowired
+    private PhotoJobRepo jobRepo;
+    @Autowired
+    private EmployeesRepo employeesRepo;
+    @Autowired
+    private FileHelper fileHelper;
+    @Autowired
+    private PhotoVariantService photoVariants;
+    @Autowired
+    private ApplicationEventPublisher events;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${photo.jobs.threads:2}")
+    private int threads;
+
+    @Value("${photo.jobs.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${photo.jobs.max-pending:1000}")
+    private int maxPending;
+
+    @Value("${photo.jobs.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${photo.jobs.retry-after:PT10S}")
+    private Duration retryAfter;
+
+    // Defaults to the host name; must be stable across restarts and unique among the instances
+    @Value("${photo.jobs.node:}")
+    private String node;
+
+    private ThreadPoolExecutor executor;
+    // ids handed to the pool and not finished yet, so the sweeper does not queue a job twice
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    // committed photo_job rows; re-read from the table on every sweep
+    private final AtomicInteger backlog = new AtomicInteger();
+    private Timer duration;
+    private Counter failed;
+    private Counter rejected;
+    private Counter deferred;
+
+    @PostConstruct
+    public void init() throws UnknownHostException {
+        if (node.isBlank()) {
+            node = InetAddress.getLocalHost().getHostName();
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        // A full queue leaves the job in the table for the sweeper
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "photo-jobs-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        duration = Timer.builder("photo.jobs.duration").register(meterRegistry);
+        failed = Counter.builder("photo.jobs.failed").register(meterRegistry);
+        rejected = Counter.builder("photo.jobs.rejected").register(meterRegistry);
+        deferred = Counter.builder("photo.jobs.deferred").register(meterRegistry);
+        meterRegistry.gauge("photo.jobs.backlog", backlog);
+        backlog.set(jobRepo.findIdsByNode(node).size());
+    }
+
+    // Called before an upload is read, so a full backlog costs the client a 503 rather than the transfer
+    public void checkCapacity() {
+        if (backlog.get() >= maxPending) {
+            rejected.increment();
+            throw new BacklogFullException(retryAfter);
+        }
+    }
+
+    // Must run in the caller's transaction: the staged file is removed again if it never commits
+    public Upload stage(MultipartFile photograph) {
+        checkCapacity();
+        try {
+            return adopt(fileHelper.stageFile(photograph));
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error saving employee photo", e);
+        }
+    }
+
+    // For uploads staged before the transaction began (raw PUT bodies)
+    public Upload adopt(StagedPhoto staged) {
+        Upload upload = new Upload(staged);
+        TransactionSynchronizationManager.registerSynchronization(upload);
+        return upload;
+    }
+
+    // Records the job in the caller's transaction; it is queued once that commits
+    public void submit(Upload upload, int employeeId) {
+        PhotoJob job = new PhotoJob();
+        job.setEmployee_id(employeeId);
+        job.setStaged_file(upload.staged.file().getFileName().toString());
+        job.setExtension(upload.staged.extension());
+        job.setNode(node);
+        job.setCreated_at(Instant.now());
+        upload.jobId = jobRepo.save(job).getId();
+    }
+
+    // Drops the employee's unfinished uploads in the caller's transaction (photo removed or employee deleted).
+    // Jobs of other instances are only marked cancelled: their staged files and backlog are not ours.
+    public void cancel(int employeeId) {
+        List<PhotoJob> own = new ArrayList<>();
+        List<Long> elsewhere = new ArrayList<>();
+        for (PhotoJob job : jobRepo.findByEmployee_id(employeeId)) {
+            if (job.getCancelled_at() != null) {
+                continue;
+            }
+            if (isOwn(job)) {
+                own.add(job);
+            } else {
+                elsewhere.add(job.getId());
+            }
+        }
+        if (!elsewhere.isEmpty()) {
+            jobRepo.markCancelled(elsewhere, Instant.now());
+        }
+        if (own.isEmpty()) {
+            return;
+        }
+        jobRepo.deleteAllInBatch(own);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                backlog.addAndGet(-own.size());
+                for (PhotoJob job : own) {
+                    discard(job);
+                }
+            }
+        });
+    }
+
+    // Same rule as PhotoJobRepo.findIdsByNode: rows from before jobs had a node belong to every instance
+    private boolean isOwn(PhotoJob job) {
+        return job.getNode().equals(node) || job.getNode().isEmpty();
+    }
+
+    // Thumbnails of a new photograph_path once the caller's transaction commits. Photos are never deleted
+    // here: one that lost its last reference may be taken up again by a concurrent upload of the same
+    // content whose row has not committed yet. PhotoGarbageCollector removes orphans after min-age instead.
+    private void scheduleVariantsAfterCommit(String photoPath) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                photoVariants.scheduleVariants(photoPath);
+            }
+        });
+    }
+
+    public int backlog() {
+        return backlog.get();
+    }
+
+    // True once every committed job of this instance has been processed
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (queued.isEmpty() && jobRepo.findIdsByNode(node).isEmpty()) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() {
+        sweep();
+    }
+
+    @Scheduled(fixedDelayString = "${photo.jobs.sweep-interval:PT30S}",
+            initialDelayString = "${photo.jobs.sweep-interval:PT30S}")
+    public void sweep() {
+        List<Long> ids = jobRepo.findIdsByNode(node);
+        backlog.set(ids.size());
+        for (Long id : ids) {
+            if (!enqueue(id)) {
+                break;
+            }
+        }
+    }
+
+    private boolean enqueue(long jobId) {
+        if (!queued.add(jobId)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> process(jobId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            queued.remove(jobId);
+            deferred.increment();
+            return false;
+        }
+    }
+
+    private void process(long jobId) {
+        long started = System.nanoTime();
+        try {
+            PhotoJob job = jobRepo.findById(jobId).orElse(null);
+            if (job == null) {
+                // cancelled, or finished by an earlier run
+                return;
+            }
+            if (job.getCancelled_at() != null) {
+                // cancelled on another instance: the staged file is on this one
+                discard(job);
+                if (transactionTemplate.execute(status -> jobRepo.deleteCancelled(jobId)) > 0) {
+                    backlog.decrementAndGet();
+                }
+                return;
+            }
+            String photoPath = job.getPhoto_path();
+            try {
+                StagedPhoto staged = fileHelper.stagedPhoto(job.getStaged_file(), job.getExtension());
+                if (photoPath == null) {
+                    String hashed = fileHelper.photoPathOf(staged);
+                    transactionTemplate.executeWithoutResult(status -> jobRepo.recordPhotoPath(jobId, hashed));
+                    photoPath = hashed;
+                }
+                // a no-op when an earlier run moved the file already
+                fileHelper.promote(staged, photoPath);
+            } catch (NoSuchFileException e) {
+                logger.warn("Staged photo for employee {} is gone, marking it failed", job.getEmployee_id());
+                photoPath = null;
+            } catch (IOException e) {
+                if (job.getAttempts() + 1 < maxAttempts) {
+                    logger.warn("Photo job {} failed, will retry: {}", jobId, e.getMessage());
+                    transactionTemplate.executeWithoutResult(status -> jobRepo.incrementAttempts(jobId));
+                    return;
+                }
+                logger.warn("Photo job {} failed {} times, giving up: {}", jobId, maxAttempts, e.getMessage());
+                discard(job);
+                photoPath = null;
+            }
+            finish(job, photoPath);
+        } catch (RuntimeException e) {
+            // the row stays with its photo_path, so the sweeper retries without the staged file
+            logger.warn("Photo job {} failed: {}", jobId, e.getMessage());
+        } finally {
+            queued.remove(jobId);
+            duration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // A null photoPath marks the upload FAILED and keeps the previous photo. Concurrent edits of the
+    // employee only bump the version, so the short transaction is simply retried.
+    private void finish(PhotoJob job, String photoPath) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Boolean done = transactionTemplate.execute(status -> applyResult(job, photoPath));
+                if (Boolean.TRUE.equals(done)) {
+                    backlog.decrementAndGet();
+                    if (photoPath == null) {
+                        failed.increment();
+                    }
+                }
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private boolean applyResult(PhotoJob job, String photoPath) {
+        // a promoted photo that ends up unreferenced is left to PhotoGarbageCollector
+        if (jobRepo.deleteJob(job.getId()) == 0) {
+            // cancelled while it ran; a row marked by another instance is cleaned up by the next sweep
+            return false;
+        }
+        Employees employee = employeesRepo.findById(job.getEmployee_id()).orElse(null);
+        if (employee == null || jobRepo.existsNewer(job.getEmployee_id(), job.getId())) {
+            // superseded by a newer upload, which owns photo_status
+            return true;
+        }
+        if (photoPath != null) {
+            scheduleVariantsAfterCommit(photoPath);
+            employee.setPhotograph_path(photoPath);
+        }
+        employee.setPhoto_status(photoPath != null ? PhotoStatus.READY : PhotoStatus.FAILED);
+        events.publishEvent(new EmployeeChangedEvent(employee.getEmployee_id()));
+        return true;
+    }
+
+    private void discard(PhotoJob job) {
+        try {
+            fileHelper.discard(fileHelper.stagedPhoto(job.getStaged_file(), job.getExtension()));
+        } catch (IOException e) {
+            logger.warn("Could not discard staged photo of job {}: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    // Jobs are persisted, so anything still queued simply runs after the next start
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    // A staged upload within a write transaction: queued after commit, deleted after rollback
+    public final class Upload implements TransactionSynchronization {
+        private final StagedPhoto staged;
+        private Long jobId;
+
+        private Upload(StagedPhoto staged) {
+            this.staged = staged;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED && jobId != null) {
+                backlog.incrementAndGet();
+                enqueue(jobId);
+            } else {
+                fileHelper.discard(staged);
+            }
+        }
+    }
+
+    static final class BacklogFullException extends ResponseStatusException {
+        private final Duration retryAfter;
+
+        BacklogFullException(Duration retryAfter) {
+            super(HttpStatus.SERVICE_UNAVAILABLE, "Photo processing is busy, retry later");
+            this.retryAfter = retryAfter;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter.toSeconds()));
+            return headers;
+        }
+    }
+}
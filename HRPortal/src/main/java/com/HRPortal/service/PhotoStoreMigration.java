@@ -0,0 +1,96 @@
+package com.HRPortal.service;
+
+import com.HRPortal.helper.IoThrottle;
+import com.HRPortal.helper.LocalPhotoStore;
+import com.HRPortal.helper.PhotoStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// One-shot move of existing photos into the configured PhotoStore: from the old flat directory into
+// its sharded layout, or from the local directory into an S3 bucket. Paced to a byte and a file rate so
+// it can run next to live traffic; photograph_path values are store names and do not change.
+//
+// Run the application with --photo.migration.run=true: it migrates, logs a summary and exits (status 1
+// if any photo could not be moved). It is safe to run again; moved photos are simply not found twice.
+@Service
+public class PhotoStoreMigration implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(PhotoStoreMigration.class);
+
+    @Autowired
+    private PhotoStore photoStore;
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${file.employee-photos-dir}")
+    private String photosDir;
+
+    @Value("${photo.migration.run:false}")
+    private boolean runOnStartup;
+
+    @Value("${photo.migration.max-bytes-per-second:20971520}")
+    private long maxBytesPerSecond;
+
+    @Value("${photo.migration.max-files-per-second:200}")
+    private int maxFilesPerSecond;
+
+    public record Report(int moved, int failed, long bytes, Duration elapsed) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!runOnStartup) {
+            return;
+        }
+        Report report = migrate(new LocalPhotoStore(Paths.get(photosDir)), photoStore);
+        System.exit(SpringApplication.exit(context, () -> report.failed() == 0 ? 0 : 1));
+    }
+
+    public Report migrate(LocalPhotoStore source, PhotoStore target) throws IOException, InterruptedException {
+        // within the same directory only the flat files are left to move; any other target takes everything
+        boolean sameDirectory = target instanceof LocalPhotoStore local
+                && local.root().toAbsolutePath().equals(source.root().toAbsolutePath());
+        IoThrottle throttle = new IoThrottle(maxBytesPerSecond, maxFilesPerSecond);
+        long started = System.nanoTime();
+        int moved = 0;
+        int failed = 0;
+        long bytes = 0;
+        try (Stream<String> names = sameDirectory ? source.flatNames() : source.names()) {
+            for (Iterator<String> it = names.iterator(); it.hasNext(); ) {
+                String name = it.next();
+                try {
+                    Path file = source.localFile(name);
+                    long size = Files.size(file);
+                    throttle.acquire(size);
+                    target.put(name, file);
+                    moved++;
+                    bytes += size;
+                    if (moved % 1000 == 0) {
+                        logger.info("Photo migration: {} photos, {} bytes moved", moved, bytes);
+                    }
+                } catch (IOException e) {
+                    failed++;
+                    logger.warn("Photo migration could not move {}: {}", name, e.getMessage());
+                }
+            }
+        }
+        Report report = new Report(moved, failed, bytes, Duration.ofNanos(System.nanoTime() - started));
+        logger.info("Photo migration finished: {} photos ({} bytes) moved, {} failed, in {}",
+                report.moved(), report.bytes(), report.failed(), report.elapsed());
+        return report;
+    }
+}
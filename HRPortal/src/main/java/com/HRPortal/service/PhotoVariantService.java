@@ -0,0 +1,285 @@
+package com.HRPortal.service;
+
+import com.HRPortal.helper.FileHelper;
+import com.HRPortal.helper.LocalPhotoStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Downscaled copies of employee photos (e.g. 64/256/1024 px on the longest side). Variants are
+// generated in a bounded background pool after upload and lazily on first request, then cached on disk.
+// Dimensions are read from the header before decoding: anything over max-pixels is treated like a
+// non-image, and both get an on-disk marker so they are not read again. At most on-demand-limit
+// requests generate at once; the rest wait up to on-demand-wait, then get a 503 while it is queued.
+@Service
+public class PhotoVariantService {
+    private static final Logger logger = LoggerFactory.getLogger(PhotoVariantService.class);
+
+    private final FileHelper fileHelper;
+    private final Path variantsDir;
+    private final int[] sizes;
+    private final long maxPixels;
+    private final Semaphore onDemand;
+    private final Duration onDemandWait;
+    private final ThreadPoolExecutor executor;
+    private final Counter generated;
+    private final Counter dropped;
+    private final Counter undecodable;
+
+    public PhotoVariantService(FileHelper fileHelper,
+                               MeterRegistry registry,
+                               @Value("${file.employee-photo-variants-dir:uploads/employee_photos/variants}") String variantsDir,
+                               @Value("${photo.variant.sizes:64,256,1024}") int[] sizes,
+                               @Value("${photo.variant.threads:2}") int threads,
+                               @Value("${photo.variant.queue-capacity:100}") int queueCapacity,
+                               @Value("${photo.variant.max-pixels:40000000}") long maxPixels,
+                               @Value("${photo.variant.on-demand-limit:4}") int onDemandLimit,
+                               @Value("${photo.variant.on-demand-wait:PT2S}") Duration onDemandWait) throws IOException {
+        this.fileHelper = fileHelper;
+        this.variantsDir = Files.createDirectories(Paths.get(variantsDir));
+        this.sizes = Arrays.stream(sizes).sorted().toArray();
+        this.maxPixels = maxPixels;
+        this.onDemand = new Semaphore(onDemandLimit);
+        this.onDemandWait = onDemandWait;
+        this.generated = Counter.builder("photo.variants.generated").register(registry);
+        this.dropped = Counter.builder("photo.variants.dropped").register(registry);
+        this.undecodable = Counter.builder("photo.variants.undecodable").register(registry);
+        AtomicInteger threadCount = new AtomicInteger();
+        // A full queue drops the job: the variant is then generated on its first request instead
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "photo-variants-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                (r, pool) -> dropped.increment());
+    }
+
+    public void scheduleVariants(String photoPath) {
+        if (photoPath == null) {
+            return;
+        }
+        executor.execute(() -> {
+            for (int size : sizes) {
+                try {
+                    if (generate(photoPath, size) == null) {
+                        return;
+                    }
+                } catch (IOException e) {
+                    logger.warn("Error generating {}px variant of {}: {}", size, photoPath, e.getMessage());
+                    return;
+                }
+            }
+        });
+    }
+
+    // The smallest configured size that still covers the requested one
+    public int resolveSize(int requested) {
+        for (int size : sizes) {
+            if (size >= requested) {
+                return size;
+            }
+        }
+        return sizes[sizes.length - 1];
+    }
+
+    // Empty when the original is not a decodable image; callers then serve the original
+    public Optional<Path> loadVariant(String photoPath, int requestedSize) throws IOException {
+        int size = resolveSize(requestedSize);
+        Path target = variantPath(photoPath, size);
+        if (Files.exists(target)) {
+            return Optional.of(target);
+        }
+        if (Files.exists(undecodablePath(photoPath))) {
+            return Optional.empty();
+        }
+        try {
+            if (!onDemand.tryAcquire(onDemandWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                scheduleVariants(photoPath);
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Thumbnail is being generated");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting to generate a thumbnail", e);
+        }
+        try {
+            return Optional.ofNullable(generate(photoPath, size));
+        } finally {
+            onDemand.release();
+        }
+    }
+
+    // Only a variant already on disk; a missing one is queued for the background pool instead
+    public Optional<Path> cachedVariant(String photoPath, int requestedSize) {
+        Path target = variantPath(photoPath, resolveSize(requestedSize));
+        if (Files.exists(target)) {
+            return Optional.of(target);
+        }
+        if (!Files.exists(undecodablePath(photoPath))) {
+            scheduleVariants(photoPath);
+        }
+        return Optional.empty();
+    }
+
+    // True once the background pool has nothing queued or running
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (executor.getQueue().isEmpty() && executor.getActiveCount() == 0) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+
+    public void deleteVariants(String photoPath) throws IOException {
+        for (int size : sizes) {
+            Files.deleteIfExists(variantPath(photoPath, size));
+        }
+        Files.deleteIfExists(undecodablePath(photoPath));
+    }
+
+    public Path variantPath(String photoPath, int size) {
+        // sharded like the originals, so the directory stays small however many photos there are
+        return LocalPhotoStore.shardedPath(variantsDir, baseName(photoPath) + "_" + size + "." + formatFor(photoPath));
+    }
+
+    // Empty marker for an original that is not an image or is too large to decode
+    private Path undecodablePath(String photoPath) {
+        return LocalPhotoStore.shardedPath(variantsDir, baseName(photoPath) + ".undecodable");
+    }
+
+    private static String baseName(String photoPath) {
+        String name = photoPath.substring(photoPath.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        return dot == -1 ? name : name.substring(0, dot);
+    }
+
+    private Path generate(String photoPath, int size) throws IOException {
+        Path target = variantPath(photoPath, size);
+        if (Files.exists(target)) {
+            return target;
+        }
+        Path marker = undecodablePath(photoPath);
+        if (Files.exists(marker)) {
+            return null;
+        }
+        BufferedImage original = decode(photoPath);
+        if (original == null) {
+            Files.createDirectories(marker.getParent());
+            try {
+                Files.createFile(marker);
+                undecodable.increment();
+            } catch (FileAlreadyExistsException e) {
+                // another request got there first
+            }
+            return null;
+        }
+        String format = formatFor(target.getFileName().toString());
+        BufferedImage scaled = scale(original, size, "jpg".equals(format));
+        // Concurrent generators of the same variant each write a temp file; the rename makes the last one win
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "variant-", ".tmp");
+        try {
+            ImageIO.write(scaled, format, temp.toFile());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        generated.increment();
+        return target;
+    }
+
+    // Null for anything ImageIO cannot read and for images over max-pixels, whose size is known from
+    // the header before any pixel is allocated. A truncated file ends in a plain IOException, and some
+    // malformed images make the readers throw RuntimeExceptions; both count as undecodable, while a
+    // failure to open the file does not.
+    private BufferedImage decode(String photoPath) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(fileHelper.resolvePhotoFile(photoPath).toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : Collections.emptyIterator();
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    logger.warn("Not decoding {}: {} pixels is over the limit of {}", photoPath, pixels, maxPixels);
+                    return null;
+                }
+                return reader.read(0);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Not decoding {}: {}", photoPath, e.toString());
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves repeatedly before the final bilinear step, which keeps quality close to bicubic
+    // without its cost on large phone photos. Never upscales.
+    private static BufferedImage scale(BufferedImage source, int maxSide, boolean opaque) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = Math.min(1.0, (double) maxSide / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+        int type = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+
+        BufferedImage current = source;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(current, 0, 0, width, height, null);
+            g.dispose();
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static String formatFor(String fileName) {
+        String lower = fileName.toLowerCase();
+        return lower.endsWith(".jpg") || lower.endsWith(".jpeg") ? "jpg" : "png";
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
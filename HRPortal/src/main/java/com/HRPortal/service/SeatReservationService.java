@@ -0,0 +1,68 @@
+package com.HRPortal.service;
+
+import com.HRPortal.dto.DepartmentSeatsDTO;
+import com.HRPortal.repository.DepartmentRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+@Service
+public class SeatReservationService {
+    @Autowired
+    private DepartmentRepo departmentRepo;
+    @Autowired
+    private DepartmentCatalogService departmentCatalog;
+
+    @Transactional
+    public void reserve(int departmentId) {
+        if (departmentRepo.reserveSeat(departmentId) == 0) {
+            if (!departmentRepo.existsById((long) departmentId)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Department not found");
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "No seats left in the selected department");
+        }
+        departmentCatalog.invalidate();
+    }
+
+    // Takes as many of the requested seats as are still free and returns how many were granted
+    @Transactional
+    public int reserveUpTo(int departmentId, int seats) {
+        while (seats > 0) {
+            if (departmentRepo.reserveSeats(departmentId, seats) > 0) {
+                departmentCatalog.invalidate();
+                return seats;
+            }
+            DepartmentSeatsDTO current = departmentRepo.findSeatsById(departmentId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Department not found"));
+            seats = Math.min(seats, current.getSeats_left() != null ? current.getSeats_left() : seats);
+        }
+        return 0;
+    }
+
+    @Transactional
+    public void release(int departmentId) {
+        if (departmentRepo.releaseSeat(departmentId) > 0) {
+            departmentCatalog.invalidate();
+        }
+    }
+
+    // Rows are always locked in ascending id order so opposite transfers cannot deadlock;
+    // if the reservation fails the surrounding transaction rolls the release back.
+    @Transactional
+    public void transfer(int fromDepartmentId, int toDepartmentId) {
+        if (fromDepartmentId == toDepartmentId) {
+            return;
+        }
+        if (fromDepartmentId == 0) {
+            reserve(toDepartmentId);
+        } else if (fromDepartmentId < toDepartmentId) {
+            release(fromDepartmentId);
+            reserve(toDepartmentId);
+        } else {
+            reserve(toDepartmentId);
+            release(fromDepartmentId);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+-- node: the instance whose local incoming directory holds the staged file, so each instance only sweeps
+-- its own jobs. Rows queued before this version have '' and are taken by whichever instance sweeps first.
+-- photo_path: the content-addressed name, recorded before the staged file is moved into the store, so a
+-- retry after a failed finish does not need the staged file again. photo_job is small, so the ALTERs are brief.
+
+alter table photo_job add column node varchar(255) not null default '';
+alter table photo_job add column photo_path varchar(500);
+create index idx_photo_job_node on photo_job (node, id);
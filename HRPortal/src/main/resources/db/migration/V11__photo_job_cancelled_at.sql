@@ -0,0 +1,4 @@
+-- cancelled_at: set when an instance cancels a job staged on another one. That row stays until the
+-- owning node's sweep discards the staged file from its own disk and deletes it.
+
+alter table photo_job add column cancelled_at datetime(6);
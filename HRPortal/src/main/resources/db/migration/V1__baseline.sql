@@ -0,0 +1,31 @@
+-- The schema before the migrations: what spring.jpa.hibernate.ddl-auto=update made of the Employees and
+-- Department entities of the last release, Hibernate's constraint names included. A database that has
+-- these tables but no schema_history is baselined at this version, so everything added since is in V2
+-- and later; a fresh database is built from here.
+
+create table department (
+    capacity integer,
+    department_id integer not null auto_increment,
+    seats_left integer,
+    name varchar(255),
+    primary key (department_id)
+) engine=InnoDB;
+
+create table employees (
+    department_id integer,
+    employee_id integer not null auto_increment,
+    photograph_path varchar(500),
+    email varchar(255) not null,
+    first_name varchar(255),
+    last_name varchar(255),
+    title varchar(255),
+    primary key (employee_id)
+) engine=InnoDB;
+
+alter table employees
+    add constraint UKj9xgmd0ya5jmus09o0b8pqrpb unique (email);
+
+alter table employees
+    add constraint FK8if1byloc650qvkaxabyjveap
+    foreign key (department_id)
+    references department (department_id);
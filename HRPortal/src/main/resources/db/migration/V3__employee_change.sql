@@ -0,0 +1,9 @@
+-- Change log behind /api/employee/changes (EmployeeChangeLog), pruned by changed_at
+
+create table employee_change (
+    employee_id integer not null,
+    changed_at datetime(6) not null,
+    seq bigint not null,
+    primary key (seq),
+    index idx_employee_change_changed_at (changed_at)
+) engine=InnoDB;
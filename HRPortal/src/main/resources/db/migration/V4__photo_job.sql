@@ -0,0 +1,12 @@
+-- Durable queue of staged photo uploads (PhotoJobService)
+
+create table photo_job (
+    attempts integer not null,
+    employee_id integer not null,
+    created_at datetime(6) not null,
+    id bigint not null auto_increment,
+    extension varchar(16) not null,
+    staged_file varchar(255) not null,
+    primary key (id),
+    index idx_photo_job_employee (employee_id)
+) engine=InnoDB;
@@ -0,0 +1,8 @@
+-- seats_left is only changed by the guarded updates in DepartmentRepo. Rows written around them are
+-- clamped first; the update can run again if the ALTER fails, so the version stays retryable. department
+-- is small, so the table copy a CHECK constraint needs on MySQL (8.0.16 or later, like Hibernate 6) is brief.
+
+update department set seats_left = 0 where seats_left < 0;
+
+alter table department
+    add constraint ck_department_seats_left check (seats_left >= 0);
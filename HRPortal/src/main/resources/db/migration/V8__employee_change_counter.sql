@@ -0,0 +1,8 @@
+-- Next employee_change sequence number, shared by every instance (EmployeeChangeLog). A writer
+-- increments the single row and holds its lock until it commits, so numbers commit in order.
+
+create table employee_change_counter (
+    id integer not null,
+    seq bigint not null,
+    primary key (id)
+) engine=InnoDB;
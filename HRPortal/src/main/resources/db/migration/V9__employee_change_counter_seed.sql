@@ -0,0 +1,3 @@
+-- Continues from the numbers already logged; a separate version, as V8's table must exist first
+
+insert into employee_change_counter (id, seq) select 1, coalesce(max(seq), 0) from employee_change;
@@ -0,0 +1,6 @@
+-- Same schema as mysql/V2__employee_version_and_photo_status.sql, without MySQL's ALTER TABLE options
+
+alter table employees add (
+    version integer default 0 not null,
+    photo_status enum ('FAILED','PENDING','READY')
+);
@@ -0,0 +1,5 @@
+-- Same schema as mysql/V5__employee_listing_indexes.sql, without MySQL's online ALTER TABLE options
+
+create index idx_employees_department_last_name on employees (department_id, last_name, employee_id);
+create index idx_employees_last_name on employees (last_name, employee_id);
+create index idx_employees_title on employees (title, department_id);
@@ -0,0 +1,4 @@
+-- Same schema as mysql/V6__listing_and_photo_indexes.sql, without MySQL's online ALTER TABLE options
+
+create index idx_employees_title_last_name on employees (title, last_name, employee_id);
+create index idx_employees_photograph_path on employees (photograph_path);
@@ -0,0 +1,6 @@
+-- Optimistic-lock version (ETag / If-Match) and the photo processing state. One statement, so a failure
+-- leaves nothing behind; ALGORITHM=INSTANT only changes metadata, however large employees is.
+alter table employees
+    add column version integer default 0 not null,
+    add column photo_status enum ('FAILED','PENDING','READY'),
+    algorithm=instant;
@@ -0,0 +1,13 @@
+-- Listing filters and keyset orders (EmployeeFilter): department in last-name order, last-name ranges,
+-- and title with the department facet. Built in one in-place pass while reads and writes continue
+-- (LOCK=NONE); MySQL refuses the statement rather than falling back to a locking copy. A short
+-- lock_wait_timeout keeps the brief metadata lock from queueing traffic behind a long transaction.
+SET SESSION lock_wait_timeout = 10;
+
+alter table employees
+    add index idx_employees_department_last_name (department_id, last_name, employee_id),
+    add index idx_employees_last_name (last_name, employee_id),
+    add index idx_employees_title (title, department_id),
+    algorithm=inplace, lock=none;
+
+SET SESSION lock_wait_timeout = DEFAULT;
@@ -0,0 +1,14 @@
+-- Online on a large employees table: both indexes are built in one in-place pass while reads and writes
+-- continue (LOCK=NONE), and MySQL refuses the statement rather than falling back to a locking copy.
+-- A short lock_wait_timeout keeps the brief metadata lock at the start and end from queueing
+-- traffic behind a long-running transaction; the migration fails and is retried on the next start.
+SET SESSION lock_wait_timeout = 10;
+
+-- title filter in last-name order, read in index order instead of sorted
+-- photograph_path: the photo collector's exact reference check before it deletes an orphaned photo
+alter table employees
+    add index idx_employees_title_last_name (title, last_name, employee_id),
+    add index idx_employees_photograph_path (photograph_path),
+    algorithm=inplace, lock=none;
+
+SET SESSION lock_wait_timeout = DEFAULT;
@@ -0,0 +1,98 @@
+package com.HRPortal;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Time from launching the JVM to the first answered API request, with the prod profile on a fresh H2
+// database (the migrations build the schema). Fails when it exceeds startup.budget:
+//   mvn test -Pperf -Dtest=StartupBenchmarkTests [-Dstartup.budget=PT15S]
+// startup.jvm-args is passed to the forked JVM, e.g. a class-data-sharing archive from the cds profile
+// (-XX:SharedArchiveFile=target/cds/application.jsa) or -Dspring.aot.enabled=true after the aot profile.
+// The application's output goes to target/startup-benchmark.log.
+@Tag("perf")
+class StartupBenchmarkTests {
+
+	private static final Duration BUDGET = Duration.parse(System.getProperty("startup.budget", "PT20S"));
+	private static final String JVM_ARGS = System.getProperty("startup.jvm-args", "");
+	private static final int RUNS = Integer.getInteger("startup.runs", 3);
+
+	@Test
+	void firstRequestIsAnsweredWithinTheBudget() throws Exception {
+		List<Duration> runs = new ArrayList<>();
+		for (int i = 0; i < RUNS; i++) {
+			runs.add(timeToFirstRequest(i));
+		}
+		Duration best = runs.stream().min(Duration::compareTo).orElseThrow();
+		System.out.printf("[startup] time to first request %s (best of %s), budget %s%n",
+				best.toMillis() + " ms", runs.stream().map(Duration::toMillis).toList(), BUDGET.toMillis() + " ms");
+		assertThat(best).isLessThanOrEqualTo(BUDGET);
+	}
+
+	private Duration timeToFirstRequest(int run) throws Exception {
+		int port = freePort();
+		List<String> command = new ArrayList<>();
+		command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+		if (!JVM_ARGS.isBlank()) {
+			command.addAll(List.of(JVM_ARGS.trim().split("\\s+")));
+		}
+		command.addAll(List.of(
+				"-cp", System.getProperty("java.class.path"),
+				"-Dspring.profiles.active=prod",
+				"-Dspring.datasource.url=jdbc:h2:mem:startup;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+				HRPortalApplication.class.getName(),
+				"--server.port=" + port));
+		File log = new File("target/startup-benchmark.log");
+		ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true);
+		builder.redirectOutput(run == 0 ? ProcessBuilder.Redirect.to(log) : ProcessBuilder.Redirect.appendTo(log));
+
+		HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/employee/list?size=1"))
+				.timeout(Duration.ofSeconds(5))
+				.build();
+		long started = System.nanoTime();
+		Process app = builder.start();
+		try {
+			while (true) {
+				assertThat(app.isAlive()).as("application exited during startup, see %s", log).isTrue();
+				assertThat(Duration.ofNanos(System.nanoTime() - started))
+						.as("no answer within twice the budget").isLessThan(BUDGET.multipliedBy(2));
+				try {
+					HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+					if (response.statusCode() < 500) {
+						return Duration.ofNanos(System.nanoTime() - started);
+					}
+				} catch (ConnectException e) {
+					// not listening yet
+				}
+				TimeUnit.MILLISECONDS.sleep(10);
+			}
+		} finally {
+			app.destroy();
+			if (!app.waitFor(30, TimeUnit.SECONDS)) {
+				app.destroyForcibly();
+			}
+		}
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
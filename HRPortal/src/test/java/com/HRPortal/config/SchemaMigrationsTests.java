@@ -0,0 +1,81 @@
+package com.HRPortal.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The prod profile on its own H2 database: the scripts build the schema and Hibernate validates the
+// entities against it, so an entity change without a migration fails here
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:schema_migrations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		// the prod profile skips validation, which reads the table definitions
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=true"
+})
+@ActiveProfiles("prod")
+@AutoConfigureMockMvc
+class SchemaMigrationsTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void prodProfileBuildsTheSchemaFromTheScripts() throws Exception {
+		assertThat(jdbcTemplate.queryForList("SELECT version FROM schema_history WHERE baseline = FALSE", Integer.class))
+				.containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+
+		mockMvc.perform(multipart("/api/employee/add")
+						.param("first_name", "Migrated")
+						.param("last_name", "Schema")
+						.param("email", "migrated@example.com")
+						.param("title", "Engineer"))
+				.andExpect(status().isCreated());
+		jdbcTemplate.update("DELETE FROM employee_change");
+		jdbcTemplate.update("DELETE FROM employees");
+	}
+
+	@Test
+	void appliedScriptsAreNotRunAgainOrChanged(@TempDir Path scripts) throws Exception {
+		DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:baselined;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		SchemaUpgradeTests.createLastReleaseSchema(jdbc);
+		Files.copy(new ClassPathResource("db/migration/V1__baseline.sql").getInputStream(), scripts.resolve("V1__baseline.sql"));
+		Files.writeString(scripts.resolve("V2__add_nickname.sql"), "alter table employees add column nickname varchar(50);\n");
+
+		assertThat(migrations(dataSource, scripts).migrate()).isEqualTo(1);
+
+		assertThat(jdbc.queryForList("SELECT baseline FROM schema_history ORDER BY version", Boolean.class))
+				.containsExactly(true, false);
+		jdbc.update("INSERT INTO employees (email, nickname) VALUES ('a@example.com', 'A')");
+		assertThat(migrations(dataSource, scripts).migrate()).isZero();
+
+		Files.writeString(scripts.resolve("V2__add_nickname.sql"), "alter table employees add column nickname varchar(80);\n");
+		assertThatThrownBy(() -> migrations(dataSource, scripts).migrate())
+				.hasMessageContaining("V2__add_nickname.sql was changed after it was applied");
+	}
+
+	private static SchemaMigrations migrations(DataSource dataSource, Path scripts) {
+		return new SchemaMigrations(dataSource, List.of("file:" + scripts.toAbsolutePath()), 1, Duration.ofSeconds(5));
+	}
+}
@@ -0,0 +1,64 @@
+package com.HRPortal.config;
+
+import com.HRPortal.dto.EmployeeDTO;
+import com.HRPortal.service.EmployeesService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A database of the last release (ddl-auto=update, no schema_history) with data in it: the migrations
+// baseline it at V1, apply everything since, and Hibernate validates the entities against the result
+@SpringBootTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+class SchemaUpgradeTests {
+
+	private static final String URL = "jdbc:h2:mem:upgraded;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private EmployeesService employeesService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	// runs before the context starts, so the old tables are there when SchemaMigrations looks
+	@DynamicPropertySource
+	static void lastReleaseDatabase(DynamicPropertyRegistry registry) {
+		JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+		createLastReleaseSchema(jdbc);
+		jdbc.update("INSERT INTO department (name, capacity, seats_left) VALUES ('Existing', 10, 9)");
+		jdbc.update("INSERT INTO employees (first_name, last_name, email, title, department_id) "
+				+ "SELECT 'Existing', 'Row', 'existing@example.com', 'Engineer', department_id FROM department");
+		registry.add("spring.datasource.url", () -> URL);
+	}
+
+	@Test
+	void lastReleaseSchemaIsBaselinedAndUpgradedInPlace() {
+		assertThat(jdbcTemplate.queryForList("SELECT version FROM schema_history WHERE baseline = TRUE", Integer.class))
+				.containsExactly(1);
+		assertThat(jdbcTemplate.queryForList("SELECT version FROM schema_history WHERE baseline = FALSE ORDER BY version", Integer.class))
+				.containsExactly(2, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+
+		EmployeeDTO existing = employeesService.getEmployeeDTOByEmployee_id(
+				jdbcTemplate.queryForObject("SELECT employee_id FROM employees", Integer.class));
+		assertThat(existing.getEmail()).isEqualTo("existing@example.com");
+		assertThat(existing.getDepartment_name()).isEqualTo("Existing");
+		assertThat(existing.getVersion()).isZero();
+	}
+
+	// What ddl-auto=update made of the entities before the migrations, as Hibernate's H2 dialect wrote it
+	static void createLastReleaseSchema(JdbcTemplate jdbc) {
+		jdbc.execute("create table department (capacity integer, department_id integer generated by default as identity, "
+				+ "seats_left integer, name varchar(255), primary key (department_id))");
+		jdbc.execute("create table employees (department_id integer, employee_id integer generated by default as identity, "
+				+ "photograph_path varchar(500), email varchar(255) not null, first_name varchar(255), last_name varchar(255), "
+				+ "title varchar(255), primary key (employee_id))");
+		jdbc.execute("alter table if exists employees add constraint UKj9xgmd0ya5jmus09o0b8pqrpb unique (email)");
+		jdbc.execute("alter table if exists employees add constraint FK8if1byloc650qvkaxabyjveap "
+				+ "foreign key (department_id) references department");
+	}
+}
@@ -0,0 +1,70 @@
+package com.HRPortal.config;
+
+import com.HRPortal.entity.Employees;
+import com.HRPortal.repository.EmployeesRepo;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class StatementMetricsTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@AfterEach
+	void cleanUp() {
+		employeesRepo.deleteAll();
+	}
+
+	@Test
+	void statementsAreCountedPerRequestAndUriPattern() throws Exception {
+		Employees employee = new Employees();
+		employee.setFirst_name("Metric");
+		employee.setLast_name("Counter");
+		employee.setEmail("metrics@example.com");
+		employee.setTitle("Engineer");
+		int id = employeesRepo.save(employee).getEmployee_id();
+
+		mockMvc.perform(get("/api/employee/get-by-id/" + id)).andExpect(status().isOk());
+		mockMvc.perform(get("/api/employee/get-by-id/" + id)).andExpect(status().isOk());
+
+		DistributionSummary statements = meterRegistry.get("hibernate.statements.per.request")
+				.tag("uri", "/api/employee/get-by-id/{emp_id}").summary();
+		assertThat(statements.count()).isEqualTo(2);
+		// the DTO projection is a single query
+		assertThat(statements.max()).isEqualTo(1);
+	}
+
+	@Test
+	void prometheusEndpointExposesRequestHistogramsAndPoolWaits() throws Exception {
+		mockMvc.perform(get("/api/employee/list")).andExpect(status().isOk());
+
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+				.andExpect(content().string(containsString("hibernate_statements_per_request")))
+				.andExpect(content().string(containsString("hikaricp_connections_acquire_seconds")))
+				.andExpect(content().string(containsString("photo_served_bytes_total")));
+	}
+}
@@ -0,0 +1,142 @@
+package com.HRPortal.controller;
+
+import com.HRPortal.entity.Department;
+import com.HRPortal.entity.Employees;
+import com.HRPortal.repository.DepartmentRepo;
+import com.HRPortal.repository.EmployeesRepo;
+import com.HRPortal.service.DepartmentCatalogService;
+import com.HRPortal.service.EmployeesService;
+import com.HRPortal.service.SeatReservationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class DepartmentCatalogTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private DepartmentRepo departmentRepo;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private EmployeesService employeesService;
+
+	@Autowired
+	private DepartmentCatalogService catalog;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private SeatReservationService seatReservation;
+
+	private Department department;
+
+	@BeforeEach
+	void seed() {
+		department = new Department();
+		department.setName("Finance");
+		department.setCapacity(3);
+		department.setSeats_left(3);
+		department = departmentRepo.save(department);
+		catalog.invalidate();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		employeesRepo.deleteAll();
+		departmentRepo.deleteAll();
+	}
+
+	@Test
+	void unchangedCatalogAnswersNotModified() throws Exception {
+		String etag = mockMvc.perform(get("/api/department/seats-left"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].name").value("Finance"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		double hitsBefore = hits();
+
+		mockMvc.perform(get("/api/department/seats-left").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		mockMvc.perform(get("/api/department/names").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+		assertThat(hits()).isEqualTo(hitsBefore + 2);
+	}
+
+	@Test
+	void employeeWritesInvalidateTheSnapshot() throws Exception {
+		String etag = mockMvc.perform(get("/api/department/names"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		// an out-of-band change is invisible until an employee write invalidates the snapshot
+		department.setName("Finance & Accounting");
+		departmentRepo.save(department);
+		mockMvc.perform(get("/api/department/names").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+		Employees employee = new Employees();
+		employee.setFirst_name("Ada");
+		employee.setLast_name("Lovelace");
+		employee.setEmail("catalog@example.com");
+		employee.setDepartment(department);
+		employeesService.addEmployees(employee);
+
+		mockMvc.perform(get("/api/department/names").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andExpect(jsonPath("$[0].name").value("Finance & Accounting"));
+	}
+
+	@Test
+	void theEtagFollowsTheContentAlone() throws Exception {
+		Department other = new Department();
+		other.setName("Legal");
+		other.setCapacity(3);
+		other.setSeats_left(2);
+		other = departmentRepo.save(other);
+		catalog.invalidate();
+		String original = seatsEtag();
+
+		// seats moved between the two departments by equal and opposite amounts
+		moveSeat(department, other);
+		String moved = seatsEtag();
+		moveSeat(other, department);
+
+		assertThat(moved).isNotEqualTo(original);
+		assertThat(seatsEtag()).isEqualTo(original);
+	}
+
+	private void moveSeat(Department from, Department to) {
+		seatReservation.reserve(from.getDepartmentId());
+		seatReservation.release(to.getDepartmentId());
+	}
+
+	private String seatsEtag() throws Exception {
+		return mockMvc.perform(get("/api/department/seats-left"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+	}
+
+	private double hits() {
+		return meterRegistry.get("department.catalog.requests").tag("result", "hit").counter().count();
+	}
+}
@@ -0,0 +1,149 @@
+package com.HRPortal.controller;
+
+import com.HRPortal.repository.EmployeesRepo;
+import com.HRPortal.service.PhotoJobService;
+import com.HRPortal.service.PhotoVariantService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A 100-card dashboard: per-id /get-by-id plus /image?size=64 for every card vs. one POST /batch with
+// inlined 64px thumbnails. MockMvc has no network, so real clients gain more from the saved round trips.
+// Run with: mvn test -Pperf -Dtest=EmployeeBatchBenchmarkTests
+@Tag("perf")
+@SpringBootTest
+@AutoConfigureMockMvc
+class EmployeeBatchBenchmarkTests {
+
+	private static final int CARDS = 100;
+	private static final int ROUNDS = 30;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private PhotoJobService photoJobs;
+
+	@Autowired
+	private PhotoVariantService photoVariants;
+
+	@AfterEach
+	void cleanUp() {
+		employeesRepo.deleteAll();
+	}
+
+	@Test
+	void dashboardRequestsAndLatency() throws Exception {
+		Random random = new Random(42);
+		List<Integer> ids = new ArrayList<>();
+		for (int i = 0; i < CARDS; i++) {
+			ids.add(addEmployeeWithPhoto(i, photo(random)));
+		}
+		assertThat(photoJobs.awaitIdle(Duration.ofMinutes(1))).isTrue();
+		String body = "{\"ids\": [" + ids.stream().map(String::valueOf).collect(Collectors.joining(","))
+				+ "], \"thumbnail_size\": 64}";
+
+		Result perId = measure(() -> {
+			int requests = 0;
+			long bytes = 0;
+			for (int id : ids) {
+				bytes += mockMvc.perform(get("/api/employee/get-by-id/" + id)).andExpect(status().isOk())
+						.andReturn().getResponse().getContentAsByteArray().length;
+				bytes += mockMvc.perform(get("/api/employee/image/" + id).param("size", "64")).andExpect(status().isOk())
+						.andReturn().getResponse().getContentAsByteArray().length;
+				requests += 2;
+			}
+			return new long[] {requests, bytes};
+		});
+		Result batch = measure(() -> {
+			byte[] response = mockMvc.perform(post("/api/employee/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsByteArray();
+			assertThat(objectMapper.readTree(response).get("found").asInt()).isEqualTo(CARDS);
+			return new long[] {1, response.length};
+		});
+
+		System.out.printf("[batch] per-id : %d requests, %,d bytes, p50 %.2f ms, p99 %.2f ms per dashboard%n",
+				perId.requests, perId.bytes, perId.p50, perId.p99);
+		System.out.printf("[batch] batch  : %d request,  %,d bytes, p50 %.2f ms, p99 %.2f ms per dashboard%n",
+				batch.requests, batch.bytes, batch.p50, batch.p99);
+		assertThat(batch.requests).isEqualTo(1);
+		assertThat(batch.p50).isLessThan(perId.p50);
+	}
+
+	// The first pass queues the 64px variants and warms up the JIT
+	private Result measure(Dashboard dashboard) throws Exception {
+		dashboard.load();
+		assertThat(photoVariants.awaitIdle(Duration.ofSeconds(30))).isTrue();
+		long[] counts = dashboard.load();
+		double[] latencies = new double[ROUNDS];
+		for (int round = 0; round < ROUNDS; round++) {
+			long began = System.nanoTime();
+			dashboard.load();
+			latencies[round] = (System.nanoTime() - began) / 1e6;
+		}
+		Arrays.sort(latencies);
+		return new Result(counts[0], counts[1], latencies[ROUNDS / 2], latencies[(int) (ROUNDS * 0.99)]);
+	}
+
+	// Small noisy JPEG, so the 64px variant stays under the inline byte limit
+	private static byte[] photo(Random random) throws Exception {
+		BufferedImage image = new BufferedImage(480, 360, BufferedImage.TYPE_INT_RGB);
+		for (int y = 0; y < image.getHeight(); y++) {
+			for (int x = 0; x < image.getWidth(); x++) {
+				image.setRGB(x, y, ((x * 255 / 480) << 16) | ((y * 255 / 360) << 8) | random.nextInt(64));
+			}
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "jpg", out);
+		return out.toByteArray();
+	}
+
+	private int addEmployeeWithPhoto(int i, byte[] photo) throws Exception {
+		String json = mockMvc.perform(multipart("/api/employee/add")
+						.file(new MockMultipartFile("photograph", "card" + i + ".jpg", "image/jpeg", photo))
+						.param("first_name", "Card")
+						.param("last_name", String.valueOf(i))
+						.param("email", "batch-bench" + i + "@example.com")
+						.param("title", "Model"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(json).get("employee_id").asInt();
+	}
+
+	private interface Dashboard {
+		long[] load() throws Exception;
+	}
+
+	private record Result(long requests, long bytes, double p50, double p99) {
+	}
+}
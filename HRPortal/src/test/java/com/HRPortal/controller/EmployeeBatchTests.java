@@ -0,0 +1,148 @@
+package com.HRPortal.controller;
+
+import com.HRPortal.entity.Employees;
+import com.HRPortal.repository.EmployeesRepo;
+import com.HRPortal.service.PhotoJobService;
+import com.HRPortal.service.PhotoVariantService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class EmployeeBatchTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private PhotoJobService photoJobs;
+
+	@Autowired
+	private PhotoVariantService photoVariants;
+
+	@AfterEach
+	void cleanUp() {
+		employeesRepo.deleteAll();
+	}
+
+	@Test
+	void resultsFollowRequestOrderWithNotFoundEntriesFromOneQuery() throws Exception {
+		int ada = save("Ada", "ada@example.com");
+		int alan = save("Alan", "alan@example.com");
+		double statementsBefore = statements();
+
+		JsonNode batch = batch("{\"ids\": [" + alan + ", 0, " + ada + ", " + alan + "]}");
+
+		assertThat(batch.get("found").asInt()).isEqualTo(2);
+		assertThat(batch.get("not_found").asInt()).isEqualTo(1);
+		JsonNode results = batch.get("results");
+		assertThat(results).hasSize(3);
+		assertThat(results.get(0).get("employee_id").asInt()).isEqualTo(alan);
+		assertThat(results.get(0).get("status").asInt()).isEqualTo(200);
+		assertThat(results.get(0).get("employee").get("first_name").asText()).isEqualTo("Alan");
+		assertThat(results.get(0).get("thumbnail").isNull()).isTrue();
+		assertThat(results.get(1).get("status").asInt()).isEqualTo(404);
+		assertThat(results.get(1).get("employee").isNull()).isTrue();
+		assertThat(results.get(2).get("employee").get("email").asText()).isEqualTo("ada@example.com");
+		assertThat(statements() - statementsBefore).isEqualTo(1);
+	}
+
+	@Test
+	void smallThumbnailsAreInlinedAsDataUris() throws Exception {
+		BufferedImage image = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", png);
+		int withPhoto = objectMapper.readTree(mockMvc.perform(multipart("/api/employee/add")
+						.file(new MockMultipartFile("photograph", "card.png", "image/png", png.toByteArray()))
+						.param("first_name", "Card")
+						.param("last_name", "Photo")
+						.param("email", "card@example.com")
+						.param("title", "Engineer"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString()).get("employee_id").asInt();
+		int withoutPhoto = save("Plain", "plain@example.com");
+		assertThat(photoJobs.awaitIdle(Duration.ofSeconds(10))).isTrue();
+		assertThat(photoVariants.awaitIdle(Duration.ofSeconds(10))).isTrue();
+		String photoPath = employeesRepo.findById(withPhoto).orElseThrow().getPhotograph_path();
+		photoVariants.deleteVariants(photoPath);
+
+		// not generated yet: the card keeps its photo_url and the thumbnail is queued rather than made inline
+		JsonNode pending = batch("{\"ids\": [" + withPhoto + "], \"thumbnail_size\": 64}").get("results");
+		assertThat(pending.get(0).get("thumbnail").isNull()).isTrue();
+		assertThat(pending.get(0).get("employee").get("photo_url").asText()).isNotEmpty();
+		assertThat(photoVariants.awaitIdle(Duration.ofSeconds(10))).isTrue();
+
+		JsonNode results = batch("{\"ids\": [" + withPhoto + ", " + withoutPhoto + "], \"thumbnail_size\": 64}").get("results");
+
+		String thumbnail = results.get(0).get("thumbnail").asText();
+		assertThat(thumbnail).startsWith("data:image/png;base64,");
+		BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(
+				Base64.getDecoder().decode(thumbnail.substring(thumbnail.indexOf(',') + 1))));
+		assertThat(decoded.getWidth()).isEqualTo(64);
+		assertThat(results.get(1).get("thumbnail").isNull()).isTrue();
+	}
+
+	@Test
+	void oversizedOrMalformedBatchesAreRejected() throws Exception {
+		String tooMany = IntStream.rangeClosed(1, 201).mapToObj(String::valueOf).collect(Collectors.joining(","));
+		mockMvc.perform(post("/api/employee/batch").contentType(MediaType.APPLICATION_JSON).content("{\"ids\": [" + tooMany + "]}"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(post("/api/employee/batch").contentType(MediaType.APPLICATION_JSON).content("{\"ids\": [1], \"thumbnail_size\": 1024}"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(post("/api/employee/batch").contentType(MediaType.APPLICATION_JSON).content("{}"))
+				.andExpect(status().isBadRequest());
+	}
+
+	private JsonNode batch(String body) throws Exception {
+		return objectMapper.readTree(mockMvc.perform(post("/api/employee/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+	}
+
+	private double statements() {
+		DistributionSummary summary = meterRegistry.find("hibernate.statements.per.request").tag("uri", "/api/employee/batch").summary();
+		return summary != null ? summary.totalAmount() : 0;
+	}
+
+	private int save(String firstName, String email) {
+		Employees employee = new Employees();
+		employee.setFirst_name(firstName);
+		employee.setLast_name("Batch");
+		employee.setEmail(email);
+		employee.setTitle("Engineer");
+		return employeesRepo.save(employee).getEmployee_id();
+	}
+}
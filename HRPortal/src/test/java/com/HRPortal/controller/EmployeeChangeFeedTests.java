@@ -0,0 +1,183 @@
+package com.HRPortal.controller;
+
+import com.HRPortal.repository.EmployeesRepo;
+import com.HRPortal.service.EmployeeChangeLog;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class EmployeeChangeFeedTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private EmployeeChangeLog changeLog;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void cleanUp() {
+		employeesRepo.deleteAll();
+	}
+
+	@Test
+	void deltasCarryCurrentStateAndDeletesOncePerEmployee() throws Exception {
+		long since = changeLog.head();
+		int kept = add("kept@example.com");
+		int removed = add("removed@example.com");
+		mockMvc.perform(patch("/api/employee/" + kept).contentType(MediaType.APPLICATION_JSON).content("{\"title\": \"Lead\"}"))
+				.andExpect(status().isOk());
+		mockMvc.perform(delete("/api/employee/delete/" + removed)).andExpect(status().isOk());
+
+		JsonNode page = changes(since, 500);
+
+		assertThat(page.get("has_more").asBoolean()).isFalse();
+		JsonNode changes = page.get("changes");
+		assertThat(changes).hasSize(2);
+		assertThat(changes.get(0).get("employee_id").asInt()).isEqualTo(kept);
+		assertThat(changes.get(0).get("op").asText()).isEqualTo("upsert");
+		assertThat(changes.get(0).get("employee").get("title").asText()).isEqualTo("Lead");
+		assertThat(changes.get(1).get("employee_id").asInt()).isEqualTo(removed);
+		assertThat(changes.get(1).get("op").asText()).isEqualTo("delete");
+		assertThat(page.get("next_since").asLong()).isEqualTo(changes.get(1).get("seq").asLong());
+
+		// nothing new since the cursor
+		assertThat(changes(page.get("next_since").asLong(), 500).get("changes")).isEmpty();
+	}
+
+	@Test
+	void importedRowsArePagedAndRollbacksLeaveNoEntry() throws Exception {
+		long since = changeLog.head();
+		mockMvc.perform(post("/api/employee/import")
+						.contentType(MediaType.parseMediaType("text/csv"))
+						.content("first_name,last_name,email\nA,One,one@example.com\nB,Two,two@example.com\nC,Three,three@example.com\n"))
+				.andExpect(status().isOk());
+		int first = employeesRepo.findAll().get(0).getEmployee_id();
+		// fails on the unique email at commit, after its change number was taken
+		assertThatThrownBy(() -> mockMvc.perform(patch("/api/employee/" + first)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"email\": \"two@example.com\"}")));
+
+		List<String> emails = new ArrayList<>();
+		long cursor = since;
+		JsonNode page;
+		do {
+			page = changes(cursor, 2);
+			page.get("changes").forEach(change -> emails.add(change.get("employee").get("email").asText()));
+			cursor = page.get("next_since").asLong();
+		} while (page.get("has_more").asBoolean());
+
+		assertThat(emails).containsExactly("one@example.com", "two@example.com", "three@example.com");
+		mockMvc.perform(get("/api/employee/changes").param("since", "0").param("limit", "0"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void instancesShareTheSequenceInTheDatabase() throws Exception {
+		long since = changeLog.head();
+		int first = add("first@example.com");
+		// a write logged by another instance, which numbers from the same counter row
+		jdbcTemplate.update("UPDATE employee_change_counter SET seq = seq + 1 WHERE id = 1");
+		jdbcTemplate.update("INSERT INTO employee_change (seq, employee_id, changed_at) "
+				+ "SELECT seq, ?, CURRENT_TIMESTAMP FROM employee_change_counter WHERE id = 1", first);
+		int second = add("second@example.com");
+
+		JsonNode changes = changes(since, 500).get("changes");
+
+		assertThat(changes).hasSize(2);
+		assertThat(changes.get(0).get("employee_id").asInt()).isEqualTo(first);
+		assertThat(changes.get(0).get("seq").asLong()).isEqualTo(since + 2);
+		assertThat(changes.get(1).get("employee_id").asInt()).isEqualTo(second);
+		assertThat(changes.get(1).get("seq").asLong()).isEqualTo(since + 3);
+		assertThat(changeLog.head()).isEqualTo(since + 3);
+	}
+
+	@Test
+	void cursorsBehindAnotherInstancesPruneAreGone() throws Exception {
+		long since = changeLog.head();
+		add("pruned@example.com");
+		int kept = add("kept@example.com");
+		// what prune() on another instance leaves: the oldest changes are gone from the shared table
+		jdbcTemplate.update("DELETE FROM employee_change WHERE seq <= ?", since + 1);
+
+		mockMvc.perform(get("/api/employee/changes").param("since", String.valueOf(since)))
+				.andExpect(status().isGone());
+		JsonNode changes = changes(since + 1, 500).get("changes");
+		assertThat(changes).hasSize(1);
+		assertThat(changes.get(0).get("employee_id").asInt()).isEqualTo(kept);
+	}
+
+	@Test
+	void streamSendsBacklogAndThenLiveChanges() throws Exception {
+		long since = changeLog.head();
+		add("backlog@example.com");
+		MvcResult stream = mockMvc.perform(get("/api/employee/changes/stream").param("since", String.valueOf(since)))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		MockHttpServletResponse response = stream.getResponse();
+
+		awaitContent(response, "backlog@example.com");
+		add("live@example.com");
+		awaitContent(response, "live@example.com");
+
+		assertThat(response.getContentAsString()).contains("event:changes");
+		stream.getRequest().getAsyncContext().complete();
+	}
+
+	private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!response.getContentAsString().contains(expected) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(response.getContentAsString()).contains(expected);
+	}
+
+	private JsonNode changes(long since, int limit) throws Exception {
+		return objectMapper.readTree(mockMvc.perform(get("/api/employee/changes")
+						.param("since", String.valueOf(since))
+						.param("limit", String.valueOf(limit)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+	}
+
+	private int add(String email) throws Exception {
+		return objectMapper.readTree(mockMvc.perform(multipart("/api/employee/add")
+						.param("first_name", "Change")
+						.param("last_name", "Feed")
+						.param("email", email)
+						.param("title", "Engineer"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString()).get("employee_id").asInt();
+	}
+}
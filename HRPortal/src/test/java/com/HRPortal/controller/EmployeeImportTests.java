@@ -0,0 +1,206 @@
+package com.HRPortal.controller;
+
+import com.HRPortal.dto.EmployeeImportReportDTO;
+import com.HRPortal.dto.ImportRowErrorDTO;
+import com.HRPortal.entity.Department;
+import com.HRPortal.entity.Employees;
+import com.HRPortal.repository.DepartmentRepo;
+import com.HRPortal.repository.EmployeesRepo;
+import com.HRPortal.service.SeatReservationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(EmployeeImportTests.RacingWriter.class)
+class EmployeeImportTests {
+
+	// inserted by another writer while the next import batch is between its email check and its insert
+	private static final AtomicReference<String> racingEmail = new AtomicReference<>();
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private DepartmentRepo departmentRepo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private Department small;
+	private Department large;
+
+	@BeforeEach
+	void seed() {
+		small = departmentRepo.save(department("Small", 2));
+		large = departmentRepo.save(department("Large", 50_000));
+
+		Employees existing = new Employees();
+		existing.setFirst_name("Already");
+		existing.setLast_name("Here");
+		existing.setEmail("taken@example.com");
+		employeesRepo.save(existing);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		employeesRepo.deleteAll();
+		departmentRepo.deleteAll();
+	}
+
+	@Test
+	void csvImportReportsEveryRejectedRow() throws Exception {
+		String csv = "first_name,last_name,email,title,department_id\n" +
+				"Ada,Lovelace,ada@example.com,\"Engineer, Analytical\"," + small.getDepartmentId() + "\n" +
+				"Grace,Hopper,grace@example.com,Admiral," + small.getDepartmentId() + "\n" +
+				"Alan,Turing,alan@example.com,Cryptanalyst," + small.getDepartmentId() + "\n" +
+				"Ada,Again,ADA@example.com,Engineer,\n" +
+				"Old,Timer,taken@example.com,Clerk,\n" +
+				",Nameless,nameless@example.com,Clerk,\n" +
+				"Lost,Soul,lost@example.com,Clerk,999999\n" +
+				"Bad,Dept,bad@example.com,Clerk,abc\n";
+
+		EmployeeImportReportDTO report = importBody("text/csv", csv);
+
+		assertThat(report.getTotal_rows()).isEqualTo(8);
+		assertThat(report.getImported()).isEqualTo(2);
+		assertThat(report.getErrors()).extracting(ImportRowErrorDTO::getRow, ImportRowErrorDTO::getMessage)
+				.containsExactlyInAnyOrder(
+						tuple(3, "No seats left in the selected department"),
+						tuple(4, "Duplicate email in file"),
+						tuple(5, "Email already exists"),
+						tuple(6, "first_name is required"),
+						tuple(7, "Department not found"),
+						tuple(8, "department_id must be a number"));
+		assertThat(departmentRepo.findSeatsById(small.getDepartmentId()).orElseThrow().getSeats_left()).isZero();
+		assertThat(employeesRepo.count()).isEqualTo(3);
+	}
+
+	@Test
+	void aConcurrentlyInsertedEmailRejectsOnlyItsOwnRow() throws Exception {
+		racingEmail.set("raced@example.com");
+		String csv = "first_name,last_name,email,title,department_id\n" +
+				"Ada,Lovelace,ada@example.com,Engineer," + large.getDepartmentId() + "\n" +
+				"Raced,Row,raced@example.com,Engineer," + large.getDepartmentId() + "\n" +
+				"Alan,Turing,alan@example.com,Engineer,\n";
+
+		EmployeeImportReportDTO report = importBody("text/csv", csv);
+
+		assertThat(report.getImported()).isEqualTo(2);
+		assertThat(report.getErrors()).extracting(ImportRowErrorDTO::getRow, ImportRowErrorDTO::getMessage)
+				.containsExactly(tuple(2, "Email already exists"));
+		// the failed batch's reservations were rolled back; only Ada holds a seat
+		assertThat(departmentRepo.findSeatsById(large.getDepartmentId()).orElseThrow().getSeats_left()).isEqualTo(50_000 - 1);
+		assertThat(employeesRepo.count()).isEqualTo(4);
+	}
+
+	@Test
+	void ndjsonImportReportsMalformedLines() throws Exception {
+		String ndjson = "{\"first_name\":\"Ada\",\"last_name\":\"Lovelace\",\"email\":\"ada@example.com\"}\n" +
+				"{not json}\n" +
+				"\n" +
+				"{\"first_name\":\"Grace\",\"last_name\":\"Hopper\",\"email\":\"grace@example.com\",\"department_id\":"
+				+ large.getDepartmentId() + "}\n";
+
+		EmployeeImportReportDTO report = importBody("application/x-ndjson", ndjson);
+
+		assertThat(report.getImported()).isEqualTo(2);
+		assertThat(report.getErrors()).singleElement().satisfies(e -> assertThat(e.getRow()).isEqualTo(2));
+	}
+
+	@Test
+	void csvWithoutRequiredColumnIsRejected() throws Exception {
+		mockMvc.perform(post("/api/employee/import").contentType("text/csv").content("first_name,last_name\nA,B\n"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void importsTwentyThousandRowsInBatches() throws Exception {
+		int rows = 20_000;
+		StringBuilder csv = new StringBuilder("first_name,last_name,email,title,department_id\n");
+		for (int i = 0; i < rows; i++) {
+			csv.append("First").append(i).append(",Last").append(i).append(",bulk").append(i)
+					.append("@example.com,Engineer,").append(i % 2 == 0 ? large.getDepartmentId() : "").append('\n');
+		}
+
+		long began = System.nanoTime();
+		EmployeeImportReportDTO report = importBody("text/csv", csv.toString());
+		double seconds = (System.nanoTime() - began) / 1e9;
+
+		assertThat(report.getImported()).isEqualTo(rows);
+		assertThat(departmentRepo.findSeatsById(large.getDepartmentId()).orElseThrow().getSeats_left())
+				.isEqualTo(50_000 - rows / 2);
+		System.out.printf("[bulk-import] rows=%d elapsed=%.2fs throughput=%.0f rows/s%n", rows, seconds, rows / seconds);
+	}
+
+	private EmployeeImportReportDTO importBody(String contentType, String body) throws Exception {
+		String json = mockMvc.perform(post("/api/employee/import").contentType(contentType).content(body))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readValue(json, EmployeeImportReportDTO.class);
+	}
+
+	@TestConfiguration
+	static class RacingWriter {
+		@Bean
+		@Primary
+		SeatReservationService racingSeatReservation(JdbcTemplate jdbcTemplate) {
+			return new RacingSeatReservation(jdbcTemplate);
+		}
+	}
+
+	// Seats are reserved after the email check, so a writer slipped in here makes the batch insert fail
+	static class RacingSeatReservation extends SeatReservationService {
+		private final JdbcTemplate jdbcTemplate;
+
+		RacingSeatReservation(JdbcTemplate jdbcTemplate) {
+			this.jdbcTemplate = jdbcTemplate;
+		}
+
+		@Override
+		public int reserveUpTo(int departmentId, int seats) {
+			String email = racingEmail.getAndSet(null);
+			if (email != null) {
+				// committed on a connection of its own, like a concurrent request
+				Thread writer = new Thread(() -> jdbcTemplate.update(
+						"INSERT INTO employees (first_name, last_name, email) VALUES ('Racing', 'Writer', ?)", email));
+				writer.start();
+				try {
+					writer.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return super.reserveUpTo(departmentId, seats);
+		}
+	}
+
+	private static Department department(String name, int capacity) {
+		Department d = new Department();
+		d.setName(name);
+		d.setCapacity(capacity);
+		d.setSeats_left(capacity);
+		return d;
+	}
+}
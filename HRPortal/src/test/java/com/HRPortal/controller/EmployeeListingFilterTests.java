@@ -0,0 +1,156 @@
+package com.HRPortal.controller;
+
+import com.HRPortal.dto.EmployeeDTO;
+import com.HRPortal.dto.EmployeePageDTO;
+import com.HRPortal.dto.FacetCountDTO;
+import com.HRPortal.entity.Department;
+import com.HRPortal.entity.Employees;
+import com.HRPortal.repository.DepartmentRepo;
+import com.HRPortal.repository.EmployeesRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class EmployeeListingFilterTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private DepartmentRepo departmentRepo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private Department sales;
+	private Department legal;
+
+	@BeforeEach
+	void seed() {
+		sales = department("Sales");
+		legal = department("Legal");
+		List<Employees> employees = new ArrayList<>();
+		employees.add(employee("Young", "Engineer", sales));
+		employees.add(employee("Adams", "Manager", sales));
+		employees.add(employee("Baker", "Engineer", sales));
+		employees.add(employee("Chen", "Engineer", sales));
+		employees.add(employee("Adams", "Engineer", legal));
+		employees.add(employee("Diaz", "Counsel", legal));
+		employees.add(employee("Evans", "Engineer", null));
+		employeesRepo.saveAll(employees);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		employeesRepo.deleteAll();
+		departmentRepo.deleteAll(List.of(sales, legal));
+	}
+
+	@Test
+	void filtersCombineAndKeysetPagesStayInsideThem() throws Exception {
+		List<String> names = new ArrayList<>();
+		String cursor = null;
+		do {
+			EmployeePageDTO page = fetch(list(2, cursor, "last_name")
+					.param("department_id", String.valueOf(sales.getDepartmentId()))
+					.param("title", "Engineer")
+					.param("last_name_from", "B")
+					.param("last_name_to", "Z"));
+			page.getItems().forEach(dto -> names.add(dto.getLast_name()));
+			cursor = page.getNext_cursor();
+		} while (cursor != null);
+
+		assertThat(names).containsExactly("Baker", "Chen", "Young");
+	}
+
+	@Test
+	void repeatedParametersMatchAnyValueAndZeroMeansNoDepartment() throws Exception {
+		EmployeePageDTO page = fetch(list(50, null, "employee_id")
+				.param("department_id", String.valueOf(legal.getDepartmentId()), "0"));
+		assertThat(page.getItems()).extracting(EmployeeDTO::getLast_name).containsExactly("Adams", "Diaz", "Evans");
+
+		page = fetch(list(50, null, "last_name").param("title", "Manager", "Counsel"));
+		assertThat(page.getItems()).extracting(EmployeeDTO::getLast_name).containsExactly("Adams", "Diaz");
+		assertThat(page.getFacets()).isNull();
+	}
+
+	@Test
+	void facetsCountEveryFilterButTheirOwn() throws Exception {
+		EmployeePageDTO page = fetch(list(1, null, "employee_id")
+				.param("department_id", String.valueOf(sales.getDepartmentId()))
+				.param("title", "Engineer")
+				.param("facets", "department,title"));
+
+		assertThat(page.getItems()).hasSize(1);
+		assertThat(page.getFacets().get("department"))
+				.extracting(FacetCountDTO::getLabel, FacetCountDTO::getCount)
+				.containsExactly(tuple("Sales", 3L), tuple(null, 1L), tuple("Legal", 1L));
+		assertThat(page.getFacets().get("department").get(1).getValue()).isEqualTo("0");
+		assertThat(page.getFacets().get("title"))
+				.extracting(FacetCountDTO::getValue, FacetCountDTO::getCount)
+				.containsExactly(tuple("Engineer", 3L), tuple("Manager", 1L));
+
+		// later pages of the same listing skip the counts
+		assertThat(fetch(list(1, page.getNext_cursor(), "employee_id").param("facets", "title")).getFacets()).isNull();
+	}
+
+	@Test
+	void rejectsUnknownFacets() throws Exception {
+		mockMvc.perform(list(10, null, "employee_id").param("facets", "salary"))
+				.andExpect(status().isBadRequest());
+	}
+
+	private static MockHttpServletRequestBuilder list(int size, String after, String sort) {
+		MockHttpServletRequestBuilder request = get("/api/employee/list")
+				.param("size", String.valueOf(size))
+				.param("sort", sort);
+		if (after != null) {
+			request.param("after", after);
+		}
+		return request;
+	}
+
+	private EmployeePageDTO fetch(MockHttpServletRequestBuilder request) throws Exception {
+		String json = mockMvc.perform(request)
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readValue(json, EmployeePageDTO.class);
+	}
+
+	private Department department(String name) {
+		Department department = new Department();
+		department.setName(name);
+		return departmentRepo.save(department);
+	}
+
+	private static int sequence;
+
+	private static Employees employee(String lastName, String title, Department department) {
+		Employees e = new Employees();
+		e.setFirst_name("First");
+		e.setLast_name(lastName);
+		e.setEmail("filter" + sequence++ + "@example.com");
+		e.setTitle(title);
+		e.setDepartment(department);
+		return e;
+	}
+}
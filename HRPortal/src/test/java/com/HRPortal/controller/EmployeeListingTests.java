@@ -0,0 +1,174 @@
+package com.HRPortal.controller;
+
+import com.HRPortal.dto.EmployeeDTO;
+import com.HRPortal.dto.EmployeePageDTO;
+import com.HRPortal.entity.Employees;
+import com.HRPortal.repository.EmployeesRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class EmployeeListingTests {
+
+	private static final String[] LAST_NAMES = {"Young", "Adams", "Nguyen", "Baker", "Adams", "Khan", "Baker"};
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@BeforeEach
+	void seed() {
+		List<Employees> employees = new ArrayList<>();
+		for (int i = 0; i < LAST_NAMES.length; i++) {
+			Employees e = new Employees();
+			e.setFirst_name("First" + i);
+			e.setLast_name(LAST_NAMES[i]);
+			e.setEmail("listing" + i + "@example.com");
+			e.setTitle("Engineer");
+			employees.add(e);
+		}
+		employeesRepo.saveAll(employees);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		employeesRepo.deleteAll();
+	}
+
+	@Test
+	void keysetPagesCoverEveryRowOnceInIdOrder() throws Exception {
+		List<Integer> seen = new ArrayList<>();
+		String cursor = null;
+		do {
+			EmployeePageDTO page = fetchPage(3, cursor, "employee_id");
+			page.getItems().forEach(dto -> seen.add(dto.getEmployee_id()));
+			cursor = page.getNext_cursor();
+		} while (cursor != null);
+
+		assertThat(seen).hasSize(LAST_NAMES.length).isSorted().doesNotHaveDuplicates();
+	}
+
+	@Test
+	void keysetPagesByLastNameBreakTiesOnId() throws Exception {
+		assertThat(lastNamesFrom(null, 2)).containsExactly("Adams", "Adams", "Baker", "Baker", "Khan", "Nguyen", "Young");
+	}
+
+	@Test
+	void deletingTheLastRowOfAPageDoesNotBreakTheScan() throws Exception {
+		EmployeePageDTO first = fetchPage(3, null, "last_name");
+		assertThat(first.getItems()).extracting(EmployeeDTO::getLast_name).containsExactly("Adams", "Adams", "Baker");
+		employeesRepo.deleteById(first.getItems().get(2).getEmployee_id());
+
+		assertThat(lastNamesFrom(first.getNext_cursor(), 3)).containsExactly("Baker", "Khan", "Nguyen", "Young");
+	}
+
+	@Test
+	void renamingTheLastRowOfAPageNeitherSkipsNorRepeatsTheRest() throws Exception {
+		EmployeePageDTO first = fetchPage(3, null, "last_name");
+		Employees boundary = employeesRepo.findById(first.getItems().get(2).getEmployee_id()).orElseThrow();
+		boundary.setLast_name("Zimmer");
+		employeesRepo.save(boundary);
+
+		// the scan continues after Baker; the renamed row is met again at its new place
+		assertThat(lastNamesFrom(first.getNext_cursor(), 3)).containsExactly("Baker", "Khan", "Nguyen", "Young", "Zimmer");
+	}
+
+	@Test
+	void rowsWithoutALastNameComeFirstAndArePagedToo() throws Exception {
+		for (int i = 0; i < 2; i++) {
+			Employees unnamed = new Employees();
+			unnamed.setFirst_name("Unnamed" + i);
+			unnamed.setEmail("unnamed" + i + "@example.com");
+			employeesRepo.save(unnamed);
+		}
+
+		assertThat(lastNamesFrom(null, 1))
+				.containsExactly(null, null, "Adams", "Adams", "Baker", "Baker", "Khan", "Nguyen", "Young");
+	}
+
+	@Test
+	void rejectsMalformedAndMismatchedCursors() throws Exception {
+		mockMvc.perform(get("/api/employee/list").param("after", "not a cursor"))
+				.andExpect(status().isBadRequest());
+		String byLastName = fetchPage(1, null, "last_name").getNext_cursor();
+		mockMvc.perform(get("/api/employee/list").param("after", byLastName).param("sort", "employee_id"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void rejectsOversizedPages() throws Exception {
+		mockMvc.perform(get("/api/employee/list").param("size", "100000"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void getStillReturnsJsonArrayOfAllEmployees() throws Exception {
+		MvcResult started = mockMvc.perform(get("/api/employee/get"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(LAST_NAMES.length));
+	}
+
+	@Test
+	void streamWritesOneJsonObjectPerLine() throws Exception {
+		MvcResult started = mockMvc.perform(get("/api/employee/stream"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		String body = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+				.andReturn().getResponse().getContentAsString();
+
+		String[] lines = body.split("\n");
+		assertThat(lines).hasSize(LAST_NAMES.length);
+		assertThat(objectMapper.readTree(lines[0]).get("email").asText()).startsWith("listing");
+	}
+
+	// Last names of the rest of the last-name listing, from cursor on
+	private List<String> lastNamesFrom(String cursor, int size) throws Exception {
+		List<String> names = new ArrayList<>();
+		do {
+			EmployeePageDTO page = fetchPage(size, cursor, "last_name");
+			page.getItems().forEach(dto -> names.add(dto.getLast_name()));
+			cursor = page.getNext_cursor();
+		} while (cursor != null);
+		return names;
+	}
+
+	private EmployeePageDTO fetchPage(int size, String after, String sort) throws Exception {
+		var request = get("/api/employee/list").param("size", String.valueOf(size)).param("sort", sort);
+		if (after != null) {
+			request.param("after", after);
+		}
+		String json = mockMvc.perform(request)
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readValue(json, EmployeePageDTO.class);
+	}
+}
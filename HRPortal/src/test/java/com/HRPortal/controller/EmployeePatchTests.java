@@ -0,0 +1,170 @@
+package com.HRPortal.controller;
+
+import com.HRPortal.entity.Department;
+import com.HRPortal.entity.Employees;
+import com.HRPortal.repository.DepartmentRepo;
+import com.HRPortal.repository.EmployeesRepo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class EmployeePatchTests {
+
+	private static final MediaType MERGE_PATCH = MediaType.parseMediaType("application/merge-patch+json");
+	private static final String UI_ORIGIN = "http://localhost:5173";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private DepartmentRepo departmentRepo;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private int id;
+	private Department engineering;
+
+	@BeforeEach
+	void setUp() {
+		engineering = department("Patch Engineering", 5);
+		// one seat held by the employee below
+		engineering.setSeats_left(4);
+		engineering = departmentRepo.save(engineering);
+		Employees employee = new Employees();
+		employee.setFirst_name("Grace");
+		employee.setLast_name("Hopper");
+		employee.setEmail("ghopper@example.com");
+		employee.setTitle("Engineer");
+		employee.setDepartment(engineering);
+		id = employeesRepo.save(employee).getEmployee_id();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		employeesRepo.deleteAll();
+		departmentRepo.deleteAll();
+	}
+
+	@Test
+	void theUiMayPatchCrossOriginAndReadTheETag() throws Exception {
+		mockMvc.perform(options("/api/employee/" + id)
+						.header(HttpHeaders.ORIGIN, UI_ORIGIN)
+						.header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "PATCH")
+						.header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "content-type, if-match"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, UI_ORIGIN))
+				.andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, containsString("PATCH")))
+				.andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, containsString("if-match")));
+
+		mockMvc.perform(mergePatch(id, "{\"title\": \"Commodore\"}").header(HttpHeaders.ORIGIN, UI_ORIGIN))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, containsString("ETag")));
+	}
+
+	@Test
+	void patchChangesOnlyTheGivenFieldsAndAdvancesTheETag() throws Exception {
+		mockMvc.perform(get("/api/employee/get-by-id/" + id))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+
+		mockMvc.perform(mergePatch(id, "{\"title\": \"Rear Admiral\"}").header(HttpHeaders.IF_MATCH, "\"0\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+				.andExpect(jsonPath("$.title").value("Rear Admiral"))
+				.andExpect(jsonPath("$.first_name").value("Grace"))
+				.andExpect(jsonPath("$.email").value("ghopper@example.com"))
+				.andExpect(jsonPath("$.department_id").value(engineering.getDepartmentId()))
+				.andExpect(jsonPath("$.version").doesNotExist());
+
+		mockMvc.perform(get("/api/employee/get-by-id/" + id).header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+				.andExpect(status().isNotModified());
+		// UPDATE statements list only dirty columns
+		assertThat(entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+				.getEntityDescriptor(Employees.class).getEntityMetamodel().isDynamicUpdate()).isTrue();
+	}
+
+	@Test
+	void staleIfMatchIsRejectedAndTheRowKept() throws Exception {
+		mockMvc.perform(mergePatch(id, "{\"title\": \"First editor\"}").header(HttpHeaders.IF_MATCH, "\"0\""))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(mergePatch(id, "{\"title\": \"Second editor\"}").header(HttpHeaders.IF_MATCH, "\"0\""))
+				.andExpect(status().isPreconditionFailed());
+		mockMvc.perform(mergePatch(id, "{\"title\": \"Second editor\"}").header(HttpHeaders.IF_MATCH, "W/\"1\""))
+				.andExpect(status().isPreconditionFailed());
+		assertThat(employeesRepo.findById(id).orElseThrow().getTitle()).isEqualTo("First editor");
+
+		mockMvc.perform(mergePatch(id, "{\"title\": \"Second editor\"}").header(HttpHeaders.IF_MATCH, "*"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+	}
+
+	@Test
+	void nullRemovesOptionalFieldsAndDepartmentMovesReleaseSeats() throws Exception {
+		Department research = departmentRepo.save(department("Patch Research", 5));
+
+		mockMvc.perform(mergePatch(id, "{\"department_id\": " + research.getDepartmentId() + "}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.department_name").value("Patch Research"));
+		assertThat(departmentRepo.findById((long) research.getDepartmentId()).orElseThrow().getSeats_left()).isEqualTo(4);
+		assertThat(departmentRepo.findById((long) engineering.getDepartmentId()).orElseThrow().getSeats_left()).isEqualTo(5);
+
+		mockMvc.perform(mergePatch(id, "{\"title\": null, \"department_id\": null}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.title").value(nullValue()))
+				.andExpect(jsonPath("$.department_id").value(0));
+		assertThat(departmentRepo.findById((long) research.getDepartmentId()).orElseThrow().getSeats_left()).isEqualTo(5);
+	}
+
+	@Test
+	void invalidPatchesAreRejected() throws Exception {
+		mockMvc.perform(mergePatch(id, "{\"first_name\": null}")).andExpect(status().isBadRequest());
+		mockMvc.perform(mergePatch(id, "{\"photograph_path\": \"/etc/passwd\"}")).andExpect(status().isBadRequest());
+		mockMvc.perform(mergePatch(id, "{\"department_id\": \"research\"}")).andExpect(status().isBadRequest());
+		mockMvc.perform(mergePatch(id, "{\"department_id\": 999999}")).andExpect(status().isNotFound());
+		mockMvc.perform(mergePatch(0, "{\"title\": \"Nobody\"}")).andExpect(status().isNotFound());
+
+		mockMvc.perform(get("/api/employee/get-by-id/" + id))
+				.andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+				.andExpect(jsonPath("$.title").value("Engineer"));
+	}
+
+	private static MockHttpServletRequestBuilder mergePatch(int id, String json) {
+		return patch("/api/employee/" + id)
+				.contentType(MERGE_PATCH)
+				.content(json);
+	}
+
+	private static Department department(String name, int seats) {
+		Department department = new Department();
+		department.setName(name);
+		department.setCapacity(seats);
+		department.setSeats_left(seats);
+		return department;
+	}
+}
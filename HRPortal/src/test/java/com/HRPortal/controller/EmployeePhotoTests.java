@@ -0,0 +1,333 @@
+package com.HRPortal.controller;
+
+import com.HRPortal.helper.LocalPhotoStore;
+import com.HRPortal.repository.EmployeesRepo;
+import com.HRPortal.service.PhotoGarbageCollector;
+import com.HRPortal.service.PhotoJobService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class EmployeePhotoTests {
+
+	private static final byte[] PHOTO = "not really a jpeg but good enough for serving".getBytes(StandardCharsets.UTF_8);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private PhotoJobService photoJobs;
+
+	@Autowired
+	private PhotoGarbageCollector collector;
+
+	@AfterEach
+	void cleanUp() {
+		employeesRepo.deleteAll();
+	}
+
+	@Test
+	void photoIsStoredUnderItsContentHashAndServedWithVersionedUrl() throws Exception {
+		JsonNode created = addEmployee("hash@example.com", PHOTO);
+		String photoPath = created.get("photograph_path").asText();
+		String photoUrl = created.get("photo_url").asText();
+
+		assertThat(photoPath).matches("/uploads/employee_photos/[0-9a-f]{64}\\.jpg");
+		assertThat(photoUrl).startsWith("/api/employee/image/" + created.get("employee_id").asInt() + "?v=");
+
+		mockMvc.perform(get(photoUrl))
+				.andExpect(status().isOk())
+				.andExpect(content().bytes(PHOTO))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + photoUrl.substring(photoUrl.indexOf("?v=") + 3) + "\""));
+	}
+
+	@Test
+	void unversionedRequestsRevalidateAndGetNotModified() throws Exception {
+		JsonNode created = addEmployee("revalidate@example.com", PHOTO);
+		String url = "/api/employee/image/" + created.get("employee_id").asInt();
+
+		String etag = mockMvc.perform(get(url))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void rangeRequestsReturnPartialContent() throws Exception {
+		JsonNode created = addEmployee("range@example.com", PHOTO);
+
+		mockMvc.perform(get(created.get("photo_url").asText()).header(HttpHeaders.RANGE, "bytes=0-6"))
+				.andExpect(status().isPartialContent())
+				.andExpect(content().bytes("not rea".getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	void unsatisfiableRangeIsRejectedWithContentRange() throws Exception {
+		JsonNode created = addEmployee("badrange@example.com", PHOTO);
+
+		mockMvc.perform(get(created.get("photo_url").asText()).header(HttpHeaders.RANGE, "bytes=1000-"))
+				.andExpect(status().isRequestedRangeNotSatisfiable())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + PHOTO.length));
+	}
+
+	@Test
+	void filesAboveTheMappedLimitAreStreamedWholeAndByRange() throws Exception {
+		byte[] large = new byte[300_000];
+		new Random(7).nextBytes(large);
+		JsonNode created = addEmployee("large@example.com", large);
+		String url = created.get("photo_url").asText();
+
+		mockMvc.perform(get(url))
+				.andExpect(status().isOk())
+				.andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, large.length))
+				.andExpect(content().bytes(large));
+		mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=-10"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE,
+						"bytes " + (large.length - 10) + "-" + (large.length - 1) + "/" + large.length))
+				.andExpect(content().bytes(Arrays.copyOfRange(large, large.length - 10, large.length)));
+		mockMvc.perform(head(url))
+				.andExpect(status().isOk())
+				.andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, large.length))
+				.andExpect(content().bytes(new byte[0]));
+	}
+
+	@Test
+	void identicalUploadsShareOneFile() throws Exception {
+		JsonNode first = addEmployee("twin1@example.com", PHOTO);
+		JsonNode second = addEmployee("twin2@example.com", PHOTO);
+
+		assertThat(second.get("photograph_path").asText()).isEqualTo(first.get("photograph_path").asText());
+	}
+
+	@Test
+	void sizeParameterServesCachedThumbnail() throws Exception {
+		BufferedImage large = new BufferedImage(600, 300, BufferedImage.TYPE_INT_RGB);
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		ImageIO.write(large, "png", png);
+		JsonNode created = addEmployee("thumb@example.com", png.toByteArray(), "portrait.png");
+		String url = created.get("photo_url").asText();
+
+		MvcResult thumbnail = mockMvc.perform(get(url).param("size", "50"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, endsWith("-64\"")))
+				.andReturn();
+		BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(thumbnail.getResponse().getContentAsByteArray()));
+
+		assertThat(decoded.getWidth()).isEqualTo(64);
+		assertThat(decoded.getHeight()).isEqualTo(32);
+		assertThat(thumbnail.getResponse().getContentAsByteArray().length).isLessThan(png.size());
+	}
+
+	@Test
+	void photosThatAreNotDecodedAreServedAsTheyAreAndNotReadAgain() throws Exception {
+		// a valid PNG header claiming 50000 x 50000 pixels: refused from the header, nothing is allocated
+		ByteArrayOutputStream bomb = new ByteArrayOutputStream();
+		bomb.write(new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+		ByteBuffer header = ByteBuffer.allocate(17).put("IHDR".getBytes(StandardCharsets.US_ASCII))
+				.putInt(50_000).putInt(50_000).put(new byte[] {8, 2, 0, 0, 0});
+		CRC32 crc = new CRC32();
+		crc.update(header.array());
+		bomb.write(ByteBuffer.allocate(4).putInt(13).array());
+		bomb.write(header.array());
+		bomb.write(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+		// photos are named by content and markers outlive the test, so both are new every run
+		bomb.write(ByteBuffer.allocate(8).putLong(System.nanoTime()).array());
+		byte[] notAnImage = ("no image decoder will take this " + System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+		// a JPEG cut off inside its headers, made unique by a comment segment after the start marker
+		ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(40, 20, BufferedImage.TYPE_INT_RGB), "jpg", jpeg);
+		byte[] comment = ("truncated " + System.nanoTime()).getBytes(StandardCharsets.US_ASCII);
+		ByteArrayOutputStream truncated = new ByteArrayOutputStream();
+		truncated.write(new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xFE});
+		truncated.write(ByteBuffer.allocate(2).putShort((short) (comment.length + 2)).array());
+		truncated.write(comment);
+		truncated.write(jpeg.toByteArray(), 2, 30);
+
+		for (byte[] photo : List.of(bomb.toByteArray(), notAnImage, truncated.toByteArray())) {
+			double before = meterRegistry.get("photo.variants.undecodable").counter().count();
+			String url = addEmployee("undecoded-" + photo.length + "@example.com", photo, "portrait.png").get("photo_url").asText();
+			for (String size : List.of("50", "50", "200")) {
+				mockMvc.perform(get(url).param("size", size))
+						.andExpect(status().isOk())
+						.andExpect(content().bytes(photo));
+			}
+			assertThat(meterRegistry.get("photo.variants.undecodable").counter().count() - before).isEqualTo(1);
+		}
+	}
+
+	@Test
+	void rawBodyUploadIsTypedFromContentAndReplacesThePhoto() throws Exception {
+		JsonNode created = addEmployee("stream@example.com", PHOTO);
+		int id = created.get("employee_id").asInt();
+		byte[] png = png(40, 20);
+		double uploadedBefore = meterRegistry.get("photo.upload.bytes").summary().totalAmount();
+
+		String json = mockMvc.perform(put("/api/employee/" + id + "/photo").contentType(MediaType.IMAGE_PNG).content(png))
+				.andExpect(status().isAccepted())
+				.andReturn().getResponse().getContentAsString();
+		// queued: the old photo stays until the job has run
+		assertThat(objectMapper.readTree(json).get("photo_status").asText()).isEqualTo("PENDING");
+		assertThat(objectMapper.readTree(json).get("photograph_path").asText()).isEqualTo(created.get("photograph_path").asText());
+		JsonNode updated = processed(id);
+
+		assertThat(updated.get("photo_status").asText()).isEqualTo("READY");
+		assertThat(updated.get("photograph_path").asText()).matches("/uploads/employee_photos/[0-9a-f]{64}\\.png");
+		mockMvc.perform(get(updated.get("photo_url").asText()))
+				.andExpect(status().isOk())
+				.andExpect(content().bytes(png));
+		// the replaced photo is no longer referenced, but only the garbage collector deletes it
+		String oldName = created.get("photograph_path").asText().substring("/uploads/employee_photos/".length());
+		assertThat(new LocalPhotoStore(Path.of("target/test-uploads/employee_photos")).exists(oldName)).isTrue();
+		assertThat(meterRegistry.get("photo.upload.bytes").summary().totalAmount() - uploadedBefore).isEqualTo(png.length);
+	}
+
+	@Test
+	void rawBodyUploadRejectsNonImagesAndOversizedBodies() throws Exception {
+		int id = addEmployee("stream-bad@example.com", null).get("employee_id").asInt();
+
+		mockMvc.perform(put("/api/employee/" + id + "/photo").contentType(MediaType.IMAGE_JPEG).content(PHOTO))
+				.andExpect(status().isUnsupportedMediaType());
+		byte[] oversized = new byte[1024 * 1024 + 1];
+		oversized[0] = (byte) 0xFF;
+		oversized[1] = (byte) 0xD8;
+		oversized[2] = (byte) 0xFF;
+		mockMvc.perform(put("/api/employee/" + id + "/photo").contentType(MediaType.IMAGE_JPEG).content(oversized))
+				.andExpect(status().isPayloadTooLarge());
+		mockMvc.perform(put("/api/employee/0/photo").contentType(MediaType.IMAGE_PNG).content(png(4, 4)))
+				.andExpect(status().isNotFound());
+
+		try (Stream<Path> files = Files.walk(Path.of("target/test-uploads/employee_photos"))) {
+			assertThat(files.map(path -> path.getFileName().toString())).noneMatch(name -> name.endsWith(".tmp"));
+		}
+		try (Stream<Path> staged = Files.list(Path.of("target/test-uploads/employee_photos/incoming"))) {
+			assertThat(staged).isEmpty();
+		}
+		mockMvc.perform(get("/api/employee/image/" + id))
+				.andExpect(status().isNoContent());
+	}
+
+	@Test
+	void employeeWithoutPhotoAnswersNoContent() throws Exception {
+		JsonNode created = addEmployee("nophoto@example.com", null);
+
+		assertThat(created.get("photo_url").isNull()).isTrue();
+		mockMvc.perform(get("/api/employee/image/" + created.get("employee_id").asInt()))
+				.andExpect(status().isNoContent());
+		mockMvc.perform(get("/api/employee/image/0"))
+				.andExpect(status().isNotFound());
+	}
+
+	private static byte[] png(int width, int height) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+		return out.toByteArray();
+	}
+
+	@Test
+	void photosOfDeletedEmployeesAreLeftToTheGarbageCollector() throws Exception {
+		byte[] shared = "the same photo for two employees".getBytes(StandardCharsets.UTF_8);
+		JsonNode first = addEmployee("shared-1@example.com", shared);
+		JsonNode second = addEmployee("shared-2@example.com", shared);
+		String name = first.get("photograph_path").asText().substring("/uploads/employee_photos/".length());
+		assertThat(second.get("photograph_path").asText()).isEqualTo(first.get("photograph_path").asText());
+		LocalPhotoStore store = new LocalPhotoStore(Path.of("target/test-uploads/employee_photos"));
+
+		mockMvc.perform(delete("/api/employee/delete/" + first.get("employee_id").asInt())).andExpect(status().isOk());
+		assertThat(store.exists(name)).isTrue();
+
+		mockMvc.perform(delete("/api/employee/delete/" + second.get("employee_id").asInt())).andExpect(status().isOk());
+		assertThat(store.exists(name)).isTrue();
+
+		// once it is older than photo.gc.min-age
+		Files.setLastModifiedTime(store.localFile(name), FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+		collector.reconcile();
+		assertThat(store.exists(name)).isFalse();
+	}
+
+	private JsonNode addEmployee(String email, byte[] photo) throws Exception {
+		return addEmployee(email, photo, "portrait.JPG");
+	}
+
+	private JsonNode addEmployee(String email, byte[] photo, String fileName) throws Exception {
+		MockMultipartHttpServletRequestBuilder request = multipart("/api/employee/add");
+		request.param("first_name", "Photo")
+				.param("last_name", "Owner")
+				.param("email", email)
+				.param("title", "Model");
+		if (photo != null) {
+			request.file(new MockMultipartFile("photograph", fileName, "image/jpeg", photo));
+		}
+		JsonNode created = objectMapper.readTree(mockMvc.perform(request)
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString());
+		if (photo == null) {
+			return created;
+		}
+		assertThat(created.get("photo_status").asText()).isEqualTo("PENDING");
+		return processed(created.get("employee_id").asInt());
+	}
+
+	// The employee as it reads once the queued photo jobs have run
+	private JsonNode processed(int id) throws Exception {
+		assertThat(photoJobs.awaitIdle(Duration.ofSeconds(10))).isTrue();
+		return objectMapper.readTree(mockMvc.perform(get("/api/employee/get-by-id/" + id))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+	}
+}
@@ -0,0 +1,200 @@
+package com.HRPortal.controller;
+
+import com.HRPortal.entity.Department;
+import com.HRPortal.entity.Employees;
+import com.HRPortal.repository.DepartmentRepo;
+import com.HRPortal.repository.EmployeesRepo;
+import com.HRPortal.service.EmployeeChangedEvent;
+import com.HRPortal.service.EmployeeSearchIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class EmployeeSearchTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private DepartmentRepo departmentRepo;
+
+	@Autowired
+	private EmployeeSearchIndex searchIndex;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ApplicationEventPublisher events;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Department research;
+	private int glenn;
+
+	@BeforeEach
+	void seed() {
+		research = new Department();
+		research.setName("Research Lab");
+		research = departmentRepo.save(research);
+
+		employeesRepo.save(employee("Katherine", "Johnson", "kjohnson@nasa.example", "Mathematician", research));
+		employeesRepo.save(employee("Dorothy", "Vaughan", "dvaughan@nasa.example", "Supervisor", null));
+		glenn = employeesRepo.save(employee("John", "Glenn", "jglenn@nasa.example", "Astronaut", null)).getEmployee_id();
+		searchIndex.build();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		employeesRepo.deleteAll();
+		departmentRepo.delete(research);
+	}
+
+	@Test
+	void prefixesMatchAcrossFieldsAndRankExactFirst() throws Exception {
+		assertThat(lastNames("john")).containsExactly("Glenn", "Johnson");
+		assertThat(lastNames("mathem")).containsExactly("Johnson");
+		assertThat(lastNames("research")).containsExactly("Johnson");
+		assertThat(lastNames("dvaughan@nasa")).containsExactly("Vaughan");
+		assertThat(lastNames("nasa")).hasSize(3);
+	}
+
+	@Test
+	void allTermsMustMatchAndTyposAreTolerated() throws Exception {
+		assertThat(lastNames("kath johnson")).containsExactly("Johnson");
+		assertThat(lastNames("kath glenn")).isEmpty();
+		// one substitution, one transposition, one missing letter
+		assertThat(lastNames("dorathy")).containsExactly("Vaughan");
+		assertThat(lastNames("astornaut")).containsExactly("Glenn");
+		assertThat(lastNames("supervsor")).containsExactly("Vaughan");
+		assertThat(lastNames("zzzz")).isEmpty();
+	}
+
+	@Test
+	void indexFollowsAddUpdateDeleteAndImport() throws Exception {
+		int id = objectMapper.readTree(mockMvc.perform(multipart("/api/employee/add")
+						.param("first_name", "Mary")
+						.param("last_name", "Jackson")
+						.param("email", "mjackson@nasa.example")
+						.param("title", "Engineer"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString()).get("employee_id").asInt();
+		assertThat(lastNames("mary")).containsExactly("Jackson");
+
+		mockMvc.perform(multipart("/api/employee/update/" + id)
+						.param("first_name", "Mary")
+						.param("last_name", "Jackson")
+						.param("email", "mjackson@nasa.example")
+						.param("title", "Aerospace Engineer")
+						.with(request -> {
+							request.setMethod("PUT");
+							return request;
+						}))
+				.andExpect(status().isOk());
+		assertThat(lastNames("aerospace")).containsExactly("Jackson");
+
+		mockMvc.perform(delete("/api/employee/delete/" + id)).andExpect(status().isOk());
+		assertThat(lastNames("mary")).isEmpty();
+
+		mockMvc.perform(post("/api/employee/import")
+						.contentType(MediaType.parseMediaType("text/csv"))
+						.content("first_name,last_name,email\nChristine,Darden,cdarden@nasa.example\n"))
+				.andExpect(status().isOk());
+		assertThat(lastNames("christine")).containsExactly("Darden");
+	}
+
+	@Test
+	void anOlderVersionNeverReplacesANewerOne() throws Exception {
+		mockMvc.perform(multipart("/api/employee/update/" + glenn)
+						.param("first_name", "John")
+						.param("last_name", "Glenn")
+						.param("email", "jglenn@nasa.example")
+						.param("title", "Senator")
+						.with(request -> {
+							request.setMethod("PUT");
+							return request;
+						}))
+				.andExpect(status().isOk());
+		assertThat(lastNames("senator")).containsExactly("Glenn");
+
+		// a late event whose read saw the row before that update
+		jdbcTemplate.update("UPDATE employees SET title = 'Astronaut', version = version - 1 WHERE employee_id = ?", glenn);
+		events.publishEvent(new EmployeeChangedEvent(glenn));
+		assertThat(lastNames("senator")).containsExactly("Glenn");
+		assertThat(lastNames("astronaut")).isEmpty();
+	}
+
+	@Test
+	void aRebuildDropsTheTombstonesOfEarlierDeletes() throws Exception {
+		assertThat(tombstones()).isZero();
+		mockMvc.perform(delete("/api/employee/delete/" + glenn)).andExpect(status().isOk());
+		assertThat(tombstones()).isEqualTo(1);
+		assertThat(lastNames("glenn")).isEmpty();
+
+		searchIndex.build();
+		assertThat(tombstones()).isZero();
+		assertThat(lastNames("glenn")).isEmpty();
+		assertThat(lastNames("nasa")).containsExactly("Johnson", "Vaughan");
+	}
+
+	@Test
+	void blankQueriesAndOversizedLimitsAreRejected() throws Exception {
+		mockMvc.perform(get("/api/employee/search").param("q", " .,")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/employee/search").param("q", "john").param("limit", "1000"))
+				.andExpect(status().isBadRequest());
+	}
+
+	private double tombstones() {
+		return meterRegistry.get("employee.search.tombstones").gauge().value();
+	}
+
+	private List<String> lastNames(String query) throws Exception {
+		String json = mockMvc.perform(get("/api/employee/search").param("q", query))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		List<String> names = new ArrayList<>();
+		for (JsonNode node : objectMapper.readTree(json)) {
+			names.add(node.get("last_name").asText());
+		}
+		return names;
+	}
+
+	private static Employees employee(String first, String last, String email, String title, Department department) {
+		Employees e = new Employees();
+		e.setFirst_name(first);
+		e.setLast_name(last);
+		e.setEmail(email);
+		e.setTitle(title);
+		e.setDepartment(department);
+		return e;
+	}
+}
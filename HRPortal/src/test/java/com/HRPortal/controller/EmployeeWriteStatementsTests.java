@@ -0,0 +1,203 @@
+package com.HRPortal.controller;
+
+import com.HRPortal.entity.Department;
+import com.HRPortal.helper.LocalPhotoStore;
+import com.HRPortal.repository.DepartmentRepo;
+import com.HRPortal.repository.EmployeesRepo;
+import com.HRPortal.service.PhotoJobService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Statements per write request (from hibernate.statements.per.request) and photo files on rollback.
+// Photo processing runs on the photo job workers and is not part of any request's count.
+@SpringBootTest
+@AutoConfigureMockMvc
+class EmployeeWriteStatementsTests {
+
+	private static final Path PHOTOS = Path.of("target/test-uploads/employee_photos");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private DepartmentRepo departmentRepo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private PhotoJobService photoJobs;
+
+	private int departmentId;
+	private int otherDepartmentId;
+
+	@BeforeEach
+	void setUp() {
+		departmentId = departmentRepo.save(department("Statements A")).getDepartmentId();
+		otherDepartmentId = departmentRepo.save(department("Statements B")).getDepartmentId();
+	}
+
+	@AfterEach
+	void cleanUp() throws Exception {
+		assertThat(photoJobs.awaitIdle(Duration.ofSeconds(10))).isTrue();
+		employeesRepo.deleteAll();
+		departmentRepo.deleteAll();
+	}
+
+	@Test
+	void writesUseOneReadAndOneWrite() throws Exception {
+		int added = statements("/api/employee/add", () -> mockMvc.perform(employee("/api/employee/add", "writes@example.com", 0))
+				.andExpect(status().isCreated()));
+		int id = employeesRepo.findAll().get(0).getEmployee_id();
+		int addedWithPhoto = statements("/api/employee/add", () -> mockMvc.perform(
+						employee("/api/employee/add", "writes-photo@example.com", departmentId).file(photo("add")))
+				.andExpect(status().isCreated()));
+		int updated = statements("/api/employee/update/{emp_id}", () -> mockMvc.perform(
+						employee("/api/employee/update/" + id, "writes@example.com", 0).file(photo("update")).with(asPut()))
+				.andExpect(status().isOk()));
+		// the photo job bumps the version when it lands; a PUT racing it would get 409
+		assertThat(photoJobs.awaitIdle(Duration.ofSeconds(10))).isTrue();
+		int transferred = statements("/api/employee/update/{emp_id}", () -> mockMvc.perform(
+						employee("/api/employee/update/" + id, "writes@example.com", otherDepartmentId).with(asPut()))
+				.andExpect(status().isOk()));
+		int uploaded = statements("/api/employee/{emp_id}/photo", () -> mockMvc.perform(
+						put("/api/employee/" + id + "/photo").contentType(MediaType.IMAGE_PNG).content(png()))
+				.andExpect(status().isAccepted()));
+
+		System.out.printf("[statements] add %d, add with photo and department %d, update with photo %d, "
+				+ "update with transfer %d, raw photo upload %d%n", added, addedWithPhoto, updated, transferred, uploaded);
+		// every write below is followed by one DTO read when the search index picks up the change after commit
+		// INSERT
+		assertThat(added).isEqualTo(2);
+		// department read, seat reservation, INSERT, photo job INSERT
+		assertThat(addedWithPhoto).isEqualTo(5);
+		// employee read (second-level cache hit here), photo job INSERT, one UPDATE
+		assertThat(updated).isLessThanOrEqualTo(4);
+		// employee read, department read, seat reservation, UPDATE
+		assertThat(transferred).isLessThanOrEqualTo(5);
+		// existence check before the body, employee read, photo job INSERT, UPDATE
+		assertThat(uploaded).isLessThanOrEqualTo(5);
+	}
+
+	@Test
+	void photoOfARolledBackAddIsRemoved() throws Exception {
+		mockMvc.perform(employee("/api/employee/add", "taken@example.com", 0)).andExpect(status().isCreated());
+		List<String> before = photoFiles();
+
+		assertThatThrownBy(() -> mockMvc.perform(
+				employee("/api/employee/add", "taken@example.com", 0).file(photo("rolled back add"))));
+
+		assertThat(photoFiles()).isEqualTo(before);
+		assertThat(employeesRepo.count()).isEqualTo(1);
+	}
+
+	@Test
+	void photoOfARolledBackUpdateIsRemovedAndTheOldOneKept() throws Exception {
+		mockMvc.perform(employee("/api/employee/add", "first@example.com", 0)).andExpect(status().isCreated());
+		JsonNode second = objectMapper.readTree(mockMvc.perform(
+						employee("/api/employee/add", "second@example.com", 0).file(photo("kept")))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString());
+		assertThat(photoJobs.awaitIdle(Duration.ofSeconds(10))).isTrue();
+		String kept = objectMapper.readTree(mockMvc.perform(get("/api/employee/get-by-id/" + second.get("employee_id").asInt()))
+				.andReturn().getResponse().getContentAsString()).get("photograph_path").asText();
+		List<String> before = photoFiles();
+
+		// the duplicate email only fails when the UPDATE is flushed at commit
+		assertThatThrownBy(() -> mockMvc.perform(employee("/api/employee/update/" + second.get("employee_id").asInt(),
+				"first@example.com", 0).file(photo("rolled back update")).with(asPut())));
+
+		assertThat(photoFiles()).isEqualTo(before);
+		assertThat(new LocalPhotoStore(PHOTOS).exists(kept.substring(kept.lastIndexOf('/') + 1))).isTrue();
+		assertThat(employeesRepo.findById(second.get("employee_id").asInt()).orElseThrow().getPhotograph_path())
+				.isEqualTo(kept);
+	}
+
+	private int statements(String uri, Request request) throws Exception {
+		DistributionSummary summary = meterRegistry.find("hibernate.statements.per.request").tag("uri", uri).summary();
+		double before = summary != null ? summary.totalAmount() : 0;
+		request.perform();
+		return (int) (meterRegistry.get("hibernate.statements.per.request").tag("uri", uri).summary().totalAmount() - before);
+	}
+
+	private static MockMultipartHttpServletRequestBuilder employee(String url, String email, int departmentId) {
+		MockMultipartHttpServletRequestBuilder builder = multipart(url);
+		builder.param("first_name", "Write")
+				.param("last_name", "Statements")
+				.param("email", email)
+				.param("title", "Engineer");
+		if (departmentId != 0) {
+			builder.param("departmentId", String.valueOf(departmentId));
+		}
+		return builder;
+	}
+
+	private static RequestPostProcessor asPut() {
+		return request -> {
+			request.setMethod("PUT");
+			return request;
+		};
+	}
+
+	private static MockMultipartFile photo(String content) {
+		return new MockMultipartFile("photograph", "photo.jpg", "image/jpeg", content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static byte[] png() {
+		return new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 0};
+	}
+
+	// Stored photos plus uploads staged for the photo job workers
+	private static List<String> photoFiles() throws Exception {
+		try (Stream<String> stored = new LocalPhotoStore(PHOTOS).names();
+			 Stream<Path> staged = Files.list(PHOTOS.resolve("incoming"))) {
+			return Stream.concat(stored, staged.map(path -> path.getFileName().toString())).sorted().toList();
+		}
+	}
+
+	private static Department department(String name) {
+		Department department = new Department();
+		department.setName(name);
+		department.setCapacity(10);
+		department.setSeats_left(10);
+		return department;
+	}
+
+	private interface Request {
+		ResultActions perform() throws Exception;
+	}
+}
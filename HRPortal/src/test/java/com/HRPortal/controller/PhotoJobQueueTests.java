@@ -0,0 +1,243 @@
+package com.HRPortal.controller;
+
+import com.HRPortal.HRPortalApplication;
+import com.HRPortal.entity.Employees;
+import com.HRPortal.entity.PhotoJob;
+import com.HRPortal.entity.PhotoStatus;
+import com.HRPortal.helper.FileHelper;
+import com.HRPortal.helper.StagedPhoto;
+import com.HRPortal.repository.EmployeesRepo;
+import com.HRPortal.repository.PhotoJobRepo;
+import com.HRPortal.service.PhotoJobService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A backlog limit of 0 refuses every upload, so back-pressure can be checked without racing the workers
+@SpringBootTest(properties = {"photo.jobs.max-pending=0", "photo.jobs.node=" + PhotoJobQueueTests.NODE})
+@AutoConfigureMockMvc
+class PhotoJobQueueTests {
+
+	static final String NODE = "queue-tests";
+	private static final String OTHER_NODE = "queue-tests-other";
+	private static final Path INCOMING = Path.of("target/test-uploads/employee_photos/incoming");
+	// the second instance's disk
+	private static final Path OTHER_PHOTOS = Path.of("target/test-uploads-other/employee_photos");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private PhotoJobRepo jobRepo;
+
+	@Autowired
+	private PhotoJobService photoJobs;
+
+	@Autowired
+	private FileHelper fileHelper;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private DataSourceProperties dataSourceProperties;
+
+	@AfterEach
+	void cleanUp() throws Exception {
+		assertThat(photoJobs.awaitIdle(Duration.ofSeconds(10))).isTrue();
+		employeesRepo.deleteAll();
+	}
+
+	@Test
+	void fullBacklogRefusesUploadsWithRetryAfter() throws Exception {
+		List<String> stagedBefore = incoming();
+		mockMvc.perform(employee("/api/employee/add", "nophoto@example.com"))
+				.andExpect(status().isCreated());
+		int id = employeesRepo.findAll().get(0).getEmployee_id();
+
+		mockMvc.perform(employee("/api/employee/add", "photo@example.com")
+						.file(new MockMultipartFile("photograph", "photo.png", "image/png", png())))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+		mockMvc.perform(put("/api/employee/" + id + "/photo").contentType(MediaType.IMAGE_PNG).content(png()))
+				.andExpect(status().isServiceUnavailable());
+
+		assertThat(employeesRepo.count()).isEqualTo(1);
+		assertThat(jobRepo.count()).isZero();
+		assertThat(incoming()).isEqualTo(stagedBefore);
+	}
+
+	@Test
+	void jobsLeftByAPreviousRunAreResumed() throws Exception {
+		byte[] png = png();
+		Employees resumed = pending("resumed@example.com");
+		Employees lost = pending("lost@example.com");
+		StagedPhoto staged = fileHelper.stagePhoto(new ByteArrayInputStream(png), png.length);
+		jobRepo.save(job(resumed, staged.file().getFileName().toString()));
+		jobRepo.save(job(lost, "upload-missing.part"));
+
+		photoJobs.resume();
+		assertThat(photoJobs.awaitIdle(Duration.ofSeconds(10))).isTrue();
+
+		Employees ready = employeesRepo.findById(resumed.getEmployee_id()).orElseThrow();
+		assertThat(ready.getPhoto_status()).isEqualTo(PhotoStatus.READY);
+		assertThat(ready.getPhotograph_path()).matches("/uploads/employee_photos/[0-9a-f]{64}\\.png");
+		assertThat(Files.readAllBytes(fileHelper.resolvePhotoFile(ready.getPhotograph_path()))).isEqualTo(png);
+		assertThat(staged.file()).doesNotExist();
+		Employees failed = employeesRepo.findById(lost.getEmployee_id()).orElseThrow();
+		assertThat(failed.getPhoto_status()).isEqualTo(PhotoStatus.FAILED);
+		assertThat(failed.getPhotograph_path()).isNull();
+	}
+
+	@Test
+	void aRetryAfterTheStagedFileWasMovedStillFinishes() throws Exception {
+		byte[] png = png();
+		// an earlier run recorded the path and moved the file, then failed to commit the employee
+		String stored = fileHelper.promote(fileHelper.stagePhoto(new ByteArrayInputStream(png), png.length));
+		Employees retried = pending("retried@example.com");
+		PhotoJob job = job(retried, "upload-moved.part");
+		job.setPhoto_path(stored);
+		jobRepo.save(job);
+
+		photoJobs.resume();
+		assertThat(photoJobs.awaitIdle(Duration.ofSeconds(10))).isTrue();
+
+		Employees ready = employeesRepo.findById(retried.getEmployee_id()).orElseThrow();
+		assertThat(ready.getPhoto_status()).isEqualTo(PhotoStatus.READY);
+		assertThat(ready.getPhotograph_path()).isEqualTo(stored);
+	}
+
+	@Test
+	void jobsStagedOnAnotherInstanceAreLeftToIt() throws Exception {
+		Employees elsewhere = pending("elsewhere@example.com");
+		PhotoJob job = job(elsewhere, "upload-elsewhere.part");
+		job.setNode("another-instance");
+		job = jobRepo.save(job);
+
+		photoJobs.resume();
+		assertThat(photoJobs.awaitIdle(Duration.ofSeconds(10))).isTrue();
+
+		assertThat(jobRepo.findById(job.getId())).isPresent();
+		assertThat(employeesRepo.findById(elsewhere.getEmployee_id()).orElseThrow().getPhoto_status())
+				.isEqualTo(PhotoStatus.PENDING);
+		jobRepo.delete(job);
+	}
+
+	@Test
+	void cancellingLeavesAnotherInstancesJobToItsOwnSweep() throws Exception {
+		byte[] png = png();
+		Employees cancelled = pending("cancelled@example.com");
+		StagedPhoto here = fileHelper.stagePhoto(new ByteArrayInputStream(png), png.length);
+		PhotoJob ownJob = jobRepo.save(job(cancelled, here.file().getFileName().toString()));
+		Path there = Files.write(Files.createDirectories(OTHER_PHOTOS.resolve("incoming")).resolve("upload-other.part"), png);
+		PhotoJob otherJob = job(cancelled, there.getFileName().toString());
+		otherJob.setNode(OTHER_NODE);
+		otherJob = jobRepo.save(otherJob);
+		// counted as Upload.afterCompletion would, without handing the job to the workers
+		int backlog = ((AtomicInteger) ReflectionTestUtils.getField(photoJobs, "backlog")).incrementAndGet();
+
+		transactionTemplate.executeWithoutResult(status -> photoJobs.cancel(cancelled.getEmployee_id()));
+
+		// this instance drops its own job and file, and only the other's row is marked
+		assertThat(jobRepo.findById(ownJob.getId())).isEmpty();
+		assertThat(here.file()).doesNotExist();
+		assertThat(photoJobs.backlog()).isEqualTo(backlog - 1);
+		assertThat(jobRepo.findById(otherJob.getId()).orElseThrow().getCancelled_at()).isNotNull();
+		assertThat(there).exists();
+
+		// the other instance counts the marked row, then its sweep discards the file and deletes the row.
+		// It goes without the second-level cache: closing it would close the JCache manager both share.
+		try (ConfigurableApplicationContext other = new SpringApplicationBuilder(HRPortalApplication.class).run(
+				"--spring.datasource.url=" + dataSourceProperties.getUrl(),
+				"--server.port=0",
+				"--spring.jmx.enabled=false",
+				"--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+				"--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+				"--photo.jobs.node=" + OTHER_NODE,
+				"--file.upload-dir=target/test-uploads-other",
+				"--file.employee-photos-dir=" + OTHER_PHOTOS,
+				"--file.employee-photo-variants-dir=" + OTHER_PHOTOS.resolve("variants"))) {
+			PhotoJobService otherJobs = other.getBean(PhotoJobService.class);
+			assertThat(otherJobs.awaitIdle(Duration.ofSeconds(10))).isTrue();
+			assertThat(there).doesNotExist();
+			assertThat(jobRepo.findById(otherJob.getId())).isEmpty();
+			assertThat(otherJobs.backlog()).isZero();
+		}
+		assertThat(photoJobs.backlog()).isEqualTo(backlog - 1);
+		assertThat(employeesRepo.findById(cancelled.getEmployee_id()).orElseThrow().getPhoto_status())
+				.isEqualTo(PhotoStatus.PENDING);
+	}
+
+	private Employees pending(String email) {
+		Employees employee = new Employees();
+		employee.setFirst_name("Queued");
+		employee.setLast_name("Photo");
+		employee.setEmail(email);
+		employee.setPhoto_status(PhotoStatus.PENDING);
+		return employeesRepo.save(employee);
+	}
+
+	private PhotoJob job(Employees employee, String stagedFile) {
+		PhotoJob job = new PhotoJob();
+		job.setEmployee_id(employee.getEmployee_id());
+		job.setStaged_file(stagedFile);
+		job.setExtension(".png");
+		job.setNode(NODE);
+		job.setCreated_at(Instant.now());
+		return job;
+	}
+
+	private static MockMultipartHttpServletRequestBuilder employee(String url, String email) {
+		MockMultipartHttpServletRequestBuilder builder = multipart(url);
+		builder.param("first_name", "Queued")
+				.param("last_name", "Photo")
+				.param("email", email)
+				.param("title", "Engineer");
+		return builder;
+	}
+
+	private static List<String> incoming() throws Exception {
+		try (Stream<Path> files = Files.list(INCOMING)) {
+			return files.map(path -> path.getFileName().toString()).sorted().toList();
+		}
+	}
+
+	private static byte[] png() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), "png", out);
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,179 @@
+package com.HRPortal.controller;
+
+import com.HRPortal.entity.Employees;
+import com.HRPortal.helper.FileHelper;
+import com.HRPortal.repository.EmployeesRepo;
+import com.HRPortal.service.EmployeesService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Throughput and server-side allocation for photo downloads with 200 concurrent clients:
+// the previous ResponseEntity<Resource> path vs. PhotoFileServer (sendfile / mmap / transferTo).
+// Run with: mvn test -Pperf -Dtest=PhotoServingBenchmarkTests
+@Tag("perf")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(PhotoServingBenchmarkTests.LegacyImageController.class)
+class PhotoServingBenchmarkTests {
+
+	private static final int CLIENTS = 200;
+	private static final int REQUESTS_PER_CLIENT = 50;
+	private static final int[] PHOTO_SIZES = {20_000, 250_000};
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private FileHelper fileHelper;
+
+	@AfterEach
+	void cleanUp() {
+		employeesRepo.deleteAll();
+	}
+
+	@Test
+	void zeroCopyServingBeatsBufferedResources() throws Exception {
+		Random random = new Random(42);
+		for (int photoSize : PHOTO_SIZES) {
+			List<Integer> ids = new ArrayList<>();
+			for (int i = 0; i < 16; i++) {
+				byte[] photo = new byte[photoSize];
+				random.nextBytes(photo);
+				ids.add(addEmployeeWithPhoto(photo));
+			}
+
+			Result legacy = measure(ids, "/bench/legacy-image/", photoSize);
+			Result current = measure(ids, "/api/employee/image/", photoSize);
+
+			System.out.printf("[photo-serving] %,d B legacy  : %,.0f req/s, p99 %.1f ms, %,d B allocated/request%n",
+					photoSize, legacy.throughput, legacy.p99, legacy.allocatedPerRequest);
+			System.out.printf("[photo-serving] %,d B current : %,.0f req/s, p99 %.1f ms, %,d B allocated/request%n",
+					photoSize, current.throughput, current.p99, current.allocatedPerRequest);
+			assertThat(current.allocatedPerRequest).isLessThan(legacy.allocatedPerRequest);
+			employeesRepo.deleteAll();
+		}
+	}
+
+	private Result measure(List<Integer> ids, String prefix, int expectedBytes) throws Exception {
+		HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+		try {
+			// warm-up pass, also opens the keep-alive connections
+			run(client, pool, ids, prefix, 5, expectedBytes, new double[CLIENTS * 5]);
+
+			long allocatedBefore = serverAllocatedBytes();
+			double[] latencies = new double[CLIENTS * REQUESTS_PER_CLIENT];
+			long began = System.nanoTime();
+			run(client, pool, ids, prefix, REQUESTS_PER_CLIENT, expectedBytes, latencies);
+			double seconds = (System.nanoTime() - began) / 1e9;
+			long allocated = serverAllocatedBytes() - allocatedBefore;
+
+			Arrays.sort(latencies);
+			return new Result(latencies.length / seconds, latencies[(int) (latencies.length * 0.99)],
+					allocated / latencies.length);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private void run(HttpClient client, ExecutorService pool, List<Integer> ids, String prefix,
+					 int requestsPerClient, int expectedBytes, double[] latencies) throws Exception {
+		AtomicLong failures = new AtomicLong();
+		List<Future<?>> clients = new ArrayList<>();
+		for (int c = 0; c < CLIENTS; c++) {
+			int clientIndex = c;
+			clients.add(pool.submit(() -> {
+				for (int r = 0; r < requestsPerClient; r++) {
+					int id = ids.get((clientIndex + r) % ids.size());
+					HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + prefix + id)).build();
+					long began = System.nanoTime();
+					try {
+						HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+						if (response.statusCode() != 200 || response.body().length != expectedBytes) {
+							failures.incrementAndGet();
+						}
+					} catch (Exception e) {
+						failures.incrementAndGet();
+					}
+					latencies[clientIndex * requestsPerClient + r] = (System.nanoTime() - began) / 1e6;
+				}
+			}));
+		}
+		for (Future<?> future : clients) {
+			future.get();
+		}
+		assertThat(failures.get()).isZero();
+	}
+
+	// Allocation of the Tomcat worker threads only, so client-side buffers do not skew the numbers
+	private static long serverAllocatedBytes() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long total = 0;
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().startsWith("http-nio")) {
+				total += Math.max(0, threads.getThreadAllocatedBytes(thread.getId()));
+			}
+		}
+		return total;
+	}
+
+	private int addEmployeeWithPhoto(byte[] photo) throws Exception {
+		Employees employee = new Employees();
+		employee.setFirst_name("Bench");
+		employee.setLast_name("Serving");
+		employee.setEmail("serving-" + System.nanoTime() + "@example.com");
+		employee.setTitle("Model");
+		employee.setPhotograph_path(fileHelper.promote(fileHelper.stageFile(new MockMultipartFile("photograph", "photo.jpg", "image/jpeg", photo))));
+		return employeesRepo.save(employee).getEmployee_id();
+	}
+
+	// How photos were served before PhotoFileServer: the file is read through a Resource stream
+	@RestController
+	static class LegacyImageController {
+
+		@Autowired
+		private EmployeesService service;
+
+		@Autowired
+		private FileHelper fileHelper;
+
+		@GetMapping("/bench/legacy-image/{emp_id}")
+		public ResponseEntity<Resource> image(@PathVariable int emp_id) throws Exception {
+			Resource resource = fileHelper.loadFileAsResource(service.getPhotographPath(emp_id));
+			return ResponseEntity.ok().contentType(MediaType.IMAGE_JPEG).body(resource);
+		}
+	}
+
+	private record Result(double throughput, double p99, long allocatedPerRequest) {
+	}
+}
@@ -0,0 +1,126 @@
+package com.HRPortal.controller;
+
+import com.HRPortal.repository.EmployeesRepo;
+import com.HRPortal.service.PhotoJobService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Bytes and latency for one list page of avatars, original uploads vs. 256px thumbnails.
+// Run with: mvn test -Pperf -Dtest=PhotoThumbnailBenchmarkTests
+@Tag("perf")
+@SpringBootTest
+@AutoConfigureMockMvc
+class PhotoThumbnailBenchmarkTests {
+
+	private static final int PAGE = 24;
+	private static final int ROUNDS = 20;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private PhotoJobService photoJobs;
+
+	@AfterEach
+	void cleanUp() {
+		employeesRepo.deleteAll();
+	}
+
+	@Test
+	void listPageBytesAndLatency() throws Exception {
+		List<Integer> ids = new ArrayList<>();
+		Random random = new Random(42);
+		for (int i = 0; i < PAGE; i++) {
+			ids.add(addEmployeeWithPhoto(i, phonePhoto(random)));
+		}
+		assertThat(photoJobs.awaitIdle(Duration.ofMinutes(2))).isTrue();
+		List<String> urls = new ArrayList<>();
+		for (int id : ids) {
+			urls.add(objectMapper.readTree(mockMvc.perform(get("/api/employee/get-by-id/" + id))
+					.andReturn().getResponse().getContentAsString()).get("photo_url").asText());
+		}
+
+		Result before = measure(urls, "");
+		Result after = measure(urls, "&size=256");
+
+		System.out.printf("[thumbnails] original : %,d bytes/page, p50 %.2f ms, p99 %.2f ms per image%n",
+				before.bytesPerPage, before.p50, before.p99);
+		System.out.printf("[thumbnails] size=256 : %,d bytes/page, p50 %.2f ms, p99 %.2f ms per image%n",
+				after.bytesPerPage, after.p50, after.p99);
+		assertThat(after.bytesPerPage).isLessThan(before.bytesPerPage / 10);
+	}
+
+	private Result measure(List<String> urls, String query) throws Exception {
+		// first pass generates any missing variants and warms up the JIT
+		long bytes = 0;
+		for (String url : urls) {
+			bytes += mockMvc.perform(get(url + query)).andReturn().getResponse().getContentAsByteArray().length;
+		}
+		double[] latencies = new double[ROUNDS * urls.size()];
+		int n = 0;
+		for (int round = 0; round < ROUNDS; round++) {
+			for (String url : urls) {
+				long began = System.nanoTime();
+				mockMvc.perform(get(url + query)).andExpect(status().isOk());
+				latencies[n++] = (System.nanoTime() - began) / 1e6;
+			}
+		}
+		Arrays.sort(latencies);
+		return new Result(bytes, latencies[latencies.length / 2], latencies[(int) (latencies.length * 0.99)]);
+	}
+
+	// Noisy 3000x2250 JPEG, roughly the size of a phone camera upload
+	private static byte[] phonePhoto(Random random) throws Exception {
+		BufferedImage image = new BufferedImage(3000, 2250, BufferedImage.TYPE_INT_RGB);
+		for (int y = 0; y < image.getHeight(); y++) {
+			for (int x = 0; x < image.getWidth(); x++) {
+				image.setRGB(x, y, ((x * 255 / 3000) << 16) | ((y * 255 / 2250) << 8) | random.nextInt(64));
+			}
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "jpg", out);
+		return out.toByteArray();
+	}
+
+	private int addEmployeeWithPhoto(int i, byte[] photo) throws Exception {
+		String json = mockMvc.perform(multipart("/api/employee/add")
+						.file(new MockMultipartFile("photograph", "photo" + i + ".jpg", "image/jpeg", photo))
+						.param("first_name", "Bench")
+						.param("last_name", String.valueOf(i))
+						.param("email", "thumb-bench" + i + "@example.com")
+						.param("title", "Model"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(json).get("employee_id").asInt();
+	}
+
+	private record Result(long bytesPerPage, double p50, double p99) {
+	}
+}
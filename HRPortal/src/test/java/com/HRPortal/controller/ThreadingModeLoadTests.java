@@ -0,0 +1,154 @@
+package com.HRPortal.controller;
+
+import com.HRPortal.HRPortalApplication;
+import com.HRPortal.helper.FileHelper;
+import com.HRPortal.repository.EmployeeCursor;
+import com.HRPortal.service.EmployeesService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Throughput and p99 for the list, detail and image endpoints with platform worker threads vs. the
+// "virtual" profile. Each mode boots its own app on a random port and its own H2 database.
+// The virtual run needs a Java 21+ JVM and is reported as skipped otherwise.
+// Run with: mvn test -Pperf -Dtest=ThreadingModeLoadTests
+@Tag("perf")
+class ThreadingModeLoadTests {
+
+	private static final int EMPLOYEES = 2000;
+	private static final int PHOTOS = 20;
+	private static final int CLIENTS = 400;
+	private static final int REQUESTS_PER_CLIENT = 25;
+
+	@Test
+	void platformVersusVirtualThreads() throws Exception {
+		Map<String, Map<String, Result>> report = new LinkedHashMap<>();
+		report.put("platform", run(false));
+		if (Runtime.version().feature() >= 21) {
+			report.put("virtual", run(true));
+		} else {
+			System.out.printf("[threading] virtual : skipped, running on Java %d%n", Runtime.version().feature());
+		}
+
+		report.forEach((mode, results) -> results.forEach((endpoint, result) ->
+				System.out.printf("[threading] %-8s %-7s: %,.0f req/s, p50 %.1f ms, p99 %.1f ms%n",
+						mode, endpoint, result.throughput, result.p50, result.p99)));
+	}
+
+	private Map<String, Result> run(boolean virtual) throws Exception {
+		SpringApplicationBuilder builder = new SpringApplicationBuilder(HRPortalApplication.class)
+				.properties("server.port=0",
+						"spring.jmx.enabled=false",
+						"spring.datasource.url=jdbc:h2:mem:threading_" + (virtual ? "virtual" : "platform")
+								+ ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+		if (virtual) {
+			builder.profiles("virtual");
+		}
+		try (ConfigurableApplicationContext context = builder.run()) {
+			int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+			int[] photoIds = seed(context);
+			int firstId = context.getBean(JdbcTemplate.class).queryForObject("SELECT MIN(employee_id) FROM employees", Integer.class);
+			String base = "http://localhost:" + port + "/api/employee";
+
+			Map<String, Result> results = new LinkedHashMap<>();
+			results.put("list", load(i -> base + "/list?size=50&after="
+					+ new EmployeeCursor(EmployeesService.SORT_BY_ID, firstId + (i * 37) % (EMPLOYEES - 50), null).encode()));
+			results.put("detail", load(i -> base + "/get-by-id/" + (firstId + (i * 31) % EMPLOYEES)));
+			results.put("image", load(i -> base + "/image/" + photoIds[i % photoIds.length]));
+			return results;
+		}
+	}
+
+	private static int[] seed(ConfigurableApplicationContext context) throws Exception {
+		JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < EMPLOYEES; i++) {
+			rows.add(new Object[]{"Load", "Tester" + i, "load" + i + "@example.com", "Engineer"});
+		}
+		jdbc.batchUpdate("INSERT INTO employees (first_name, last_name, email, title) VALUES (?, ?, ?, ?)", rows);
+
+		FileHelper fileHelper = context.getBean(FileHelper.class);
+		List<Integer> ids = jdbc.queryForList("SELECT employee_id FROM employees ORDER BY employee_id LIMIT " + PHOTOS, Integer.class);
+		Random random = new Random(42);
+		for (int id : ids) {
+			byte[] photo = new byte[30_000];
+			random.nextBytes(photo);
+			String path = fileHelper.promote(fileHelper.stageFile(new MockMultipartFile("photograph", "load.jpg", "image/jpeg", photo)));
+			jdbc.update("UPDATE employees SET photograph_path = ? WHERE employee_id = ?", path, id);
+		}
+		return ids.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	private static Result load(IntFunction<String> urls) throws Exception {
+		HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+		try {
+			drive(client, pool, urls, 5, new double[CLIENTS * 5]);
+
+			double[] latencies = new double[CLIENTS * REQUESTS_PER_CLIENT];
+			long began = System.nanoTime();
+			drive(client, pool, urls, REQUESTS_PER_CLIENT, latencies);
+			double seconds = (System.nanoTime() - began) / 1e9;
+
+			Arrays.sort(latencies);
+			return new Result(latencies.length / seconds, latencies[latencies.length / 2],
+					latencies[(int) (latencies.length * 0.99)]);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static void drive(HttpClient client, ExecutorService pool, IntFunction<String> urls,
+							  int requestsPerClient, double[] latencies) throws Exception {
+		AtomicLong failures = new AtomicLong();
+		List<Future<?>> clients = new ArrayList<>();
+		for (int c = 0; c < CLIENTS; c++) {
+			int clientIndex = c;
+			clients.add(pool.submit(() -> {
+				for (int r = 0; r < requestsPerClient; r++) {
+					int n = clientIndex * requestsPerClient + r;
+					HttpRequest request = HttpRequest.newBuilder(URI.create(urls.apply(n))).build();
+					long began = System.nanoTime();
+					try {
+						HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+						if (response.statusCode() != 200) {
+							failures.incrementAndGet();
+						}
+					} catch (Exception e) {
+						failures.incrementAndGet();
+					}
+					latencies[n] = (System.nanoTime() - began) / 1e6;
+				}
+			}));
+		}
+		for (Future<?> future : clients) {
+			future.get();
+		}
+		assertThat(failures.get()).isZero();
+	}
+
+	private record Result(double throughput, double p50, double p99) {
+	}
+}
@@ -0,0 +1,25 @@
+package com.HRPortal.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTests {
+
+	@Test
+	void neverMissesAPutNameAndStaysNearItsFalsePositiveRate() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		IntStream.range(0, 10_000).forEach(i -> filter.put(name(i)));
+
+		assertThat(IntStream.range(0, 10_000)).allMatch(i -> filter.mightContain(name(i)));
+		long falsePositives = IntStream.range(10_000, 110_000).filter(i -> filter.mightContain(name(i))).count();
+		assertThat(falsePositives).isLessThan(2_000);
+		assertThat(filter.sizeInBytes()).isLessThan(16 * 1024);
+	}
+
+	private static String name(int i) {
+		return String.format("%064x.jpg", i);
+	}
+}
@@ -0,0 +1,154 @@
+package com.HRPortal.helper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PhotoStoreTests {
+
+	private static final String FIRST = "ab12" + "0".repeat(60) + ".jpg";
+	private static final String SECOND = "cd34" + "0".repeat(60) + ".png";
+	private static final String THIRD = "ef56" + "0".repeat(60) + ".jpg";
+
+	@Test
+	void localStoreShardsByHashAndStillFindsFlatPhotos(@TempDir Path dir) throws Exception {
+		Path root = dir.resolve("photos");
+		LocalPhotoStore store = new LocalPhotoStore(root);
+
+		Path upload = file(dir, "upload.part", "first");
+		store.put(FIRST, upload);
+		assertThat(root.resolve("ab/12").resolve(FIRST)).hasContent("first");
+		assertThat(upload).doesNotExist();
+		assertThat(store.localFile(FIRST)).isEqualTo(root.resolve("ab/12").resolve(FIRST));
+
+		// the same content again only drops the duplicate upload, and renews the stored photo's mtime
+		// so an old orphan taken up again is not collected
+		Files.setLastModifiedTime(root.resolve("ab/12").resolve(FIRST), FileTime.from(Instant.now().minus(Duration.ofDays(30))));
+		Path duplicate = file(dir, "duplicate.part", "first");
+		store.put(FIRST, duplicate);
+		assertThat(duplicate).doesNotExist();
+		assertThat(Files.getLastModifiedTime(root.resolve("ab/12").resolve(FIRST)).toInstant())
+				.isAfter(Instant.now().minus(Duration.ofMinutes(1)));
+
+		// not moved yet: read in place, and a name without a hash is sharded by the hash of the name
+		Path legacy = file(root, "emp_5.jpg", "legacy");
+		assertThat(store.localFile("emp_5.jpg")).isEqualTo(legacy);
+		assertThat(LocalPhotoStore.shardedPath(root, "emp_5.jpg").getParent().getFileName().toString()).matches("[0-9a-f]{2}");
+
+		// work in progress and thumbnails are not photos
+		file(Files.createDirectories(root.resolve("incoming")), "upload-1.part", "staged");
+		file(root, "put-1.tmp", "partial");
+		file(Files.createDirectories(root.resolve("variants/ab/12")), "x.webp", "thumbnail");
+		try (Stream<String> names = store.names()) {
+			assertThat(names).containsExactlyInAnyOrder(FIRST, "emp_5.jpg");
+		}
+
+		assertThat(store.delete(FIRST)).isTrue();
+		assertThat(store.exists(FIRST)).isFalse();
+		assertThatThrownBy(() -> store.localFile(FIRST)).isInstanceOf(NoSuchFileException.class);
+	}
+
+	@Test
+	void s3StoreKeepsPhotosInTheBucketAndReadsThroughTheCache(@TempDir Path dir) throws Exception {
+		try (S3StandIn s3 = new S3StandIn("photos", "test-key", 2)) {
+			S3PhotoStore store = new S3PhotoStore(s3.endpoint(), "us-east-1", "photos", "test-key", "test-secret",
+					"employee_photos/", dir.resolve("cache"), 1 << 20, Duration.ofSeconds(5));
+
+			Path upload = file(dir, "upload.part", "first");
+			store.put(FIRST, upload);
+			store.put(SECOND, file(dir, "second.part", "second"));
+			store.put(THIRD, file(dir, "third.part", "third"));
+			assertThat(upload).doesNotExist();
+			assertThat(s3.objects().keySet()).containsExactly(
+					"employee_photos/" + FIRST, "employee_photos/" + SECOND, "employee_photos/" + THIRD);
+			assertThat(new String(s3.objects().get("employee_photos/" + FIRST), StandardCharsets.UTF_8)).isEqualTo("first");
+
+			// a photo already in the bucket is not uploaded twice, only copied onto itself for a new LastModified
+			s3.modified().put("employee_photos/" + FIRST, Instant.now().minus(Duration.ofDays(30)));
+			store.put(FIRST, file(dir, "duplicate.part", "first"));
+			assertThat(s3.requests("PUT")).isEqualTo(3);
+			assertThat(s3.requests("COPY")).isEqualTo(4);
+			assertThat(s3.modified().get("employee_photos/" + FIRST)).isAfter(Instant.now().minus(Duration.ofMinutes(1)));
+			assertThat(new String(s3.objects().get("employee_photos/" + FIRST), StandardCharsets.UTF_8)).isEqualTo("first");
+
+			assertThat(store.exists(SECOND)).isTrue();
+			assertThat(store.exists("missing.jpg")).isFalse();
+			assertThat(store.localFile(SECOND)).hasContent("second");
+			assertThat(store.localFile(SECOND)).isEqualTo(LocalPhotoStore.shardedPath(dir.resolve("cache"), SECOND));
+			assertThat(s3.requests("GET")).isEqualTo(1);
+			assertThatThrownBy(() -> store.localFile("missing.jpg")).isInstanceOf(NoSuchFileException.class);
+
+			// three keys at two per page
+			try (Stream<String> names = store.names()) {
+				assertThat(names).containsExactly(FIRST, SECOND, THIRD);
+			}
+			assertThat(s3.requests("LIST")).isEqualTo(2);
+
+			store.delete(SECOND);
+			assertThat(s3.objects()).doesNotContainKey("employee_photos/" + SECOND);
+			assertThat(store.localPath(SECOND)).doesNotExist();
+		}
+	}
+
+	@Test
+	void s3CacheIsTrimmedToItsCapLeastRecentlyUsedFirst(@TempDir Path dir) throws Exception {
+		try (S3StandIn s3 = new S3StandIn("photos", "test-key", 2)) {
+			Path cache = dir.resolve("cache");
+			S3PhotoStore store = new S3PhotoStore(s3.endpoint(), "us-east-1", "photos", "test-key", "test-secret",
+					"employee_photos/", cache, 12, Duration.ofSeconds(5));
+			store.put(FIRST, file(dir, "first.part", "first"));
+			store.put(SECOND, file(dir, "second.part", "second"));
+			store.put(THIRD, file(dir, "third.part", "third"));
+			for (String name : new String[] { FIRST, SECOND, THIRD }) {
+				store.localFile(name);
+			}
+			Files.setLastModifiedTime(store.localPath(FIRST), FileTime.from(Instant.now().minus(Duration.ofHours(3))));
+			Files.setLastModifiedTime(store.localPath(SECOND), FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+			Files.setLastModifiedTime(store.localPath(THIRD), FileTime.from(Instant.now().minus(Duration.ofMinutes(30))));
+			Path download = file(store.localPath(FIRST).getParent(), "get-1.tmp", "in progress");
+
+			// a hit counts as use, so FIRST is now the most recent copy
+			store.localFile(FIRST);
+			assertThat(s3.requests("GET")).isEqualTo(3);
+
+			// 16 bytes against a cap of 12: SECOND alone brings the cache under 90% of it
+			assertThat(store.trimCache()).isEqualTo(1);
+			assertThat(store.localPath(SECOND)).doesNotExist();
+			assertThat(store.localPath(FIRST)).hasContent("first");
+			assertThat(store.localPath(THIRD)).hasContent("third");
+			assertThat(download).exists();
+			assertThat(store.trimCache()).isZero();
+
+			// a trimmed copy is downloaded again on its next read
+			assertThat(store.localFile(SECOND)).hasContent("second");
+			assertThat(s3.requests("GET")).isEqualTo(4);
+		}
+	}
+
+	@Test
+	void s3StoreFailsOnRefusedRequests(@TempDir Path dir) throws Exception {
+		try (S3StandIn s3 = new S3StandIn("photos", "other-key", 2)) {
+			S3PhotoStore store = new S3PhotoStore(s3.endpoint(), "us-east-1", "photos", "test-key", "test-secret",
+					"employee_photos/", dir.resolve("cache"), 1 << 20, Duration.ofSeconds(5));
+			Path upload = file(dir, "upload.part", "first");
+
+			assertThatThrownBy(() -> store.put(FIRST, upload)).hasMessageContaining("403");
+			assertThat(upload).exists();
+		}
+	}
+
+	private static Path file(Path dir, String name, String content) throws Exception {
+		return Files.writeString(dir.resolve(name), content);
+	}
+}
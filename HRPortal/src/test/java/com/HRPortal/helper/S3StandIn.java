@@ -0,0 +1,197 @@
+package com.HRPortal.helper;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Just enough of the S3 REST API (path-style PUT, CopyObject, HEAD, GET, DELETE and ListObjectsV2) for
+// S3PhotoStore, in process. Requests without a well-formed SigV4 Authorization header for the expected
+// access key, or with an x-amz-* header it does not sign, get 403, as they would from S3; listings are
+// paged pageSize keys at a time.
+public class S3StandIn implements AutoCloseable {
+
+	private final HttpServer server;
+	private final String bucket;
+	private final int pageSize;
+	private final Pattern authorization;
+	private final NavigableMap<String, byte[]> objects = new ConcurrentSkipListMap<>();
+	private final Map<String, Instant> modified = new ConcurrentHashMap<>();
+	private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+	public S3StandIn(String bucket, String accessKey, int pageSize) throws IOException {
+		this.bucket = bucket;
+		this.pageSize = pageSize;
+		this.authorization = Pattern.compile("AWS4-HMAC-SHA256 Credential=" + Pattern.quote(accessKey)
+				+ "/\\d{8}/[a-z0-9-]+/s3/aws4_request, SignedHeaders=(host;x-amz-content-sha256(;x-amz-[a-z-]+)*), Signature=[0-9a-f]{64}");
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", this::handle);
+		server.start();
+	}
+
+	public URI endpoint() {
+		return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+	}
+
+	public NavigableMap<String, byte[]> objects() {
+		return objects;
+	}
+
+	public Map<String, Instant> modified() {
+		return modified;
+	}
+
+	// PUT, COPY, HEAD, GET and DELETE of objects, LIST for listing pages
+	public int requests(String operation) {
+		return requests.getOrDefault(operation, new AtomicInteger()).get();
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			String auth = exchange.getRequestHeaders().getFirst("Authorization");
+			Matcher matcher = auth != null ? authorization.matcher(auth) : null;
+			if (matcher == null || !matcher.matches() || !signsEveryAmzHeader(exchange, matcher.group(1))
+					|| exchange.getRequestHeaders().getFirst("x-amz-date") == null) {
+				exchange.sendResponseHeaders(403, -1);
+				return;
+			}
+			String path = exchange.getRequestURI().getPath();
+			String method = exchange.getRequestMethod();
+			if (path.equals("/" + bucket) && method.equals("GET")) {
+				count("LIST");
+				list(exchange, query(exchange.getRequestURI().getRawQuery()));
+				return;
+			}
+			if (!path.startsWith("/" + bucket + "/")) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			String key = path.substring(bucket.length() + 2);
+			String copySource = exchange.getRequestHeaders().getFirst("x-amz-copy-source");
+			if (method.equals("PUT") && copySource != null) {
+				count("COPY");
+				copy(exchange, URLDecoder.decode(copySource, StandardCharsets.UTF_8), key);
+				return;
+			}
+			count(method);
+			switch (method) {
+				case "PUT" -> {
+					objects.put(key, exchange.getRequestBody().readAllBytes());
+					modified.put(key, Instant.now());
+					exchange.sendResponseHeaders(200, -1);
+				}
+				case "HEAD" -> exchange.sendResponseHeaders(objects.containsKey(key) ? 200 : 404, -1);
+				case "GET" -> {
+					byte[] body = objects.get(key);
+					if (body == null) {
+						exchange.sendResponseHeaders(404, -1);
+						return;
+					}
+					exchange.sendResponseHeaders(200, body.length);
+					exchange.getResponseBody().write(body);
+				}
+				case "DELETE" -> {
+					objects.remove(key);
+					modified.remove(key);
+					exchange.sendResponseHeaders(204, -1);
+				}
+				default -> exchange.sendResponseHeaders(405, -1);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	// An object copied onto itself gets a new LastModified, as in S3 with the REPLACE metadata directive
+	private void copy(HttpExchange exchange, String source, String key) throws IOException {
+		byte[] body = source.startsWith("/" + bucket + "/") ? objects.get(source.substring(bucket.length() + 2)) : null;
+		if (body == null) {
+			exchange.sendResponseHeaders(404, -1);
+			return;
+		}
+		objects.put(key, body);
+		modified.put(key, Instant.now());
+		byte[] result = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?><CopyObjectResult><LastModified>"
+				+ modified.get(key).truncatedTo(ChronoUnit.MILLIS) + "</LastModified></CopyObjectResult>").getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(200, result.length);
+		exchange.getResponseBody().write(result);
+	}
+
+	private static boolean signsEveryAmzHeader(HttpExchange exchange, String signedHeaders) {
+		Set<String> signed = Set.of(signedHeaders.split(";"));
+		return exchange.getRequestHeaders().keySet().stream()
+				.map(name -> name.toLowerCase(Locale.ROOT))
+				.filter(name -> name.startsWith("x-amz-"))
+				.allMatch(signed::contains)
+				&& signed.contains("x-amz-date");
+	}
+
+	private void list(HttpExchange exchange, Map<String, String> query) throws IOException {
+		String prefix = query.getOrDefault("prefix", "");
+		String after = query.get("continuation-token");
+		NavigableMap<String, byte[]> remaining = after != null ? objects.tailMap(after, false) : objects;
+		StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><ListBucketResult><Name>")
+				.append(bucket).append("</Name>");
+		String last = null;
+		int count = 0;
+		for (String key : remaining.keySet()) {
+			if (!key.startsWith(prefix)) {
+				continue;
+			}
+			if (count == pageSize) {
+				xml.append("<IsTruncated>true</IsTruncated><NextContinuationToken>").append(last).append("</NextContinuationToken>");
+				break;
+			}
+			xml.append("<Contents><Key>").append(key).append("</Key><LastModified>")
+					.append(modified.get(key).truncatedTo(ChronoUnit.MILLIS)).append("</LastModified><Size>")
+					.append(remaining.get(key).length).append("</Size></Contents>");
+			last = key;
+			count++;
+		}
+		xml.append("</ListBucketResult>");
+		byte[] body = xml.toString().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/xml");
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	private void count(String operation) {
+		requests.computeIfAbsent(operation, op -> new AtomicInteger()).incrementAndGet();
+	}
+
+	private static Map<String, String> query(String raw) {
+		Map<String, String> query = new HashMap<>();
+		if (raw != null) {
+			for (String pair : raw.split("&")) {
+				int eq = pair.indexOf('=');
+				query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+						URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+			}
+		}
+		return query;
+	}
+}
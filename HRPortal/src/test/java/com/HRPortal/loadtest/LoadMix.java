@@ -0,0 +1,248 @@
+package com.HRPortal.loadtest;
+
+import com.HRPortal.repository.EmployeeCursor;
+import com.HRPortal.service.EmployeesService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Closed-loop load against the real HTTP endpoints: each client picks an operation by weight, waits for the
+// response and goes again until the duration is up. Deletes only remove employees this run added, so the
+// seeded dataset (and the ids the reads pick from) stays intact.
+public class LoadMix {
+
+	public enum Operation {
+		LIST(40), DETAIL(25), IMAGE(20), ADD(5), UPDATE(7), DELETE(3);
+
+		private final int weight;
+
+		Operation(int weight) {
+			this.weight = weight;
+		}
+	}
+
+	private final String baseUrl;
+	private final SyntheticHrData.Seeded data;
+	private final byte[] uploadPhoto;
+	private final HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+	private final Queue<Integer> added = new ConcurrentLinkedQueue<>();
+
+	public LoadMix(String baseUrl, SyntheticHrData.Seeded data, byte[] uploadPhoto) {
+		this.baseUrl = baseUrl;
+		this.data = data;
+		this.uploadPhoto = uploadPhoto;
+	}
+
+	public Report run(int clients, Duration duration) throws Exception {
+		Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+		for (Operation operation : Operation.values()) {
+			recorders.put(operation, new Recorder());
+		}
+		int totalWeight = Arrays.stream(Operation.values()).mapToInt(o -> o.weight).sum();
+		long deadline = System.nanoTime() + duration.toNanos();
+
+		ExecutorService pool = Executors.newFixedThreadPool(clients);
+		long began = System.nanoTime();
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int c = 0; c < clients; c++) {
+				futures.add(pool.submit(() -> {
+					while (System.nanoTime() < deadline) {
+						Operation operation = pick(ThreadLocalRandom.current().nextInt(totalWeight));
+						long start = System.nanoTime();
+						boolean ok;
+						try {
+							ok = execute(operation);
+						} catch (Exception e) {
+							ok = false;
+						}
+						recorders.get(operation).record(System.nanoTime() - start, ok);
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		double seconds = (System.nanoTime() - began) / 1e9;
+
+		Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+		recorders.forEach((operation, recorder) -> stats.put(operation, recorder.stats(seconds)));
+		return new Report(clients, seconds, stats);
+	}
+
+	private static Operation pick(int roll) {
+		for (Operation operation : Operation.values()) {
+			roll -= operation.weight;
+			if (roll < 0) {
+				return operation;
+			}
+		}
+		return Operation.LIST;
+	}
+
+	private boolean execute(Operation operation) throws Exception {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int id = random.nextInt(data.minEmployeeId(), data.maxEmployeeId() + 1);
+		switch (operation) {
+			case LIST -> {
+				String query = random.nextBoolean()
+						? "?size=50&after=" + new EmployeeCursor(EmployeesService.SORT_BY_ID, id, null).encode()
+						: "?size=50&sort=last_name";
+				return get("/api/employee/list" + query) == 200;
+			}
+			case DETAIL -> {
+				return get("/api/employee/get-by-id/" + id) == 200;
+			}
+			case IMAGE -> {
+				int status = get("/api/employee/image/" + id + (random.nextInt(4) == 0 ? "" : "?size=256"));
+				// roughly 40% of the seeded employees have no photo
+				return status == 200 || status == 204;
+			}
+			case ADD -> {
+				String email = "load-" + UUID.randomUUID() + "@hr.example";
+				int department = data.departmentIds().get(random.nextInt(data.departmentIds().size()));
+				HttpResponse<String> response = send(multipart("POST", "/api/employee/add", email, department,
+						random.nextInt(5) == 0 ? uploadPhoto : null));
+				if (response.statusCode() == 409) {
+					// the department is full: a business outcome, not a failure of the service
+					return true;
+				}
+				if (response.statusCode() != 201) {
+					return false;
+				}
+				String body = response.body();
+				int start = body.indexOf("\"employee_id\":") + "\"employee_id\":".length();
+				added.add(Integer.parseInt(body.substring(start, body.indexOf(',', start)).trim()));
+				return true;
+			}
+			case UPDATE -> {
+				// departmentId 0 keeps the current department, so updates do not drain seats
+				return send(multipart("PUT", "/api/employee/update/" + id, "updated-" + id + "@hr.example",
+						0, null)).statusCode() == 200;
+			}
+			case DELETE -> {
+				Integer victim = added.poll();
+				if (victim == null) {
+					// nothing of ours to delete yet; a read keeps the mix closed-loop
+					return get("/api/employee/get-by-id/" + id) == 200;
+				}
+				return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/employee/delete/" + victim))
+						.DELETE().build()).statusCode() == 200;
+			}
+		}
+		throw new IllegalStateException("Unknown operation " + operation);
+	}
+
+	private int get(String path) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).build();
+		return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+	}
+
+	private HttpResponse<String> send(HttpRequest request) throws Exception {
+		return client.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private HttpRequest multipart(String method, String path, String email, int departmentId, byte[] photo) {
+		String boundary = "loadmix" + UUID.randomUUID();
+		List<byte[]> parts = new ArrayList<>();
+		field(parts, boundary, "first_name", "Load");
+		field(parts, boundary, "last_name", "Tester");
+		field(parts, boundary, "email", email);
+		field(parts, boundary, "title", "Engineer");
+		field(parts, boundary, "departmentId", String.valueOf(departmentId));
+		if (photo != null) {
+			parts.add(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"photograph\"; filename=\"load.jpg\"\r\n"
+					+ "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+			parts.add(photo);
+			parts.add("\r\n".getBytes(StandardCharsets.UTF_8));
+		}
+		parts.add(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+		return HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.timeout(Duration.ofSeconds(30))
+				.header("Content-Type", "multipart/form-data; boundary=" + boundary)
+				.method(method, HttpRequest.BodyPublishers.ofByteArrays(parts))
+				.build();
+	}
+
+	private static void field(List<byte[]> parts, String boundary, String name, String value) {
+		parts.add(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n")
+				.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// Latencies are kept in full; a minute of load at a few thousand req/s is a few MB of longs
+	private static final class Recorder {
+		private final Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+		private final AtomicLong errors = new AtomicLong();
+
+		void record(long nanos, boolean ok) {
+			latencies.add(nanos);
+			if (!ok) {
+				errors.incrementAndGet();
+			}
+		}
+
+		Stats stats(double seconds) {
+			long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+			if (sorted.length == 0) {
+				return new Stats(0, 0, 0, 0, 0, 0, 0, 0);
+			}
+			return new Stats(sorted.length, sorted.length / seconds, percentile(sorted, 0.50), percentile(sorted, 0.95),
+					percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6, errors.get(),
+					(double) errors.get() / sorted.length);
+		}
+
+		private static double percentile(long[] sorted, double p) {
+			return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1e6;
+		}
+	}
+
+	public record Stats(long requests, double throughput, double p50Millis, double p95Millis, double p99Millis,
+						double maxMillis, long errors, double errorRate) {
+	}
+
+	public record Report(int clients, double seconds, Map<Operation, Stats> operations) {
+
+		public long totalRequests() {
+			return operations.values().stream().mapToLong(Stats::requests).sum();
+		}
+
+		public long totalErrors() {
+			return operations.values().stream().mapToLong(Stats::errors).sum();
+		}
+
+		public String format() {
+			StringBuilder out = new StringBuilder(String.format("%d clients, %.0f s, %,d requests (%,.0f req/s), %,d errors%n",
+					clients, seconds, totalRequests(), totalRequests() / seconds, totalErrors()));
+			out.append(String.format("%-8s %10s %10s %9s %9s %9s %9s %8s%n",
+					"op", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors"));
+			operations.forEach((operation, s) -> out.append(String.format("%-8s %,10d %,10.0f %9.1f %9.1f %9.1f %9.1f %7.2f%%%n",
+					operation, s.requests(), s.throughput(), s.p50Millis(), s.p95Millis(), s.p99Millis(), s.maxMillis(),
+					s.errorRate() * 100)));
+			return out.toString();
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.HRPortal.loadtest;
+
+import com.HRPortal.helper.FileHelper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Seeds a production-sized dataset and runs the mixed workload against the embedded server.
+// Defaults to 1M employees / 2k departments on the test H2 database:
+//   mvn test -Pperf -Dtest=LoadTestHarnessTests
+// Scale or point at a local MySQL stand-in with ordinary overrides, e.g.
+//   -Dloadtest.employees=100000 -Dloadtest.clients=128 -Dloadtest.duration=PT2M
+//   -Dspring.datasource.url=jdbc:mysql://localhost:3306/hr_load -Dspring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver
+//   -Dspring.datasource.username=root -Dspring.datasource.password=root -Dspring.jpa.database-platform=org.hibernate.dialect.MySQLDialect
+// The report is printed and written to target/loadtest-report.json.
+@Tag("perf")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoadTestHarnessTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private FileHelper fileHelper;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${loadtest.departments:2000}")
+	private int departments;
+
+	@Value("${loadtest.employees:1000000}")
+	private int employees;
+
+	@Value("${loadtest.photos:200}")
+	private int photos;
+
+	@Value("${loadtest.clients:64}")
+	private int clients;
+
+	@Value("${loadtest.duration:PT1M}")
+	private Duration duration;
+
+	@Value("${loadtest.seed:42}")
+	private long seed;
+
+	@Value("${loadtest.max-error-rate:0.01}")
+	private double maxErrorRate;
+
+	@Test
+	void mixedWorkloadAgainstSeededDataset() throws Exception {
+		SyntheticHrData generator = new SyntheticHrData(jdbcTemplate, fileHelper, seed);
+		SyntheticHrData.Seeded data = generator.seed(departments, employees, photos);
+		System.out.printf("[loadtest] seeded %,d departments, %,d employees, %,d photos in %,d ms%n",
+				data.departments(), data.employees(), data.photos(), data.millis());
+
+		LoadMix mix = new LoadMix("http://localhost:" + port, data, generator.jpeg(640, 480));
+		LoadMix.Report report = mix.run(clients, duration);
+
+		System.out.print("[loadtest] " + report.format());
+		objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File("target/loadtest-report.json"), report);
+		assertThat((double) report.totalErrors() / report.totalRequests()).isLessThanOrEqualTo(maxErrorRate);
+	}
+}
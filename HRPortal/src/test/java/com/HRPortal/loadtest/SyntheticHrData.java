@@ -0,0 +1,149 @@
+package com.HRPortal.loadtest;
+
+import com.HRPortal.helper.FileHelper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Seeds department and employees with a synthetic but production-shaped dataset, straight through JDBC
+// batches so a million rows take seconds rather than hours of JPA saves:
+//  - department sizes follow a Zipf-like curve (a few huge departments, a long tail of small ones),
+//  - capacity leaves 10% headroom so the load mix can keep adding employees,
+//  - a pool of real JPEGs from avatar to phone-camera size is shared by ~60% of employees,
+//    the way content-addressed storage shares identical uploads.
+public class SyntheticHrData {
+
+	private static final String[] FIRST_NAMES = {"James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael",
+			"Linda", "David", "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah",
+			"Wei", "Priya", "Mohammed", "Fatima", "Hiroshi", "Yuki", "Olga", "Ivan", "Ana", "Lucas", "Chloe", "Kwame"};
+	private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+			"Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor",
+			"Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Nguyen",
+			"Patel", "Kim", "Chen", "Singh", "Kumar", "Ivanova", "Muller", "Rossi", "Dubois", "Tanaka", "Okafor", "Silva"};
+	// weighted: individual contributors dominate, executives are rare
+	private static final String[] TITLES = {"Engineer", "Engineer", "Engineer", "Engineer", "Senior Engineer",
+			"Senior Engineer", "Analyst", "Analyst", "Associate", "Associate", "Specialist", "Manager", "Manager",
+			"Senior Manager", "Director", "Vice President"};
+	private static final String[] DEPARTMENT_AREAS = {"Engineering", "Sales", "Marketing", "Finance", "Operations",
+			"Support", "Research", "Legal", "People", "Facilities", "Procurement", "Security", "Data", "Design"};
+	private static final int[][] PHOTO_DIMENSIONS = {{96, 96}, {256, 256}, {640, 480}, {1280, 960}, {2048, 1536}, {3000, 2250}};
+	private static final int BATCH = 10_000;
+
+	private final JdbcTemplate jdbc;
+	private final FileHelper fileHelper;
+	private final Random random;
+
+	public SyntheticHrData(JdbcTemplate jdbc, FileHelper fileHelper, long seed) {
+		this.jdbc = jdbc;
+		this.fileHelper = fileHelper;
+		this.random = new Random(seed);
+	}
+
+	public Seeded seed(int departments, int employees, int photos) throws IOException {
+		long began = System.nanoTime();
+		List<String> photoPaths = createPhotos(photos);
+		int[] headcount = departmentHeadcounts(departments, employees);
+
+		List<Object[]> departmentRows = new ArrayList<>(departments);
+		for (int d = 0; d < departments; d++) {
+			int capacity = headcount[d] + Math.max(5, headcount[d] / 10);
+			departmentRows.add(new Object[]{DEPARTMENT_AREAS[d % DEPARTMENT_AREAS.length] + " " + (d + 1), capacity,
+					capacity - headcount[d]});
+		}
+		jdbc.batchUpdate("INSERT INTO department (name, capacity, seats_left) VALUES (?, ?, ?)", departmentRows, BATCH,
+				(ps, row) -> {
+					ps.setString(1, (String) row[0]);
+					ps.setInt(2, (Integer) row[1]);
+					ps.setInt(3, (Integer) row[2]);
+				});
+		List<Integer> departmentIds = jdbc.queryForList(
+				"SELECT department_id FROM department ORDER BY department_id", Integer.class);
+		int firstDepartment = departmentIds.size() - departments;
+
+		List<Object[]> rows = new ArrayList<>(BATCH);
+		int n = 0;
+		for (int d = 0; d < departments; d++) {
+			for (int i = 0; i < headcount[d]; i++, n++) {
+				String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+				String last = LAST_NAMES[(int) Math.floor(Math.pow(random.nextDouble(), 2) * LAST_NAMES.length)];
+				String photo = !photoPaths.isEmpty() && random.nextInt(10) < 6
+						? photoPaths.get(random.nextInt(photoPaths.size())) : null;
+				rows.add(new Object[]{first, last, (first + "." + last + "." + n + "@hr.example").toLowerCase(),
+						TITLES[random.nextInt(TITLES.length)], photo, departmentIds.get(firstDepartment + d)});
+				if (rows.size() == BATCH) {
+					insertEmployees(rows);
+					rows.clear();
+				}
+			}
+		}
+		insertEmployees(rows);
+
+		Integer minId = jdbc.queryForObject("SELECT MIN(employee_id) FROM employees", Integer.class);
+		Integer maxId = jdbc.queryForObject("SELECT MAX(employee_id) FROM employees", Integer.class);
+		return new Seeded(departments, employees, photoPaths.size(), minId, maxId,
+				departmentIds.subList(firstDepartment, departmentIds.size()), (System.nanoTime() - began) / 1_000_000);
+	}
+
+	private void insertEmployees(List<Object[]> rows) {
+		if (rows.isEmpty()) {
+			return;
+		}
+		jdbc.batchUpdate("INSERT INTO employees (first_name, last_name, email, title, photograph_path, department_id) "
+				+ "VALUES (?, ?, ?, ?, ?, ?)", rows);
+	}
+
+	// Zipf-like (s = 1) split of the employees, every department gets at least one
+	private int[] departmentHeadcounts(int departments, int employees) {
+		double[] weights = new double[departments];
+		double total = 0;
+		for (int d = 0; d < departments; d++) {
+			weights[d] = 1.0 / (d + 1);
+			total += weights[d];
+		}
+		int[] headcount = new int[departments];
+		int assigned = 0;
+		for (int d = 0; d < departments; d++) {
+			headcount[d] = Math.max(1, (int) (employees * weights[d] / total));
+			assigned += headcount[d];
+		}
+		// rounding drift goes to (or comes from) the largest department
+		headcount[0] += employees - assigned;
+		return headcount;
+	}
+
+	private List<String> createPhotos(int photos) throws IOException {
+		List<String> paths = new ArrayList<>(photos);
+		for (int p = 0; p < photos; p++) {
+			// most uploads are small, a few are full-size camera shots
+			int[] size = PHOTO_DIMENSIONS[Math.min(PHOTO_DIMENSIONS.length - 1,
+					(int) (-Math.log(1 - random.nextDouble()) * 1.5))];
+			paths.add(fileHelper.promote(fileHelper.stageFile(new MockMultipartFile("photograph", "seed.jpg", "image/jpeg",
+					jpeg(size[0], size[1])))));
+		}
+		return paths;
+	}
+
+	byte[] jpeg(int width, int height) throws IOException {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		int tint = random.nextInt(0xFFFFFF);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				image.setRGB(x, y, tint ^ ((x * 255 / width) << 16) ^ ((y * 255 / height) << 8) ^ random.nextInt(32));
+			}
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "jpg", out);
+		return out.toByteArray();
+	}
+
+	public record Seeded(int departments, int employees, int photos, int minEmployeeId, int maxEmployeeId,
+						 List<Integer> departmentIds, long millis) {
+	}
+}
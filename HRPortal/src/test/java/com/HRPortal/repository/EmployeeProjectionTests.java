@@ -0,0 +1,109 @@
+package com.HRPortal.repository;
+
+import com.HRPortal.dto.DepartmentNameDTO;
+import com.HRPortal.dto.DepartmentSeatsDTO;
+import com.HRPortal.dto.EmployeeDTO;
+import com.HRPortal.entity.Department;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class EmployeeProjectionTests {
+
+	private static final int EMPLOYEES = 10_000;
+	private static final int DEPARTMENTS = 25;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private DepartmentRepo departmentRepo;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void seed() {
+		List<Department> departments = new ArrayList<>();
+		for (int i = 0; i < DEPARTMENTS; i++) {
+			Department d = new Department();
+			d.setName("Dept " + i);
+			d.setCapacity(1000);
+			d.setSeats_left(1000);
+			departments.add(d);
+		}
+		departments = departmentRepo.saveAll(departments);
+
+		List<Object[]> rows = new ArrayList<>(EMPLOYEES);
+		for (int i = 0; i < EMPLOYEES; i++) {
+			// every tenth employee has no department to exercise the outer join
+			Integer deptId = i % 10 == 0 ? null : departments.get(i % DEPARTMENTS).getDepartmentId();
+			rows.add(new Object[]{"First" + i, "Last" + i, "projection" + i + "@example.com", "Engineer", deptId});
+		}
+		jdbcTemplate.batchUpdate(
+				"INSERT INTO employees (first_name, last_name, email, title, department_id) VALUES (?, ?, ?, ?, ?)", rows,
+				new int[]{Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER});
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		jdbcTemplate.update("DELETE FROM employees");
+		jdbcTemplate.update("DELETE FROM department");
+	}
+
+	@Test
+	void listingTenThousandRowsIsOneStatement() {
+		List<EmployeeDTO> page = employeesRepo.findDtoPageAfter(EmployeeFilter.NONE, 0, EMPLOYEES);
+
+		assertThat(page).hasSize(EMPLOYEES);
+		assertThat(page).filteredOn(dto -> dto.getDepartment_id() == 0).hasSize(EMPLOYEES / 10);
+		assertThat(page).filteredOn(dto -> dto.getDepartment_id() != 0)
+				.allSatisfy(dto -> assertThat(dto.getDepartment_name()).startsWith("Dept "));
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void detailLookupIsOneStatement() {
+		int id = employeesRepo.findDtoPageAfter(EmployeeFilter.NONE, 0, 2).get(1).getEmployee_id();
+		statistics.clear();
+
+		EmployeeDTO dto = employeesRepo.findDtoByEmployee_id(id).orElseThrow();
+
+		assertThat(dto.getDepartment_name()).isNotNull();
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void departmentListingsAreOneStatementEach() {
+		List<DepartmentNameDTO> names = departmentRepo.findAllNames();
+		List<DepartmentSeatsDTO> seats = departmentRepo.findAllSeats();
+
+		assertThat(names).hasSize(DEPARTMENTS);
+		assertThat(seats).hasSize(DEPARTMENTS).allSatisfy(s -> assertThat(s.getSeats_left()).isEqualTo(1000));
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+}
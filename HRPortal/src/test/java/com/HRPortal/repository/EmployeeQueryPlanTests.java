@@ -0,0 +1,162 @@
+package com.HRPortal.repository;
+
+import com.HRPortal.helper.FileHelper;
+import com.HRPortal.service.EmployeeChangeLog;
+import com.HRPortal.service.EmployeesService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs every supported listing filter and facet, then asks H2 for the plan of each statement it executed
+// against employees. A plan that scans the table means a filter no longer has an index to use.
+// Every secondary index the migrations create is also tied to the query it is for: an index without a
+// case here, or one the planner stops choosing for its query, fails the build.
+@SpringBootTest
+class EmployeeQueryPlanTests {
+
+	private static final int DEPARTMENTS = 20;
+	private static final int EMPLOYEES = 5_000;
+	private static final String[] TITLES = {"Engineer", "Analyst", "Manager", "Director"};
+
+	@Autowired
+	private EmployeesService employeesService;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private PhotoJobRepo photoJobRepo;
+
+	@Autowired
+	private EmployeeChangeLog changeLog;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private List<Integer> departmentIds;
+
+	@BeforeEach
+	void seed() {
+		List<Object[]> departments = new ArrayList<>();
+		for (int d = 0; d < DEPARTMENTS; d++) {
+			departments.add(new Object[]{"Plan " + d});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO department (name) VALUES (?)", departments);
+		departmentIds = jdbcTemplate.queryForList("SELECT department_id FROM department ORDER BY department_id", Integer.class);
+
+		List<Object[]> employees = new ArrayList<>();
+		for (int i = 0; i < EMPLOYEES; i++) {
+			employees.add(new Object[]{"First" + i, "Last" + (i % 500), "plan" + i + "@example.com", TITLES[i % TITLES.length],
+					departmentIds.get(i % DEPARTMENTS)});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO employees (first_name, last_name, email, title, department_id) "
+				+ "VALUES (?, ?, ?, ?, ?)", employees);
+		// give the optimizer real selectivities instead of defaults
+		jdbcTemplate.execute("ANALYZE");
+	}
+
+	@AfterEach
+	void cleanUp() {
+		jdbcTemplate.update("DELETE FROM employee_change");
+		jdbcTemplate.update("DELETE FROM employees");
+		jdbcTemplate.update("DELETE FROM department");
+	}
+
+	@Test
+	void everySupportedFilterIsServedByAnIndex() {
+		List<Integer> department = List.of(departmentIds.get(3));
+		List<String> title = List.of("Analyst");
+		int first = jdbcTemplate.queryForObject("SELECT MIN(employee_id) FROM employees WHERE department_id = ?",
+				Integer.class, department.get(0));
+		String cursor = new EmployeeCursor(EmployeesService.SORT_BY_LAST_NAME, first, jdbcTemplate.queryForObject(
+				"SELECT last_name FROM employees WHERE employee_id = ?", String.class, first)).encode();
+
+		Map<String, Runnable> cases = new LinkedHashMap<>();
+		cases.put("department by id", () -> page(new EmployeeFilter(department, null, null, null), null, EmployeesService.SORT_BY_ID));
+		cases.put("department by last name", () -> page(new EmployeeFilter(department, null, null, null), cursor, EmployeesService.SORT_BY_LAST_NAME));
+		cases.put("department and name range", () -> page(new EmployeeFilter(department, null, "Last1", "Last2"), null, EmployeesService.SORT_BY_LAST_NAME));
+		cases.put("title by id", () -> page(new EmployeeFilter(null, title, null, null), null, EmployeesService.SORT_BY_ID));
+		cases.put("title by last name", () -> page(new EmployeeFilter(null, title, null, null), null, EmployeesService.SORT_BY_LAST_NAME));
+		cases.put("name range by last name", () -> page(new EmployeeFilter(null, null, "Last1", "Last2"), cursor, EmployeesService.SORT_BY_LAST_NAME));
+		cases.put("no department", () -> page(new EmployeeFilter(List.of(0), null, null, null), null, EmployeesService.SORT_BY_ID));
+		cases.put("facets within a department", () -> employeesService.getFacets(
+				new EmployeeFilter(department, title, null, null), List.of(EmployeesService.FACET_DEPARTMENT, EmployeesService.FACET_TITLE)));
+
+		cases.forEach((name, query) -> {
+			for (String sql : executedAgainst("employees", query)) {
+				String plan = explain(sql);
+				assertThat(plan).as("%s%n%s", name, plan).doesNotContainIgnoringCase("employees.tableScan");
+			}
+		});
+	}
+
+	private record IndexCase(String table, Runnable query) {
+	}
+
+	@Test
+	void everyIndexIsChosenForTheQueryItServes() {
+		List<Integer> department = List.of(departmentIds.get(3));
+		List<String> title = List.of("Analyst");
+
+		// the composite indexes also save the last-name sort, which H2 does not cost, so their cases add a
+		// name range for the planner to choose them on selectivity alone
+		Map<String, IndexCase> cases = new LinkedHashMap<>();
+		cases.put("idx_employees_department_last_name", new IndexCase("employees",
+				() -> page(new EmployeeFilter(department, null, "Last1", "Last2"), null, EmployeesService.SORT_BY_LAST_NAME)));
+		cases.put("idx_employees_last_name", new IndexCase("employees",
+				() -> page(new EmployeeFilter(null, null, "Last1", "Last2"), null, EmployeesService.SORT_BY_LAST_NAME)));
+		cases.put("idx_employees_title", new IndexCase("employees",
+				() -> employeesService.getFacets(new EmployeeFilter(null, title, null, null), List.of(EmployeesService.FACET_DEPARTMENT))));
+		cases.put("idx_employees_title_last_name", new IndexCase("employees",
+				() -> page(new EmployeeFilter(null, title, "Last1", "Last2"), null, EmployeesService.SORT_BY_LAST_NAME)));
+		cases.put("idx_employees_photograph_path", new IndexCase("employees",
+				() -> employeesRepo.countByPhotograph_pathIn(FileHelper.storedPaths("plan.jpg"))));
+		cases.put("idx_employee_change_changed_at", new IndexCase("employee_change", changeLog::prune));
+		cases.put("idx_photo_job_employee", new IndexCase("photo_job", () -> photoJobRepo.findByEmployee_id(1)));
+		cases.put("idx_photo_job_node", new IndexCase("photo_job", () -> photoJobRepo.findIdsByNode("plan")));
+
+		assertThat(cases.keySet()).as("secondary indexes with a query-plan case")
+				.containsExactlyInAnyOrderElementsOf(secondaryIndexes());
+		cases.forEach((index, indexCase) -> {
+			List<String> plans = executedAgainst(indexCase.table(), indexCase.query()).stream().map(this::explain).toList();
+			assertThat(plans).as("plans of the %s query", index)
+					.anySatisfy(plan -> assertThat(plan.toLowerCase(Locale.ROOT)).contains("public." + index + ":"));
+		});
+	}
+
+	// Primary keys, unique constraints and the indexes H2 adds for foreign keys are left out
+	private List<String> secondaryIndexes() {
+		return jdbcTemplate.queryForList("SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES "
+				+ "WHERE TABLE_SCHEMA = 'public' AND INDEX_TYPE_NAME = 'INDEX' AND LOWER(INDEX_NAME) LIKE 'idx\\_%'", String.class);
+	}
+
+	private void page(EmployeeFilter filter, String after, String sort) {
+		employeesService.getPage(filter, after, 50, sort);
+	}
+
+	private List<String> executedAgainst(String table, Runnable query) {
+		jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+		jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+		query.run();
+		List<String> statements = jdbcTemplate.queryForList(
+				"SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS", String.class);
+		jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+		return statements.stream().filter(sql -> sql.toLowerCase(Locale.ROOT).contains(" from " + table + " ")).toList();
+	}
+
+	// H2 explains prepared statements without bound parameters
+	private String explain(String sql) {
+		return jdbcTemplate.query(con -> con.prepareStatement("EXPLAIN " + sql), rs -> rs.next() ? rs.getString(1) : null);
+	}
+}
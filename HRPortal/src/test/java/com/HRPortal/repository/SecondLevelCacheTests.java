@@ -0,0 +1,155 @@
+package com.HRPortal.repository;
+
+import com.HRPortal.dto.DepartmentSeatsDTO;
+import com.HRPortal.entity.Department;
+import com.HRPortal.entity.Employees;
+import com.HRPortal.service.EmployeesService;
+import com.HRPortal.service.SeatReservationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class SecondLevelCacheTests {
+
+	@Autowired
+	private DepartmentRepo departmentRepo;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private EmployeesService employeesService;
+
+	@Autowired
+	private SeatReservationService seatReservation;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Statistics statistics;
+	private Department open;
+	private Department full;
+
+	@BeforeEach
+	void seed() {
+		open = departmentRepo.save(department("Open", 5));
+		full = departmentRepo.save(department("Full", 0));
+		entityManagerFactory.getCache().evictAll();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		employeesRepo.deleteAll();
+		departmentRepo.deleteAll(List.of(open, full));
+	}
+
+	@Test
+	void repeatedDepartmentLookupsSkipTheDatabase() {
+		departmentRepo.findById((long) open.getDepartmentId()).orElseThrow();
+		long statements = statistics.getPrepareStatementCount();
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(departmentRepo.findById((long) open.getDepartmentId()).orElseThrow().getName()).isEqualTo("Open");
+		}
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+		assertThat(statistics.getDomainDataRegionStatistics("department").getHitCount()).isEqualTo(3);
+		assertThat(meterRegistry.get("hibernate.second.level.cache.requests")
+				.tag("region", "department").tag("result", "hit").functionCounter().count()).isEqualTo(3);
+	}
+
+	@Test
+	void seatChangesAreNeverServedStale() {
+		assertThat(seatsLeft(open)).isEqualTo(5);
+		assertThat(catalogSeats(open)).isEqualTo(5);
+		assertThat(catalogSeats(open)).isEqualTo(5);
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+		seatReservation.reserve(open.getDepartmentId());
+
+		assertThat(seatsLeft(open)).isEqualTo(4);
+		assertThat(catalogSeats(open)).isEqualTo(4);
+	}
+
+	@Test
+	void rolledBackTransfersLeaveCachedSeatsUnchanged() {
+		Employees hire = new Employees();
+		hire.setFirst_name("Cache");
+		hire.setLast_name("Consistency");
+		hire.setEmail("cache-consistency@example.com");
+		hire.setDepartment(open);
+		int id = employeesService.addEmployees(hire).getEmployee_id();
+		assertThat(seatsLeft(open)).isEqualTo(4);
+		assertThat(employeesRepo.findById(id).orElseThrow().getDepartment().getName()).isEqualTo("Open");
+
+		// releasing the seat in Open succeeds, taking one in Full fails, so both roll back
+		Employees move = new Employees();
+		move.setFirst_name("Cache");
+		move.setLast_name("Consistency");
+		move.setEmail("cache-consistency@example.com");
+		move.setDepartment(full);
+		assertThatThrownBy(() -> employeesService.updateEmployees(id, move)).isInstanceOf(ResponseStatusException.class);
+
+		assertThat(seatsLeft(open)).isEqualTo(4);
+		assertThat(seatsLeft(full)).isZero();
+		assertThat(employeesRepo.findById(id).orElseThrow().getDepartment().getName()).isEqualTo("Open");
+	}
+
+	@Test
+	void employeeUpdatesAndDeletesInvalidateTheirEntries() {
+		Employees hire = new Employees();
+		hire.setFirst_name("Before");
+		hire.setLast_name("Cached");
+		hire.setEmail("cached@example.com");
+		int id = employeesService.addEmployees(hire).getEmployee_id();
+		employeesRepo.findById(id).orElseThrow();
+
+		Employees rename = new Employees();
+		rename.setFirst_name("After");
+		rename.setLast_name("Cached");
+		rename.setEmail("cached@example.com");
+		employeesService.updateEmployees(id, rename);
+		assertThat(employeesRepo.findById(id).orElseThrow().getFirst_name()).isEqualTo("After");
+		assertThat(statistics.getDomainDataRegionStatistics("employees").getHitCount()).isPositive();
+
+		employeesService.deleteEmployees(id);
+		assertThat(employeesRepo.findById(id)).isEmpty();
+	}
+
+	private int seatsLeft(Department department) {
+		return departmentRepo.findById((long) department.getDepartmentId()).orElseThrow().getSeats_left();
+	}
+
+	private int catalogSeats(Department department) {
+		return departmentRepo.findAllSeats().stream()
+				.filter(seats -> seats.getDepartmentId() == department.getDepartmentId())
+				.map(DepartmentSeatsDTO::getSeats_left)
+				.findFirst().orElseThrow();
+	}
+
+	private static Department department(String name, int seats) {
+		Department department = new Department();
+		department.setName(name);
+		department.setCapacity(seats);
+		department.setSeats_left(seats);
+		return department;
+	}
+}
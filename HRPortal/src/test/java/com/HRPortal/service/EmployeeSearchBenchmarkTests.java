@@ -0,0 +1,107 @@
+package com.HRPortal.service;
+
+import com.HRPortal.helper.FileHelper;
+import com.HRPortal.loadtest.SyntheticHrData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Index lookups vs. the SQL a search box would otherwise run: every term as a %term% LIKE over the five
+// searchable columns, LIMIT 20. The SQL side gets no typo tolerance, so it is the cheaper of the two to answer.
+// Run with: mvn test -Pperf -Dtest=EmployeeSearchBenchmarkTests [-Dsearch.employees=100000]
+@Tag("perf")
+@SpringBootTest
+class EmployeeSearchBenchmarkTests {
+
+	private static final String[] QUERIES = {"patel", "jen", "tompson", "mary engineer", "research 7", "olga iv",
+			"senior manager", "kwame okafor", "hernadez", "data 12"};
+	private static final int ROUNDS = 200;
+	private static final int LIMIT = 20;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private FileHelper fileHelper;
+
+	@Autowired
+	private EmployeeSearchIndex searchIndex;
+
+	@Value("${search.employees:1000000}")
+	private int employees;
+
+	@AfterEach
+	void cleanUp() {
+		jdbcTemplate.update("DELETE FROM employees");
+		jdbcTemplate.update("DELETE FROM department");
+		searchIndex.build();
+	}
+
+	@Test
+	void indexVersusLike() throws Exception {
+		SyntheticHrData.Seeded data = new SyntheticHrData(jdbcTemplate, fileHelper, 42).seed(2000, employees, 0);
+		long began = System.nanoTime();
+		searchIndex.build();
+		System.out.printf("[search] %,d employees seeded in %,d ms, indexed in %,d ms%n",
+				data.employees(), data.millis(), (System.nanoTime() - began) / 1_000_000);
+
+		// on small machines the JIT and the collector compete with the benchmark for cores, so warm up
+		// until compilation settles and start from a collected heap
+		for (int i = 0; i < 2000; i++) {
+			for (String q : QUERIES) {
+				searchIndex.search(q, LIMIT);
+			}
+		}
+		System.gc();
+		double[] index = time(q -> assertThat(searchIndex.search(q, LIMIT)).isNotEmpty(), ROUNDS);
+		// the scans are slow enough that a couple of rounds give stable numbers
+		double[] like = time(this::like, 2);
+
+		System.out.printf("[search] index: p50 %.3f ms, p99 %.3f ms%n", index[0], index[1]);
+		System.out.printf("[search] LIKE : p50 %.3f ms, p99 %.3f ms%n", like[0], like[1]);
+		assertThat(index[1]).isLessThan(like[0]);
+	}
+
+	private void like(String query) {
+		StringBuilder sql = new StringBuilder("SELECT e.employee_id FROM employees e "
+				+ "LEFT JOIN department d ON d.department_id = e.department_id WHERE 1 = 1");
+		List<Object> args = new ArrayList<>();
+		for (String term : query.split(" ")) {
+			sql.append(" AND (LOWER(e.first_name) LIKE ? OR LOWER(e.last_name) LIKE ? OR LOWER(e.email) LIKE ?"
+					+ " OR LOWER(e.title) LIKE ? OR LOWER(d.name) LIKE ?)");
+			for (int i = 0; i < 5; i++) {
+				args.add("%" + term + "%");
+			}
+		}
+		sql.append(" LIMIT ").append(LIMIT);
+		jdbcTemplate.queryForList(sql.toString(), Integer.class, args.toArray());
+	}
+
+	private static double[] time(Query query, int rounds) throws Exception {
+		double[] latencies = new double[rounds * QUERIES.length];
+		int n = 0;
+		for (int round = 0; round < rounds; round++) {
+			for (String q : QUERIES) {
+				long began = System.nanoTime();
+				query.run(q);
+				latencies[n++] = (System.nanoTime() - began) / 1e6;
+			}
+		}
+		Arrays.sort(latencies);
+		return new double[]{latencies[n / 2], latencies[(int) (n * 0.99)]};
+	}
+
+	private interface Query {
+		void run(String q) throws Exception;
+	}
+}
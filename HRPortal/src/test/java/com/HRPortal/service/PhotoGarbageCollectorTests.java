@@ -0,0 +1,170 @@
+package com.HRPortal.service;
+
+import com.HRPortal.entity.Employees;
+import com.HRPortal.helper.PhotoStore;
+import com.HRPortal.repository.EmployeesRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PhotoGarbageCollectorTests {
+
+	private static final Path INCOMING = Path.of("target/test-uploads/employee_photos/incoming");
+	private static final FileTime TWO_DAYS_AGO = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	@Autowired
+	private PhotoJobService photoJobs;
+
+	@Autowired
+	private PhotoStore photoStore;
+
+	@Autowired
+	private PhotoVariantService photoVariants;
+
+	@Autowired
+	private PhotoGarbageCollector collector;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private final Random random = new Random();
+
+	@BeforeEach
+	void startEmpty() throws Exception {
+		assertThat(photoJobs.awaitIdle(Duration.ofSeconds(10))).isTrue();
+		employeesRepo.deleteAll();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		employeesRepo.deleteAll();
+	}
+
+	@Test
+	void deletesOldOrphansWithTheirThumbnailsAndReportsDanglingReferences() throws Exception {
+		mockMvc.perform(multipart("/api/employee/add")
+						.file(new MockMultipartFile("photograph", "kept.jpg", "image/jpeg", bytes("kept photo")))
+						.param("first_name", "Kept")
+						.param("last_name", "Photo")
+						.param("email", "kept@example.com")
+						.param("title", "Engineer"))
+				.andExpect(status().isCreated());
+		assertThat(photoJobs.awaitIdle(Duration.ofSeconds(10))).isTrue();
+		String keptPath = employeesRepo.findAll().get(0).getPhotograph_path();
+		String kept = keptPath.substring(keptPath.lastIndexOf('/') + 1);
+		age(kept);
+
+		String oldOrphan = age(stored(bytes("old orphan")));
+		String legacyOrphan = age(flat(bytes("old orphan in the flat layout")));
+		Path thumbnail = photoVariants.variantPath(oldOrphan, 64);
+		Files.createDirectories(thumbnail.getParent());
+		Files.write(thumbnail, bytes("thumbnail"));
+		String youngOrphan = stored(bytes("upload whose row has not committed yet"));
+
+		Employees dangling = new Employees();
+		dangling.setFirst_name("Dangling");
+		dangling.setLast_name("Photo");
+		dangling.setEmail("dangling@example.com");
+		dangling.setPhotograph_path("/uploads/employee_photos/" + hexName());
+		employeesRepo.save(dangling);
+		double reclaimedBefore = meterRegistry.get("photo.gc.reclaimed").counter().count();
+
+		PhotoGarbageCollector.Report report = collector.reconcile();
+
+		assertThat(photoStore.exists(oldOrphan)).isFalse();
+		assertThat(photoStore.exists(legacyOrphan)).isFalse();
+		assertThat(thumbnail).doesNotExist();
+		assertThat(photoStore.exists(youngOrphan)).isTrue();
+		assertThat(photoStore.exists(kept)).isTrue();
+		// earlier runs and other test classes may have left old orphans too
+		assertThat(report.deleted()).isGreaterThanOrEqualTo(2);
+		assertThat(report.reclaimedBytes()).isGreaterThanOrEqualTo(bytes("old orphan").length
+				+ bytes("old orphan in the flat layout").length);
+		assertThat(report.references()).isEqualTo(2);
+		assertThat(report.dangling()).isEqualTo(1);
+		assertThat(meterRegistry.get("photo.gc.reclaimed").counter().count() - reclaimedBefore)
+				.isEqualTo(report.reclaimedBytes());
+		assertThat(meterRegistry.get("photo.gc.dangling").gauge().value()).isEqualTo(1);
+
+		photoStore.delete(youngOrphan);
+	}
+
+	@Test
+	void danglingReferencesAreCheckedAPageAtATime() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			Employees dangling = new Employees();
+			dangling.setFirst_name("Dangling");
+			dangling.setLast_name("Photo " + i);
+			dangling.setEmail("dangling" + i + "@example.com");
+			dangling.setPhotograph_path("/uploads/employee_photos/" + hexName());
+			employeesRepo.save(dangling);
+		}
+		int fetchSize = (int) ReflectionTestUtils.getField(collector, "fetchSize");
+		ReflectionTestUtils.setField(collector, "fetchSize", 2);
+		try {
+			PhotoGarbageCollector.Report report = collector.reconcile();
+
+			// two full pages and a last one of one row
+			assertThat(report.references()).isEqualTo(5);
+			assertThat(report.dangling()).isEqualTo(5);
+		} finally {
+			ReflectionTestUtils.setField(collector, "fetchSize", fetchSize);
+		}
+	}
+
+	private String stored(byte[] content) throws Exception {
+		String name = hexName();
+		photoStore.put(name, Files.write(INCOMING.resolve(name + ".part"), content));
+		return name;
+	}
+
+	// Not moved by PhotoStoreMigration yet
+	private String flat(byte[] content) throws Exception {
+		String name = hexName();
+		Files.write(Path.of("target/test-uploads/employee_photos", name), content);
+		return name;
+	}
+
+	private String age(String name) throws Exception {
+		Files.setLastModifiedTime(photoStore.localFile(name), TWO_DAYS_AGO);
+		return name;
+	}
+
+	private String hexName() {
+		byte[] hash = new byte[32];
+		random.nextBytes(hash);
+		return HexFormat.of().formatHex(hash) + ".jpg";
+	}
+
+	private static byte[] bytes(String content) {
+		return content.getBytes(StandardCharsets.UTF_8);
+	}
+}
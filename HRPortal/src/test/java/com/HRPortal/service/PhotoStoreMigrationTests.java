@@ -0,0 +1,70 @@
+package com.HRPortal.service;
+
+import com.HRPortal.helper.LocalPhotoStore;
+import com.HRPortal.helper.S3PhotoStore;
+import com.HRPortal.helper.S3StandIn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PhotoStoreMigrationTests {
+
+	@Test
+	void movesFlatPhotosIntoShardsNoFasterThanTheByteRate(@TempDir Path root) throws Exception {
+		LocalPhotoStore store = new LocalPhotoStore(root);
+		for (int i = 0; i < 4; i++) {
+			Files.write(root.resolve(i + "a" + "0".repeat(62) + ".jpg"), new byte[10_000]);
+		}
+		store.put("ff00" + "0".repeat(60) + ".jpg", Files.write(root.resolve("done.part"), new byte[10_000]));
+
+		// 40 KB at 20 KB/s: the first photo goes at once, the other three wait 0.5 s each
+		PhotoStoreMigration.Report report = migration(20_000, 1000).migrate(store, store);
+
+		assertThat(report.moved()).isEqualTo(4);
+		assertThat(report.failed()).isZero();
+		assertThat(report.bytes()).isEqualTo(40_000);
+		assertThat(report.elapsed()).isGreaterThanOrEqualTo(Duration.ofMillis(1400));
+		try (Stream<String> flat = store.flatNames(); Stream<String> names = store.names()) {
+			assertThat(flat).isEmpty();
+			assertThat(names).hasSize(5);
+		}
+		assertThat(root.resolve("1a/00").resolve("1a" + "0".repeat(62) + ".jpg")).exists();
+
+		assertThat(migration(20_000, 1000).migrate(store, store).moved()).isZero();
+	}
+
+	@Test
+	void movesLocalPhotosIntoTheBucket(@TempDir Path dir) throws Exception {
+		LocalPhotoStore local = new LocalPhotoStore(dir.resolve("photos"));
+		String sharded = "ab12" + "0".repeat(60) + ".jpg";
+		local.put(sharded, Files.writeString(dir.resolve("upload.part"), "sharded"));
+		Files.writeString(dir.resolve("photos/emp_5.jpg"), "legacy");
+
+		try (S3StandIn s3 = new S3StandIn("photos", "test-key", 1000)) {
+			S3PhotoStore bucket = new S3PhotoStore(s3.endpoint(), "us-east-1", "photos", "test-key", "test-secret",
+					"employee_photos/", dir.resolve("cache"), 1 << 20, Duration.ofSeconds(5));
+
+			PhotoStoreMigration.Report report = migration(100_000_000, 1000).migrate(local, bucket);
+
+			assertThat(report.moved()).isEqualTo(2);
+			assertThat(s3.objects().keySet()).containsExactlyInAnyOrder("employee_photos/" + sharded, "employee_photos/emp_5.jpg");
+			try (Stream<String> names = local.names()) {
+				assertThat(names).isEmpty();
+			}
+		}
+	}
+
+	private static PhotoStoreMigration migration(long maxBytesPerSecond, int maxFilesPerSecond) {
+		PhotoStoreMigration migration = new PhotoStoreMigration();
+		ReflectionTestUtils.setField(migration, "maxBytesPerSecond", maxBytesPerSecond);
+		ReflectionTestUtils.setField(migration, "maxFilesPerSecond", maxFilesPerSecond);
+		return migration;
+	}
+}
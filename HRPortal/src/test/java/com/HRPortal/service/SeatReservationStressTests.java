@@ -0,0 +1,164 @@
+package com.HRPortal.service;
+
+import com.HRPortal.entity.Department;
+import com.HRPortal.entity.Employees;
+import com.HRPortal.repository.DepartmentRepo;
+import com.HRPortal.repository.EmployeesRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class SeatReservationStressTests {
+
+	private static final int CAPACITY = 40;
+	// three attempts per seat, so every run keeps hammering the department after it is full
+	private static final int ATTEMPTS = CAPACITY * 3;
+
+	@Autowired
+	private SeatReservationService seatReservation;
+
+	@Autowired
+	private EmployeesService employeesService;
+
+	@Autowired
+	private DepartmentRepo departmentRepo;
+
+	@Autowired
+	private EmployeesRepo employeesRepo;
+
+	private Department hot;
+	private Department cold;
+
+	@BeforeEach
+	void seed() {
+		hot = departmentRepo.save(department("Hot", CAPACITY));
+		cold = departmentRepo.save(department("Cold", CAPACITY));
+	}
+
+	@AfterEach
+	void cleanUp() {
+		employeesRepo.deleteAll();
+		departmentRepo.deleteAll();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 4, 16, 32})
+	void concurrentHiresNeverOverbook(int threads) throws Exception {
+		AtomicInteger next = new AtomicInteger();
+		AtomicInteger hired = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+
+		long elapsed = race(threads, () -> {
+			int i;
+			while ((i = next.getAndIncrement()) < ATTEMPTS) {
+				Employees e = new Employees();
+				e.setFirst_name("Hire");
+				e.setLast_name(String.valueOf(i));
+				e.setEmail("hire" + i + "-" + threads + "@example.com");
+				Department ref = new Department();
+				ref.setDepartmentId(hot.getDepartmentId());
+				e.setDepartment(ref);
+				try {
+					employeesService.addEmployees(e);
+					hired.incrementAndGet();
+				} catch (ResponseStatusException ex) {
+					rejected.incrementAndGet();
+				}
+			}
+		});
+
+		assertThat(hired.get()).isEqualTo(CAPACITY);
+		assertThat(rejected.get()).isEqualTo(ATTEMPTS - CAPACITY);
+		assertThat(seatsLeft(hot)).isZero();
+		assertThat(employeesRepo.count()).isEqualTo(CAPACITY);
+		System.out.printf("[seat-reservation] threads=%d attempts=%d elapsed=%dms throughput=%.0f ops/s%n",
+				threads, ATTEMPTS, elapsed / 1_000_000, ATTEMPTS / (elapsed / 1e9));
+	}
+
+	@Test
+	void opposingTransfersKeepTotalsConsistent() throws Exception {
+		for (int i = 0; i < CAPACITY / 2; i++) {
+			seatReservation.reserve(hot.getDepartmentId());
+			seatReservation.reserve(cold.getDepartmentId());
+		}
+		AtomicInteger next = new AtomicInteger();
+
+		race(16, () -> {
+			int i;
+			while ((i = next.getAndIncrement()) < ATTEMPTS) {
+				try {
+					if (i % 2 == 0) {
+						seatReservation.transfer(hot.getDepartmentId(), cold.getDepartmentId());
+					} else {
+						seatReservation.transfer(cold.getDepartmentId(), hot.getDepartmentId());
+					}
+				} catch (ResponseStatusException ignored) {
+					// target full
+				}
+			}
+		});
+
+		assertThat(seatsLeft(hot) + seatsLeft(cold)).isEqualTo(CAPACITY);
+		assertThat(seatsLeft(hot)).isBetween(0, CAPACITY);
+	}
+
+	@Test
+	void releaseNeverExceedsCapacity() {
+		seatReservation.release(hot.getDepartmentId());
+		assertThat(seatsLeft(hot)).isEqualTo(CAPACITY);
+
+		assertThatThrownBy(() -> seatReservation.reserve(-1))
+				.isInstanceOf(ResponseStatusException.class)
+				.hasMessageContaining("Department not found");
+	}
+
+	private long race(int threads, Runnable task) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			futures.add(pool.submit(() -> {
+				start.await();
+				task.run();
+				return null;
+			}));
+		}
+		long began = System.nanoTime();
+		start.countDown();
+		for (Future<?> f : futures) {
+			f.get();
+		}
+		long elapsed = System.nanoTime() - began;
+		pool.shutdown();
+		return elapsed;
+	}
+
+	private int seatsLeft(Department d) {
+		return departmentRepo.findById((long) d.getDepartmentId()).orElseThrow().getSeats_left();
+	}
+
+	private static Department department(String name, int capacity) {
+		Department d = new Department();
+		d.setName(name);
+		d.setCapacity(capacity);
+		d.setSeats_left(capacity);
+		return d;
+	}
+}